@@ -0,0 +1,243 @@
+package press.mizhifei.dentist.gateway.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.gateway.config.ClientAddressProperties;
+import press.mizhifei.dentist.gateway.config.ConcurrencyLimitProperties;
+import press.mizhifei.dentist.gateway.config.RateLimitProperties;
+import press.mizhifei.dentist.gateway.config.RequestBodyProperties;
+import press.mizhifei.dentist.gateway.config.RevocationProperties;
+import press.mizhifei.dentist.gateway.config.RouteAuthorizationProperties;
+import press.mizhifei.dentist.gateway.config.SessionProperties;
+import press.mizhifei.dentist.gateway.filter.AnonymousSessionFilter;
+import press.mizhifei.dentist.gateway.filter.ClientAddress;
+import press.mizhifei.dentist.gateway.filter.ConcurrencyLimitFilter;
+import press.mizhifei.dentist.gateway.filter.JwtAuthenticationFilter;
+import press.mizhifei.dentist.gateway.filter.LoggingFilter;
+import press.mizhifei.dentist.gateway.filter.RateLimitFilter;
+import press.mizhifei.dentist.gateway.filter.RequestBodyLimitFilter;
+import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.security.RouteAuthorizationTable;
+import press.mizhifei.dentist.gateway.security.TokenRevocationList;
+import press.mizhifei.dentist.gateway.service.AnonymousSessionService;
+import press.mizhifei.dentist.gateway.service.BatchSubRequests;
+import press.mizhifei.dentist.gateway.service.BoundedSessionStore;
+import press.mizhifei.dentist.gateway.service.ClientRateLimiter;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation rate of the global filters that run on every gateway request, alone and as a chain
+ * Filters are wired with the gateway's production configuration and finish in a handler that writes a small
+ * JSON response, standing in for the downstream call. {@link #baseline()} measures exchange creation and that
+ * handler without any filter, so it can be subtracted from the other results.
+ *
+ * Build: mvn -pl api-gateway-benchmarks -am package -DskipTests
+ * Run:   java -jar api-gateway-benchmarks/target/benchmarks.jar -prof gc -rf json -rff gateway-baseline.json
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class GatewayFilterBenchmark {
+
+    private static final byte[] BODY = "{\"success\":true,\"message\":null,\"dataObject\":[]}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Terminal handler in place of the routing filter
+     */
+    private static final GatewayFilterChain DOWNSTREAM = exchange -> {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(BODY)));
+    };
+
+    @Param({"ANONYMOUS", "PUBLIC_PATH", "AUTHENTICATED", "CLINIC_SCOPED"})
+    public GatewayScenario scenario;
+
+    private GlobalFilter anonymousSessionFilter;
+    private GlobalFilter jwtAuthenticationFilter;
+    private GlobalFilter loggingFilter;
+    private List<GlobalFilter> chain;
+    private Context securityContext;
+    private String sessionId;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider();
+        AnonymousSessionService sessionService =
+                new AnonymousSessionService(new BoundedSessionStore(new SessionProperties()));
+
+        anonymousSessionFilter = new AnonymousSessionFilter(sessionService, jwtTokenProvider);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenProvider,
+                new RouteAuthorizationTable(authorizationProperties()), revocationList());
+        ClientAddress clientAddress = new ClientAddress(new ClientAddressProperties());
+        loggingFilter = new LoggingFilter(meterRegistry, clientAddress);
+
+        chain = new ArrayList<>(List.of(
+                anonymousSessionFilter,
+                jwtAuthenticationFilter,
+                new RateLimitFilter(new ClientRateLimiter(rateLimitProperties()), rateLimitProperties(),
+                        jwtTokenProvider, clientAddress, new BatchSubRequests(), meterRegistry),
+                new RequestBodyLimitFilter(new RequestBodyProperties(), meterRegistry),
+                loggingFilter,
+                new ConcurrencyLimitFilter(new ConcurrencyLimitProperties(), meterRegistry)));
+        chain.sort(Comparator.comparingInt(filter -> ((Ordered) filter).getOrder()));
+
+        securityContext = scenario.securityContext();
+        sessionId = sessionService.getOrCreateSession(null).block().getSessionId();
+    }
+
+    /**
+     * Revocation checks switched off, so the chain never calls out to auth-service
+     */
+    private static TokenRevocationList revocationList() {
+        RevocationProperties properties = new RevocationProperties();
+        properties.setEnabled(false);
+        return new TokenRevocationList(WebClient.create(), properties);
+    }
+
+    @Benchmark
+    public ServerWebExchange baseline() {
+        ServerWebExchange exchange = scenario.exchange(sessionId);
+        DOWNSTREAM.filter(exchange).contextWrite(securityContext).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public ServerWebExchange anonymousSessionFilter() {
+        return run(anonymousSessionFilter);
+    }
+
+    @Benchmark
+    public ServerWebExchange jwtAuthenticationFilter() {
+        return run(jwtAuthenticationFilter);
+    }
+
+    @Benchmark
+    public ServerWebExchange loggingFilter() {
+        return run(loggingFilter);
+    }
+
+    @Benchmark
+    public ServerWebExchange fullChain() {
+        ServerWebExchange exchange = scenario.exchange(sessionId);
+        new Chain(chain, 0).filter(exchange).contextWrite(securityContext).block();
+        return exchange;
+    }
+
+    private ServerWebExchange run(GlobalFilter filter) {
+        ServerWebExchange exchange = scenario.exchange(sessionId);
+        filter.filter(exchange, DOWNSTREAM).contextWrite(securityContext).block();
+        return exchange;
+    }
+
+    /**
+     * Production route authorization rules, see gateway.authorization in the gateway's application.yml
+     */
+    private static RouteAuthorizationProperties authorizationProperties() {
+        RouteAuthorizationProperties properties = new RouteAuthorizationProperties();
+        properties.setSuperuserRoles(List.of("SYSTEM_ADMIN"));
+        properties.setPublicPaths(List.of("/api/auth/", "/oauth2/", "/login/oauth2/", "/api/clinic/list/all",
+                "/api/clinic/search", "/api/genai/chatbot/help", "/actuator/", "/v3/api-docs", "/swagger-ui", "/admin"));
+        List<String> clinicRoles = List.of("CLINIC_ADMIN", "RECEPTIONIST", "DENTIST", "PATIENT");
+        properties.setRules(List.of(
+                rule("/api/clinic/", clinicRoles, List.of()),
+                rule("/api/clinic/{clinicId}/", clinicRoles, List.of("CLINIC_ADMIN", "RECEPTIONIST")),
+                rule("/api/patient/", clinicRoles, List.of()),
+                rule("/api/notification/", List.of(), List.of()),
+                rule("/api/genai/", List.of(), List.of())));
+        return properties;
+    }
+
+    /**
+     * Production limit dimensions with capacities the benchmark never exhausts, so every request is admitted
+     */
+    private static RateLimitProperties rateLimitProperties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.RouteLimits defaults = new RateLimitProperties.RouteLimits();
+        defaults.setIp(limit());
+        properties.setDefaults(defaults);
+        RateLimitProperties.RouteLimits appointments = new RateLimitProperties.RouteLimits();
+        appointments.setUser(limit());
+        appointments.setSession(limit());
+        appointments.setIp(limit());
+        properties.getRoutes().put("appointment-service", appointments);
+        return properties;
+    }
+
+    private static RateLimitProperties.Limit limit() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(1_000_000_000L);
+        limit.setPeriod(Duration.ofSeconds(1));
+        return limit;
+    }
+
+    private static RouteAuthorizationProperties.Rule rule(String path, List<String> roles, List<String> scoped) {
+        RouteAuthorizationProperties.Rule rule = new RouteAuthorizationProperties.Rule();
+        rule.setPath(path);
+        rule.setRoles(roles);
+        rule.setClinicScopedRoles(scoped);
+        return rule;
+    }
+
+    /**
+     * Ordered global filters ending in the downstream stand-in, like the gateway's filtering web handler
+     */
+    private record Chain(List<GlobalFilter> filters, int index) implements GatewayFilterChain {
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            return index < filters.size()
+                    ? filters.get(index).filter(exchange, new Chain(filters, index + 1))
+                    : DOWNSTREAM.filter(exchange);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GatewayFilterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
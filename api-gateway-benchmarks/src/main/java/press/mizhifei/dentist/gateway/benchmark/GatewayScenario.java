@@ -0,0 +1,122 @@
+package press.mizhifei.dentist.gateway.benchmark;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+import reactor.util.context.Context;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Request shapes the gateway sees on every call, each with the security context Spring Security would have set
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public enum GatewayScenario {
+
+    /**
+     * Returning visitor without a token on a public endpoint, carrying the session id issued earlier
+     */
+    ANONYMOUS("POST", "/api/genai/chatbot/help", "genai-service", null, null),
+
+    /**
+     * First visit to a public listing, a new anonymous session is created
+     */
+    PUBLIC_PATH("GET", "/api/clinic/list/all", "clinic-service", null, null),
+
+    /**
+     * Patient token on a route without role rules
+     */
+    AUTHENTICATED("GET", "/api/appointment/patient/42", "appointment-service", "PATIENT", null),
+
+    /**
+     * Clinic admin token on a clinic-scoped route, the path clinic id is checked against the token
+     */
+    CLINIC_SCOPED("GET", "/api/clinic/7/patients", "clinic-service", "CLINIC_ADMIN", 7L);
+
+    // Shared like in the server; MockServerWebExchange would create a codec configurer per exchange
+    private static final ServerCodecConfigurer CODECS = ServerCodecConfigurer.create();
+    private static final WebSessionManager SESSIONS = new DefaultWebSessionManager();
+    private static final LocaleContextResolver LOCALES = new AcceptHeaderLocaleContextResolver();
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("203.0.113.7", 52114);
+    private static final String USER_AGENT = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) Mobile/15E148";
+
+    private final String method;
+    private final String path;
+    private final Route route;
+    private final Jwt jwt;
+
+    GatewayScenario(String method, String path, String routeId, String roles, Long clinicId) {
+        this.method = method;
+        this.path = path;
+        this.route = Route.async()
+                .id(routeId)
+                .uri("lb://" + routeId)
+                .predicate(exchange -> true)
+                .build();
+        this.jwt = roles != null ? jwt(roles, clinicId) : null;
+    }
+
+    /**
+     * Builds a fresh exchange, as an exchange cannot be reused once filtered
+     * @param sessionId X-Session-ID sent by returning visitors and signed-in users
+     */
+    public ServerWebExchange exchange(String sessionId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.method(HttpMethod.valueOf(method), path)
+                .remoteAddress(CLIENT)
+                .header(HttpHeaders.USER_AGENT, USER_AGENT)
+                .header(HttpHeaders.ACCEPT, "application/json");
+        if (this != PUBLIC_PATH) {
+            request.header("X-Session-ID", sessionId);
+        }
+        if (jwt != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt.getTokenValue());
+        }
+        ServerWebExchange exchange = new DefaultServerWebExchange(request.build(), new MockServerHttpResponse(),
+                SESSIONS, CODECS, LOCALES);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    /**
+     * Reactor context holding the authentication of the token, empty for anonymous scenarios
+     */
+    public Context securityContext() {
+        return jwt != null
+                ? ReactiveSecurityContextHolder.withAuthentication(new JwtAuthenticationToken(jwt, List.of()))
+                : Context.empty();
+    }
+
+    private static Jwt jwt(String roles, Long clinicId) {
+        Instant issuedAt = Instant.now();
+        Jwt.Builder builder = Jwt.withTokenValue("eyJraWQiOiJkZW50aXN0ZHNzIiwiYWxnIjoiUlMyNTYifQ.benchmark.signature")
+                .header("kid", "dentistdss")
+                .header("alg", "RS256")
+                .subject("42")
+                .claim("email", "benchmark@example.com")
+                .claim("roles", roles)
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(86400));
+        if (clinicId != null) {
+            builder.claim("clinicId", clinicId);
+        }
+        return builder.build();
+    }
+}
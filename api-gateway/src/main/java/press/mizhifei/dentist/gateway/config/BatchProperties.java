@@ -0,0 +1,48 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Batch endpoint that runs several API calls of one client through the gateway in a single round trip
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.batch")
+public class BatchProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Sub-requests accepted per batch
+     */
+    private int maxRequests = 20;
+
+    /**
+     * Sub-requests of one batch dispatched at the same time
+     */
+    private int concurrency = 6;
+
+    /**
+     * Time limit of each sub-request, after which it is reported as 504
+     */
+    private Duration timeout = Duration.ofSeconds(10);
+
+    /**
+     * Largest sub-response body returned inline, larger ones are reported as 502
+     */
+    private DataSize maxResponseSize = DataSize.ofMegabytes(1);
+
+    /**
+     * Address sub-requests are sent to; defaults to this gateway on the loopback interface
+     */
+    private String baseUrl;
+}
@@ -0,0 +1,27 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proxies whose X-Forwarded-For and X-Real-IP headers are believed when resolving the client address
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.client-address")
+public class ClientAddressProperties {
+
+    /**
+     * Addresses or CIDR ranges of the load balancers in front of the gateway; loopback covers batch sub-requests
+     */
+    private List<String> trustedProxies = new ArrayList<>(List.of(
+            "127.0.0.0/8", "::1/128", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "fc00::/7"));
+}
@@ -0,0 +1,82 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adaptive per-route concurrency limits and route priorities for load shedding
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Concurrent downstream requests allowed per route before any latency has been measured
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    /**
+     * How much the current RTT may exceed the long-term RTT before the limit shrinks
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * Weight of each new estimate in the limit, between 0 and 1
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Factor applied to the limit when the downstream signals overload (503, 504 or a timeout)
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Concurrent downstream requests allowed across all routes, shared out by priority
+     */
+    private int maxInFlight = 1000;
+
+    private Priority defaultPriority = Priority.NORMAL;
+
+    /**
+     * Priorities by route id
+     */
+    private Map<String, Priority> priorities = new HashMap<>();
+
+    public Priority priorityOf(String routeId) {
+        return routeId != null ? priorities.getOrDefault(routeId, defaultPriority) : defaultPriority;
+    }
+
+    /**
+     * Share of max-in-flight a route may use, so lower priorities are shed first when the gateway is busy
+     */
+    public enum Priority {
+        HIGH(1.0),
+        NORMAL(0.8),
+        LOW(0.5);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+
+        public double share() {
+            return share;
+        }
+    }
+}
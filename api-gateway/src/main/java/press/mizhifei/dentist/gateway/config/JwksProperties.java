@@ -0,0 +1,35 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caching of the auth-service JSON Web Key Set used to verify access tokens
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.jwks")
+public class JwksProperties {
+
+    /**
+     * Interval of the background refresh, keys are served from memory in between
+     */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    /**
+     * Minimum time between two fetches triggered by tokens signed with an unknown key id
+     */
+    private Duration minRefetchInterval = Duration.ofSeconds(30);
+
+    /**
+     * Timeout of a single fetch from auth-service
+     */
+    private Duration timeout = Duration.ofSeconds(3);
+}
@@ -0,0 +1,76 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket request limits applied by the gateway per user, session and client IP
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Number of independently swept partitions of the bucket map
+     */
+    private int stripes = 16;
+
+    /**
+     * Bucket count beyond which no new buckets are created until a sweep frees room
+     */
+    private int maxBuckets = 200_000;
+
+    /**
+     * Limits of routes without an entry in routes
+     */
+    private RouteLimits defaults = new RouteLimits();
+
+    /**
+     * Limits by gateway route id
+     */
+    private Map<String, RouteLimits> routes = new HashMap<>();
+
+    public RouteLimits limitsFor(String routeId) {
+        return routeId != null ? routes.getOrDefault(routeId, defaults) : defaults;
+    }
+
+    @Data
+    public static class RouteLimits {
+        /**
+         * Per authenticated user id, unset means unlimited
+         */
+        private Limit user;
+
+        /**
+         * Per X-Session-ID, unset means unlimited
+         */
+        private Limit session;
+
+        /**
+         * Per client IP address, unset means unlimited
+         */
+        private Limit ip;
+    }
+
+    @Data
+    public static class Limit {
+        /**
+         * Burst size, also the number of requests refilled every period
+         */
+        private long capacity;
+
+        private Duration period = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,39 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request body size limits, enforced while the body streams through to the downstream service
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.request-body")
+public class RequestBodyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Limit of routes without their own entry
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(10);
+
+    /**
+     * Per-route limits, keyed by route id
+     */
+    private Map<String, DataSize> routes = new HashMap<>();
+
+    public long maxBytesOf(String routeId) {
+        DataSize size = routeId != null ? routes.get(routeId) : null;
+        return (size != null ? size : maxSize).toBytes();
+    }
+}
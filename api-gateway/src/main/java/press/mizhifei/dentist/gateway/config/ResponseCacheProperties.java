@@ -0,0 +1,57 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gateway-side caching of public, identical-for-everyone responses
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Memory bound of all cached bodies and keys, least recently used entries are evicted beyond it
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Responses larger than this are passed through without being cached
+     */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(512);
+
+    /**
+     * Successful non-GET requests under these path prefixes clear the cache
+     */
+    private List<String> invalidatePaths = new ArrayList<>();
+
+    /**
+     * Cached endpoints, matched by exact path
+     */
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String path;
+
+        /**
+         * GET responses are keyed by path and sorted query, POST responses by path and canonical JSON body
+         */
+        private String method = "GET";
+
+        private Duration ttl = Duration.ofSeconds(60);
+    }
+}
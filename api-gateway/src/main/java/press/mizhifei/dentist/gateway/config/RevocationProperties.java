@@ -0,0 +1,47 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Access token revocations published by auth-service as a Bloom filter
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.revocation")
+public class RevocationProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Revocation filter endpoint of auth-service; exact checks go to {uri}/{jti}
+     */
+    private String uri = "http://localhost:8081/auth/oauth2/revocations";
+
+    /**
+     * Interval of the background refresh of the filter, also the longest a revocation takes to reach the gateway
+     */
+    private Duration refreshInterval = Duration.ofSeconds(15);
+
+    /**
+     * Timeout of a single call to auth-service
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * How long the exact answer for a token id the filter reports as possibly revoked is reused
+     */
+    private Duration checkCacheTtl = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of exact answers kept
+     */
+    private int checkCacheMaxSize = 10_000;
+}
@@ -0,0 +1,60 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declarative route authorization rules for the gateway
+ * Compiled once at startup by {@link press.mizhifei.dentist.gateway.security.RouteAuthorizationTable}
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.authorization")
+public class RouteAuthorizationProperties {
+
+    /**
+     * Roles that are granted access to every route
+     */
+    private List<String> superuserRoles = new ArrayList<>(List.of("SYSTEM_ADMIN"));
+
+    /**
+     * Whether authenticated users may access paths not covered by any rule
+     */
+    private boolean defaultAllow = true;
+
+    /**
+     * Path prefixes that do not require authentication
+     */
+    private List<String> publicPaths = new ArrayList<>();
+
+    /**
+     * Role rules by path prefix, the longest matching prefix wins
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        /**
+         * Path prefix, may contain one numeric path variable such as /api/clinic/{clinicId}/
+         */
+        private String path;
+
+        /**
+         * Roles allowed on this prefix, empty means any authenticated user
+         */
+        private List<String> roles = new ArrayList<>();
+
+        /**
+         * Roles that may only access the clinic identified by the path variable
+         */
+        private List<String> clinicScopedRoles = new ArrayList<>();
+    }
+}
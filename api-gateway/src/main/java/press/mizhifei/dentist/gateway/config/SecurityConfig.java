@@ -9,6 +9,11 @@ import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.config.Customizer;
+import org.springframework.web.reactive.function.client.WebClient;
+import press.mizhifei.dentist.gateway.security.JdkEdDsaVerifierFactory;
+import press.mizhifei.dentist.gateway.security.JwkSetCache;
+import press.mizhifei.dentist.gateway.security.SignatureKeySelector;
+import press.mizhifei.dentist.gateway.security.TokenRevocationList;
 
 /**
  * Security configuration for API Gateway
@@ -50,6 +55,9 @@ public class SecurityConfig {
                     // Public GenAI endpoints
                     .pathMatchers("/api/genai/chatbot/help").permitAll()
                     
+                    // Batch endpoint, every sub-request is authenticated on its own
+                    .pathMatchers("/api/batch").permitAll()
+
                     // Admin server
                     .pathMatchers("/admin", "/admin/**").permitAll();
 
@@ -69,7 +77,26 @@ public class SecurityConfig {
     }
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder() {
-        return NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri).build();
+    public JwkSetCache jwkSetCache(WebClient.Builder webClientBuilder, JwksProperties jwksProperties) {
+        return new JwkSetCache(webClientBuilder.build(), jwkSetUri, jwksProperties);
+    }
+
+    @Bean
+    public TokenRevocationList tokenRevocationList(WebClient.Builder webClientBuilder, RevocationProperties revocationProperties) {
+        return new TokenRevocationList(webClientBuilder.build(), revocationProperties);
+    }
+
+    /**
+     * Verifies tokens against the cached key set instead of fetching keys lazily on the request path
+     * Accepts RS256, ES256 and EdDSA, whichever auth-service is configured to sign with
+     */
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(JwkSetCache jwkSetCache) {
+        return NimbusReactiveJwtDecoder.withJwkSource(jwkSetCache::keysFor)
+                .jwtProcessorCustomizer(processor -> {
+                    processor.setJWSKeySelector(new SignatureKeySelector());
+                    processor.setJWSVerifierFactory(new JdkEdDsaVerifierFactory());
+                })
+                .build();
     }
 }
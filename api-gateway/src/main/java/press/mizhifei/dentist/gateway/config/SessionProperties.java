@@ -0,0 +1,87 @@
+package press.mizhifei.dentist.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Limits and persistence settings for the gateway session store
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.session")
+public class SessionProperties {
+
+    /**
+     * Maximum number of sessions kept in memory, the soonest expiring are evicted beyond it
+     */
+    private int maxSessions = 100_000;
+
+    /**
+     * Idle time after which a session expires
+     */
+    private Duration ttl = Duration.ofMinutes(30);
+
+    /**
+     * Resolution of the expiry timing wheel, also the interval of the expiry task
+     */
+    private Duration expiryTick = Duration.ofSeconds(1);
+
+    /**
+     * Where sessions are kept: memory (per node), file (memory with snapshots on local disk)
+     * or redis (shared between nodes, with an in-memory near-cache)
+     */
+    private StoreType store = StoreType.MEMORY;
+
+    private Snapshot snapshot = new Snapshot();
+
+    private Redis redis = new Redis();
+
+    public enum StoreType {
+        MEMORY,
+        FILE,
+        REDIS
+    }
+
+    @Data
+    public static class Snapshot {
+        /**
+         * Snapshot file restored on startup and rewritten periodically and on shutdown
+         */
+        private String path = "data/gateway-sessions.json";
+
+        /**
+         * Interval between snapshots
+         */
+        private Duration interval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Redis {
+        /**
+         * Redis connection URI, Redis 6.2 or later is required
+         */
+        private String uri = "redis://localhost:6379";
+
+        /**
+         * Prefix of the session keys
+         */
+        private String keyPrefix = "gateway:session:";
+
+        /**
+         * Time after which a session read into the local near-cache is read from Redis again, however often it is used
+         */
+        private Duration nearCacheTtl = Duration.ofMinutes(5);
+
+        /**
+         * Interval at which access times served from the near-cache are written back as Redis expiry
+         */
+        private Duration syncInterval = Duration.ofSeconds(10);
+    }
+}
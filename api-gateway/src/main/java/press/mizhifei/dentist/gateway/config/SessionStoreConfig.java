@@ -0,0 +1,53 @@
+package press.mizhifei.dentist.gateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import press.mizhifei.dentist.gateway.service.BoundedSessionStore;
+import press.mizhifei.dentist.gateway.service.FileSnapshotSessionStore;
+import press.mizhifei.dentist.gateway.service.RedisSessionStore;
+import press.mizhifei.dentist.gateway.service.SessionStore;
+
+import java.nio.file.Path;
+
+/**
+ * Selects the session store implementation from gateway.session.store
+ * The bounded in-memory store always exists; the file store is layered on top of it, the redis store keeps its own
+ * near-cache
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Configuration
+public class SessionStoreConfig {
+
+    @Bean
+    public BoundedSessionStore boundedSessionStore(SessionProperties properties) {
+        log.info("Using {} session store (max {} sessions in memory)",
+                properties.getStore(), properties.getMaxSessions());
+        return new BoundedSessionStore(properties.getMaxSessions(), properties.getTtl(), properties.getExpiryTick());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "gateway.session", name = "store", havingValue = "file")
+    public SessionStore fileSnapshotSessionStore(BoundedSessionStore boundedSessionStore,
+                                                 SessionProperties properties, ObjectMapper objectMapper) {
+        return new FileSnapshotSessionStore(boundedSessionStore, Path.of(properties.getSnapshot().getPath()),
+                properties.getTtl(), objectMapper);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "gateway.session", name = "store", havingValue = "redis")
+    public SessionStore redisSessionStore(SessionProperties properties, ObjectMapper objectMapper) {
+        SessionProperties.Redis redis = properties.getRedis();
+        return new RedisSessionStore(properties.getMaxSessions(), redis.getNearCacheTtl(), redis.getUri(),
+                redis.getKeyPrefix(), properties.getTtl(), objectMapper);
+    }
+}
@@ -0,0 +1,53 @@
+package press.mizhifei.dentist.gateway.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.gateway.config.BatchProperties;
+import press.mizhifei.dentist.gateway.dto.BatchRequest;
+import press.mizhifei.dentist.gateway.dto.BatchResponse;
+import press.mizhifei.dentist.gateway.filter.RateLimitFilter;
+import press.mizhifei.dentist.gateway.service.BatchDispatcher;
+import reactor.core.publisher.Mono;
+
+/**
+ * Combines several API calls into one round trip
+ * The batch itself is public; each sub-request is authenticated and authorized on its own. Rate limits are
+ * charged once per batch, under the limits of the "batch" route id, instead of once per sub-request.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "gateway.batch", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BatchController {
+
+    private static final String ROUTE_ID = "batch";
+
+    private final BatchDispatcher batchDispatcher;
+    private final BatchProperties properties;
+    private final RateLimitFilter rateLimitFilter;
+
+    @PostMapping("/api/batch")
+    public Mono<ResponseEntity<BatchResponse>> batch(@RequestBody BatchRequest batch, ServerWebExchange exchange) {
+        int size = batch.getRequests() != null ? batch.getRequests().size() : 0;
+        if (size == 0 || size > properties.getMaxRequests()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch takes 1 to " + properties.getMaxRequests() + " requests"));
+        }
+        return rateLimitFilter.acquire(exchange, ROUTE_ID).flatMap(waitNanos -> waitNanos == 0
+                ? batchDispatcher.dispatch(batch, exchange.getRequest()).map(ResponseEntity::ok)
+                : Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(RateLimitFilter.retryAfterSeconds(waitNanos)))
+                        .build()));
+    }
+}
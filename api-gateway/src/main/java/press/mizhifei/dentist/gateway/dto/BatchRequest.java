@@ -0,0 +1,50 @@
+package press.mizhifei.dentist.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ *
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchRequest {
+
+    @Builder.Default
+    private List<Item> requests = new ArrayList<>();
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        // Echoed back in the matching response, defaults to the position in the batch
+        private String id;
+
+        @Builder.Default
+        private String method = "GET";
+
+        // Gateway path including the query string, e.g. /api/notification/unread/count
+        private String path;
+
+        @Builder.Default
+        private Map<String, String> headers = new HashMap<>();
+
+        // JSON body, or a string sent as is
+        private JsonNode body;
+    }
+}
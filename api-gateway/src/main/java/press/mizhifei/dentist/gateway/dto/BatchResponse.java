@@ -0,0 +1,45 @@
+package press.mizhifei.dentist.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ *
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResponse {
+
+    // In the order of the requests
+    @Builder.Default
+    private List<Item> responses = new ArrayList<>();
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private String id;
+        private int status;
+
+        @Builder.Default
+        private Map<String, String> headers = new HashMap<>();
+
+        // Parsed JSON body, or the body as a string for other content types
+        private JsonNode body;
+    }
+}
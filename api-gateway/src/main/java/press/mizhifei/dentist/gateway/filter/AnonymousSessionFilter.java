@@ -5,17 +5,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.security.VerifiedClaims;
 import press.mizhifei.dentist.gateway.service.AnonymousSessionService;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Function;
+
 /**
  * Filter for managing user sessions and header propagation
  * Handles both anonymous and authenticated users, ensuring proper session tracking
@@ -46,24 +45,12 @@ public class AnonymousSessionFilter implements GlobalFilter, Ordered {
         // Get existing session ID from request headers
         String existingSessionId = request.getHeaders().getFirst("X-Session-ID");
 
-        // Check if user is authenticated
-        return ReactiveSecurityContextHolder.getContext()
-                .cast(org.springframework.security.core.context.SecurityContext.class)
-                .map(securityContext -> securityContext.getAuthentication())
-                .cast(Authentication.class)
-                .flatMap(authentication -> {
-                    if (authentication != null && authentication.isAuthenticated()) {
-                        // Handle authenticated user
-                        return handleAuthenticatedUserWithResponse(exchange, chain, existingSessionId, authentication);
-                    } else {
-                        // Handle anonymous user
-                        return handleAnonymousUserWithResponse(exchange, chain, existingSessionId);
-                    }
-                })
-                .switchIfEmpty(Mono.<Void>defer(() -> {
-                    // No security context - handle as anonymous user
-                    return handleAnonymousUserWithResponse(exchange, chain, existingSessionId);
-                }));
+        // Check if user is authenticated, reusing the claims of the already verified JWT
+        return jwtTokenProvider.resolveClaims(exchange)
+                .map(claims -> handleAuthenticatedUserWithResponse(exchange, chain, existingSessionId, claims))
+                // No verified JWT - handle as anonymous user
+                .defaultIfEmpty(Mono.defer(() -> handleAnonymousUserWithResponse(exchange, chain, existingSessionId)))
+                .flatMap(Function.identity());
     }
 
     /**
@@ -71,46 +58,31 @@ public class AnonymousSessionFilter implements GlobalFilter, Ordered {
      * Also adds session ID to response headers for frontend
      */
     private Mono<Void> handleAuthenticatedUserWithResponse(ServerWebExchange exchange, GatewayFilterChain chain,
-                                                          String existingSessionId, Authentication authentication) {
-        ServerHttpRequest request = exchange.getRequest();
-
-        // Extract JWT token and user information
-        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        if (StringUtils.hasText(authHeader) && authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-
-            String userId = jwtTokenProvider.getUserIdFromJWT(token);
-            String email = jwtTokenProvider.getEmailFromJWT(token);
-            String roles = jwtTokenProvider.getRolesFromJWT(token);
-            String clinicId = jwtTokenProvider.getClinicIdFromJWT(token);
-
-            // Link session to authenticated user
-            AnonymousSessionService.SessionInfo sessionInfo =
-                    anonymousSessionService.linkToAuthenticatedUser(
-                            existingSessionId, userId, email, roles, clinicId);
-
-            // Add headers for downstream services
-            ServerHttpRequest modifiedRequest = request.mutate()
-                    .header("X-Session-ID", sessionInfo.getSessionId())
-                    .header("X-User-ID", userId != null ? userId : "")
-                    .header("X-User-Email", email != null ? email : "")
-                    .header("X-User-Roles", roles != null ? roles : "")
-                    .header("X-Clinic-ID", clinicId != null ? clinicId : "")
-                    .build();
-
-            log.debug("Authenticated user session - SessionID: {}, UserID: {}",
-                    sessionInfo.getSessionId(), userId);
-
-            // Add session ID to response headers for frontend
-            return chain.filter(exchange.mutate().request(modifiedRequest).build())
-                    .then(Mono.fromRunnable(() -> {
-                        exchange.getResponse().getHeaders().add("X-Session-ID", sessionInfo.getSessionId());
-                        log.debug("Added session ID to response headers: {}", sessionInfo.getSessionId());
-                    }));
-        }
-
-        // Fallback to anonymous handling if token extraction fails
-        return handleAnonymousUserWithResponse(exchange, chain, existingSessionId);
+                                                          String existingSessionId, VerifiedClaims claims) {
+        String userId = claims.getUserId();
+        String email = claims.getEmail();
+        String roles = claims.getRoles();
+        String clinicId = claims.getClinicId();
+
+        // Link session to authenticated user
+        return anonymousSessionService.linkToAuthenticatedUser(existingSessionId, userId, email, roles, clinicId)
+                .flatMap(sessionInfo -> {
+                    // Add headers for downstream services
+                    ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
+                            .header("X-Session-ID", sessionInfo.getSessionId())
+                            .header("X-User-ID", userId != null ? userId : "")
+                            .header("X-User-Email", email != null ? email : "")
+                            .header("X-User-Roles", roles != null ? roles : "")
+                            .header("X-Clinic-ID", clinicId != null ? clinicId : "")
+                            .build();
+
+                    log.debug("Authenticated user session - SessionID: {}, UserID: {}",
+                            sessionInfo.getSessionId(), userId);
+
+                    // Add session ID to response headers for frontend
+                    addSessionIdToResponse(exchange, sessionInfo.getSessionId());
+                    return chain.filter(exchange.mutate().request(modifiedRequest).build());
+                });
     }
 
     /**
@@ -120,26 +92,34 @@ public class AnonymousSessionFilter implements GlobalFilter, Ordered {
     private Mono<Void> handleAnonymousUserWithResponse(ServerWebExchange exchange, GatewayFilterChain chain,
                                                       String existingSessionId) {
         // Get or create session
-        AnonymousSessionService.SessionInfo sessionInfo =
-                anonymousSessionService.getOrCreateSession(existingSessionId);
-
-        // Add headers for downstream services
-        ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                .header("X-Session-ID", sessionInfo.getSessionId())
-                .header("X-User-ID", "") // Empty for anonymous users
-                .header("X-User-Email", "") // Empty for anonymous users
-                .header("X-User-Roles", "") // Empty for anonymous users
-                .header("X-Clinic-ID", "") // Empty for anonymous users
-                .build();
-
-        log.debug("Anonymous user session - SessionID: {}", sessionInfo.getSessionId());
-
-        // Add session ID to response headers for frontend
-        return chain.filter(exchange.mutate().request(modifiedRequest).build())
-                .then(Mono.fromRunnable(() -> {
-                    exchange.getResponse().getHeaders().add("X-Session-ID", sessionInfo.getSessionId());
-                    log.debug("Added session ID to response headers: {}", sessionInfo.getSessionId());
-                }));
+        return anonymousSessionService.getOrCreateSession(existingSessionId)
+                .flatMap(sessionInfo -> {
+                    // Add headers for downstream services
+                    ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
+                            .header("X-Session-ID", sessionInfo.getSessionId())
+                            .header("X-User-ID", "") // Empty for anonymous users
+                            .header("X-User-Email", "") // Empty for anonymous users
+                            .header("X-User-Roles", "") // Empty for anonymous users
+                            .header("X-Clinic-ID", "") // Empty for anonymous users
+                            .build();
+
+                    log.debug("Anonymous user session - SessionID: {}", sessionInfo.getSessionId());
+
+                    // Add session ID to response headers for frontend
+                    addSessionIdToResponse(exchange, sessionInfo.getSessionId());
+                    return chain.filter(exchange.mutate().request(modifiedRequest).build());
+                });
+    }
+
+    /**
+     * Adds the session ID header when the response is committed
+     * Headers become read-only once the response has been written, so they cannot be added after the chain completes
+     */
+    private void addSessionIdToResponse(ServerWebExchange exchange, String sessionId) {
+        exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> {
+            exchange.getResponse().getHeaders().set("X-Session-ID", sessionId);
+            log.debug("Added session ID to response headers: {}", sessionId);
+        }));
     }
 
     /**
@@ -158,6 +138,6 @@ public class AnonymousSessionFilter implements GlobalFilter, Ordered {
 
     @Override
     public int getOrder() {
-        return Ordered.HIGHEST_PRECEDENCE; // Execute before JWT authentication filter
+        return Ordered.HIGHEST_PRECEDENCE + 1; // Execute after the access log, before JWT authentication filter
     }
 }
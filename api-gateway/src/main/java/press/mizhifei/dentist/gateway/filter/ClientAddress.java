@@ -0,0 +1,140 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import press.mizhifei.dentist.gateway.config.ClientAddressProperties;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the client IP address of a request behind the load balancer
+ * Forwarding headers are only believed when the peer is a trusted proxy. X-Forwarded-For is then read from the
+ * right, and the first hop that is not a trusted proxy is the client: everything left of it was written by the
+ * client itself and may be forged.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+public class ClientAddress {
+
+    private static final String UNKNOWN = "unknown";
+    // Only literals are parsed, so a forged hop never triggers a DNS lookup
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9.]+|[0-9a-fA-F.]*:[0-9a-fA-F:.]*");
+
+    private final List<Subnet> trustedProxies;
+
+    public ClientAddress(ClientAddressProperties properties) {
+        this.trustedProxies = properties.getTrustedProxies().stream().map(Subnet::parse).toList();
+    }
+
+    /**
+     * @param request the request
+     * @return the client IP address, or "unknown" if the connection has no remote address
+     */
+    public String of(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return UNKNOWN;
+        }
+        String peer = remoteAddress.getAddress().getHostAddress();
+        if (!isTrusted(peer)) {
+            return peer;
+        }
+
+        List<String> hops = forwardedFor(request);
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            if (!isTrusted(hops.get(i))) {
+                return hops.get(i);
+            }
+        }
+        if (!hops.isEmpty()) {
+            return hops.get(0);
+        }
+
+        String xRealIp = request.getHeaders().getFirst("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isBlank()) {
+            return xRealIp.trim();
+        }
+        return peer;
+    }
+
+    private boolean isTrusted(String address) {
+        InetAddress parsed = parseLiteral(address);
+        if (parsed == null) {
+            return false;
+        }
+        for (Subnet proxy : trustedProxies) {
+            if (proxy.contains(parsed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static InetAddress parseLiteral(String address) {
+        if (!IP_LITERAL.matcher(address).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static List<String> forwardedFor(ServerHttpRequest request) {
+        List<String> headers = request.getHeaders().get("X-Forwarded-For");
+        List<String> hops = new ArrayList<>();
+        if (headers == null) {
+            return hops;
+        }
+        for (String header : headers) {
+            for (String hop : header.split(",")) {
+                if (!hop.isBlank()) {
+                    hops.add(hop.trim());
+                }
+            }
+        }
+        return hops;
+    }
+
+    private record Subnet(byte[] network, int prefixLength) {
+
+        static Subnet parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            InetAddress address = parseLiteral(slash < 0 ? cidr : cidr.substring(0, slash));
+            if (address == null) {
+                throw new IllegalArgumentException("Not an IP address or CIDR range: " + cidr);
+            }
+            byte[] network = address.getAddress();
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+            return new Subnet(network, prefixLength);
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
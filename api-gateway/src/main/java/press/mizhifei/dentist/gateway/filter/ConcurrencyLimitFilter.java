@@ -0,0 +1,136 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.gateway.config.ConcurrencyLimitProperties;
+import press.mizhifei.dentist.gateway.service.AdaptiveConcurrencyLimit;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds requests with 503 before they queue up in front of a saturated downstream service
+ * Every route has an adaptive concurrency limit driven by its downstream round-trip time. On top of that
+ * the routes share a gateway-wide in-flight budget, of which lower priority routes may only use a part.
+ * Runs right before load balancing, so cache hits and coalesced requests are never counted.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private static final String REJECTED_METRIC = "gateway.concurrency.rejected";
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.concurrency.inflight", totalInFlight, AtomicInteger::get)
+                .description("Downstream requests in flight across all routes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        String routeId = route.getId();
+
+        int allowedTotal = (int) (properties.getMaxInFlight() * properties.priorityOf(routeId).share());
+        if (!tryIncrement(totalInFlight, allowedTotal)) {
+            return shed(exchange, routeId, "priority");
+        }
+        AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(routeId, this::newLimit);
+        int inFlightAtStart = limit.tryAcquire();
+        if (inFlightAtStart == 0) {
+            totalInFlight.decrementAndGet();
+            return shed(exchange, routeId, "limit");
+        }
+
+        long start = System.nanoTime();
+        AtomicLong committedAt = new AtomicLong();
+        exchange.getResponse().beforeCommit(() -> {
+            committedAt.compareAndSet(0, System.nanoTime());
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signal -> {
+            totalInFlight.decrementAndGet();
+            limit.release();
+            if (signal == SignalType.CANCEL) {
+                // Client went away, the sample says nothing about the downstream
+                return;
+            }
+            long end = committedAt.get() != 0 ? committedAt.get() : System.nanoTime();
+            limit.onSample(end - start, inFlightAtStart,
+                    signal == SignalType.ON_ERROR || isOverloaded(exchange.getResponse().getStatusCode()));
+        });
+    }
+
+    private AdaptiveConcurrencyLimit newLimit(String routeId) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        Gauge.builder("gateway.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit of the route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.route.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Downstream requests in flight on the route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange, String routeId, String reason) {
+        log.debug("Shedding {} on route {} ({})", exchange.getRequest().getPath(), routeId, reason);
+        meterRegistry.counter(REJECTED_METRIC, "route", routeId, "reason", reason).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        return response.setComplete();
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status != null && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int max) {
+        while (true) {
+            int current = counter.get();
+            if (current >= max) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
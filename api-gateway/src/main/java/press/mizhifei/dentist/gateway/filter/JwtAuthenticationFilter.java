@@ -1,8 +1,6 @@
 package press.mizhifei.dentist.gateway.filter;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,13 +11,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 
 import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.security.RouteAuthorizationTable;
+import press.mizhifei.dentist.gateway.security.TokenRevocationList;
 import reactor.core.publisher.Mono;
 
 /**
@@ -35,31 +33,26 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtTokenProvider jwtTokenProvider;
+    private final RouteAuthorizationTable routeAuthorizationTable;
+    private final TokenRevocationList tokenRevocationList;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, RouteAuthorizationTable routeAuthorizationTable,
+                                   TokenRevocationList tokenRevocationList) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.routeAuthorizationTable = routeAuthorizationTable;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
-    // Public endpoints that don't require authentication
-    private static final Set<String> PUBLIC_ENDPOINTS = Set.of(
-            "/api/auth/",
-            "/oauth2/",
-            "/login/oauth2/",
-            "/api/clinic/list/all",
-            "/api/clinic/search",
-            "/api/genai/chatbot/help",
-            "/actuator/",
-            "/v3/api-docs",
-            "/swagger-ui",
-            "/admin");
-
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String path = request.getPath().toString();
+        String path = request.getPath().value();
+
+        // Single walk over the compiled rule table for this path
+        RouteAuthorizationTable.AccessRule rule = routeAuthorizationTable.match(path);
 
         // Skip authentication for public endpoints - they are handled by AnonymousSessionFilter
-        if (isPublicEndpoint(path)) {
+        if (rule != null && rule.isPublic()) {
             log.debug("Skipping JWT authentication for public endpoint: {}", path);
             return chain.filter(exchange);
         }
@@ -71,129 +64,36 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return handleUnauthorized(exchange);
         }
 
-        String token = authHeader.substring(7);
-
-        // Get authentication from security context (token already validated by Spring Security)
-        return ReactiveSecurityContextHolder.getContext()
-                .cast(org.springframework.security.core.context.SecurityContext.class)
-                .map(securityContext -> securityContext.getAuthentication())
-                .cast(Authentication.class)
-                .flatMap(authentication -> {
-                    if (authentication != null && authentication.isAuthenticated()) {
-                        // Extract user context from JWT token
-                        String userId = jwtTokenProvider.getUserIdFromJWT(token);
-                        String email = jwtTokenProvider.getEmailFromJWT(token);
-                        String roles = jwtTokenProvider.getRolesFromJWT(token);
-                        String clinicId = jwtTokenProvider.getClinicIdFromJWT(token);
-
-                        log.debug("Authenticated user - ID: {}, Email: {}, Roles: {}, ClinicId: {}",
-                                userId, email, roles, clinicId);
-
-                        // Check role-based authorization for the endpoint
-                        if (!isAuthorized(path, roles, clinicId, request)) {
-                            log.warn("User {} not authorized for path: {} with roles: {}", email, path, roles);
-                            return handleForbidden(exchange);
-                        }
-
-                        // Headers are already set by AnonymousSessionFilter for authenticated users
-                        // Just proceed with the request
-                        return chain.filter(exchange);
-                    } else {
-                        log.warn("Authentication failed for path: {}", path);
-                        return handleUnauthorized(exchange);
+        // Read the claims of the token already validated by Spring Security
+        return jwtTokenProvider.resolveClaims(exchange)
+                .map(claims -> {
+                    log.debug("Authenticated user - ID: {}, Email: {}, Roles: {}, ClinicId: {}",
+                            claims.getUserId(), claims.getEmail(), claims.getRoles(), claims.getClinicId());
+
+                    // Check role-based authorization for the endpoint
+                    if (!routeAuthorizationTable.isAuthorized(rule, path, claims)) {
+                        log.warn("User {} not authorized for path: {} with roles: {}",
+                                claims.getEmail(), path, claims.getRoles());
+                        return handleForbidden(exchange);
                     }
+
+                    // In-memory filter probe; auth-service is asked only about possibly revoked tokens
+                    return tokenRevocationList.isRevoked(claims.getTokenId())
+                            .flatMap(revoked -> {
+                                if (revoked) {
+                                    log.warn("Revoked token of user {} presented for path: {}", claims.getEmail(), path);
+                                    return handleUnauthorized(exchange);
+                                }
+                                // Headers are already set by AnonymousSessionFilter for authenticated users
+                                // Just proceed with the request
+                                return chain.filter(exchange);
+                            });
                 })
-                .switchIfEmpty(Mono.<Void>defer(() -> {
-                    log.warn("No security context found for path: {}", path);
+                .defaultIfEmpty(Mono.defer(() -> {
+                    log.warn("No authenticated JWT found for path: {}", path);
                     return handleUnauthorized(exchange);
-                }));
-    }
-
-    /**
-     * Check if the endpoint is public and doesn't require authentication
-     */
-    private boolean isPublicEndpoint(String path) {
-        return PUBLIC_ENDPOINTS.stream().anyMatch(path::startsWith);
-    }
-
-    /**
-     * Check if user is authorized to access the endpoint based on roles and clinic
-     */
-    private boolean isAuthorized(String path, String roles, String clinicId, ServerHttpRequest request) {
-        if (roles == null || roles.isEmpty()) {
-            return false;
-        }
-
-        List<String> userRoles = Arrays.asList(roles.split(","));
-
-        // System admin has access to everything
-        if (userRoles.contains("SYSTEM_ADMIN")) {
-            return true;
-        }
-
-        // Role-based authorization rules
-        if (path.startsWith("/api/clinic/")) {
-            return authorizeClinicEndpoints(path, userRoles, clinicId, request);
-        } else if (path.startsWith("/api/patient/")) {
-            return authorizePatientEndpoints(path, userRoles, clinicId);
-        } else if (path.startsWith("/api/notification/")) {
-            return authorizeNotificationEndpoints(path, userRoles, clinicId);
-        } else if (path.startsWith("/api/genai/")) {
-            return authorizeGenAIEndpoints(path, userRoles);
-        }
-
-        // Default: require authentication but allow access
-        return true;
-    }
-
-    private boolean authorizeClinicEndpoints(String path, List<String> userRoles, String clinicId,
-            ServerHttpRequest request) {
-        // Clinic admin and receptionist can access clinic endpoints
-        boolean hasClinicRole = userRoles.contains("CLINIC_ADMIN") || userRoles.contains("RECEPTIONIST");
-
-        if (hasClinicRole) {
-            // For clinic-specific endpoints, validate clinic access
-            if (path.matches("/api/clinic/\\d+/.*")) {
-                String pathClinicId = extractClinicIdFromPath(path);
-                return clinicId != null && clinicId.equals(pathClinicId);
-            }
-            return true;
-        }
-
-        // Dentists and patients can access some clinic endpoints
-        return userRoles.contains("DENTIST") || userRoles.contains("PATIENT");
-    }
-
-    private boolean authorizePatientEndpoints(String path, List<String> userRoles, String clinicId) {
-        // Clinic admin, receptionist, and dentist can access patient endpoints
-        return userRoles.contains("CLINIC_ADMIN") ||
-                userRoles.contains("RECEPTIONIST") ||
-                userRoles.contains("DENTIST") ||
-                userRoles.contains("PATIENT");
-    }
-
-    private boolean authorizeNotificationEndpoints(String path, List<String> userRoles, String clinicId) {
-        // All authenticated users can access notification endpoints
-        return true;
-    }
-
-    private boolean authorizeGenAIEndpoints(String path, List<String> userRoles) {
-        // All authenticated users can access GenAI endpoints
-        return true;
-    }
-
-    private String extractClinicIdFromPath(String path) {
-        try {
-            String[] parts = path.split("/");
-            for (int i = 0; i < parts.length - 1; i++) {
-                if ("clinic".equals(parts[i]) && i + 1 < parts.length) {
-                    return parts[i + 1];
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error extracting clinic ID from path: {}", path, e);
-        }
-        return null;
+                }))
+                .flatMap(Function.identity());
     }
 
     private Mono<Void> handleUnauthorized(ServerWebExchange exchange) {
@@ -0,0 +1,34 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.loadbalancer.LatencyTrackingLifecycle;
+import reactor.core.publisher.Mono;
+
+/**
+ * Releases the instance chosen by the load balancer when the client cancels the request
+ * The load balancer filter only reports success and error, so without this a disconnected client
+ * would leave the request counted as outstanding against the instance for good.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+public class LoadBalancerCancellationFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange)
+                .doOnCancel(() -> LatencyTrackingLifecycle.cancel(exchange.getAttributes()));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -1,23 +1,36 @@
 package press.mizhifei.dentist.gateway.filter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Global logging filter for the API Gateway
- * Logs all incoming requests and outgoing responses
- * 
+ * Global access logging filter for the API Gateway
+ * Emits one structured access record per routed exchange and records per-route latency timers. It runs first, so
+ * requests turned away by the authentication, rate, body size and concurrency filters are recorded as well.
+ * Records go to the "press.mizhifei.dentist.gateway.access" logger, which logback-spring.xml
+ * routes through an asynchronous, non-blocking appender so request threads never wait on I/O.
+ *
  * @author zhifeimi
  * @email zm377@uowmail.edu.au
  * @github https://github.com/zm377
@@ -25,57 +38,107 @@ import java.time.format.DateTimeFormatter;
 @Component
 public class LoggingFilter implements GlobalFilter, Ordered {
 
-    private static final Logger logger = LoggerFactory.getLogger(LoggingFilter.class);
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Logger accessLog = LoggerFactory.getLogger("press.mizhifei.dentist.gateway.access");
+    private static final String LATENCY_METRIC = "gateway.route.latency";
+    private static final String UNKNOWN_ROUTE = "unknown";
+    private static final String[] OUTCOMES = {
+            "UNKNOWN", "INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final ClientAddress clientAddress;
+    private final ConcurrentMap<String, Timer[]> routeTimers = new ConcurrentHashMap<>();
+
+    public LoggingFilter(MeterRegistry meterRegistry, ClientAddress clientAddress) {
+        this.meterRegistry = meterRegistry;
+        this.clientAddress = clientAddress;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
-        ServerHttpResponse response = exchange.getResponse();
-
-        String timestamp = LocalDateTime.now().format(formatter);
-        String method = request.getMethod().toString();
-        String path = request.getPath().toString();
-        String remoteAddress = getClientIpAddress(request);
-        String userAgent = request.getHeaders().getFirst("User-Agent");
-
-        // Log incoming request
-        logger.info("INCOMING REQUEST - {} | {} {} | IP: {} | User-Agent: {}",
-                timestamp, method, path, remoteAddress, userAgent);
-        // Continue with the filter chain and log response
-        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-            org.springframework.http.HttpStatusCode statusCodeObj = response.getStatusCode();
-            int statusCode = statusCodeObj != null ? statusCodeObj.value() : 0;
-            String responseTimestamp = LocalDateTime.now().format(formatter);
-
-            logger.info("OUTGOING RESPONSE - {} | {} {} | Status: {} | IP: {}",
-                    responseTimestamp, method, path, statusCode, remoteAddress);
-        }));
+        long start = System.nanoTime();
+        AccessRecordingResponse response = new AccessRecordingResponse(exchange.getResponse(), start);
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> record(exchange, response, start));
+    }
+
+    private void record(ServerWebExchange exchange, AccessRecordingResponse response, long start) {
+        long end = System.nanoTime();
+        long downstreamNanos = (response.firstWriteNanos != 0 ? response.firstWriteNanos : end) - start;
+        HttpStatusCode status = response.getStatusCode();
+        int statusCode = status != null ? status.value() : 0;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : UNKNOWN_ROUTE;
+
+        timer(routeId, statusCode).record(downstreamNanos, TimeUnit.NANOSECONDS);
+
+        if (accessLog.isInfoEnabled()) {
+            ServerHttpRequest request = exchange.getRequest();
+            accessLog.info("method={} path={} route={} status={} downstream_ms={} total_ms={} bytes={} ip={} ua=\"{}\"",
+                    request.getMethod(), request.getPath().value(), routeId, statusCode,
+                    TimeUnit.NANOSECONDS.toMillis(downstreamNanos), TimeUnit.NANOSECONDS.toMillis(end - start),
+                    response.bytesWritten, clientAddress.of(request), request.getHeaders().getFirst("User-Agent"));
+        }
+    }
+
+    private Timer timer(String routeId, int statusCode) {
+        int series = statusCode / 100;
+        int outcome = series >= 1 && series <= 5 ? series : 0;
+        Timer[] timers = routeTimers.computeIfAbsent(routeId, id -> new Timer[OUTCOMES.length]);
+        Timer timer = timers[outcome];
+        if (timer == null) {
+            timer = Timer.builder(LATENCY_METRIC)
+                    .description("Time until the downstream service starts responding, per gateway route")
+                    .tag("route", routeId)
+                    .tag("outcome", OUTCOMES[outcome])
+                    .register(meterRegistry);
+            timers[outcome] = timer;
+        }
+        return timer;
     }
 
     @Override
     public int getOrder() {
-        return Ordered.LOWEST_PRECEDENCE; // Execute last to capture final response
+        // Outermost, so short-circuited 401/403/413/429 responses are recorded and every later writer is counted
+        return Ordered.HIGHEST_PRECEDENCE;
     }
 
     /**
-     * Extract client IP address from request headers
+     * Response decorator recording when the downstream response starts and how many body bytes are written
      */
-    private String getClientIpAddress(ServerHttpRequest request) {
-        String xForwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+    private static final class AccessRecordingResponse extends ServerHttpResponseDecorator {
+
+        private final long start;
+        private volatile long firstWriteNanos;
+        private volatile long bytesWritten;
+
+        AccessRecordingResponse(ServerHttpResponse delegate, long start) {
+            super(delegate);
+            this.start = start;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            markFirstWrite();
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            markFirstWrite();
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(this::count)));
         }
 
-        String xRealIp = request.getHeaders().getFirst("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+        private void markFirstWrite() {
+            if (firstWriteNanos == 0) {
+                long now = System.nanoTime();
+                firstWriteNanos = now != start ? now : now + 1;
+            }
         }
 
-        java.net.InetSocketAddress remoteAddress = request.getRemoteAddress();
-        if (remoteAddress != null && remoteAddress.getAddress() != null) {
-            return remoteAddress.getAddress().getHostAddress();
+        private void count(DataBuffer buffer) {
+            bytesWritten += buffer.readableByteCount();
         }
-        return "unknown";
     }
 }
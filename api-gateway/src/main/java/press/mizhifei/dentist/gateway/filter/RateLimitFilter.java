@@ -0,0 +1,139 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.gateway.config.RateLimitProperties;
+import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.security.VerifiedClaims;
+import press.mizhifei.dentist.gateway.service.BatchSubRequests;
+import press.mizhifei.dentist.gateway.service.ClientRateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route request rate limiting by authenticated user, session and client IP
+ * Each configured dimension has its own token bucket; a request needs a token from all of them
+ * and is otherwise rejected with 429 and a Retry-After header. The IP bucket, the only one a client cannot pick
+ * a fresh key for, is checked first, so rotating session ids does not drain buckets past the IP limit.
+ * Batch sub-requests are not limited here; the batch endpoint charges the whole batch once through
+ * {@link #acquire}.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    private final ClientRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ClientAddress clientAddress;
+    private final BatchSubRequests batchSubRequests;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(ClientRateLimiter rateLimiter, RateLimitProperties properties,
+                           JwtTokenProvider jwtTokenProvider, ClientAddress clientAddress,
+                           BatchSubRequests batchSubRequests, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.clientAddress = clientAddress;
+        this.batchSubRequests = batchSubRequests;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (batchSubRequests.isSubRequest(exchange.getRequest())) {
+            return chain.filter(exchange.mutate()
+                    .request(request -> request.headers(headers -> headers.remove(BatchSubRequests.HEADER)))
+                    .build());
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        return acquire(exchange, routeId)
+                .flatMap(wait -> wait == 0 ? chain.filter(exchange) : reject(exchange, routeId, wait));
+    }
+
+    /**
+     * Takes one token from every bucket of the exchange's client on a route
+     * @param exchange the request being limited
+     * @param routeId route whose limits apply, the defaults if it has none
+     * @return 0 if the request is allowed, otherwise nanoseconds until it would be
+     */
+    public Mono<Long> acquire(ServerWebExchange exchange, String routeId) {
+        RateLimitProperties.RouteLimits limits = properties.limitsFor(routeId);
+        if (!properties.isEnabled()
+                || limits.getUser() == null && limits.getSession() == null && limits.getIp() == null) {
+            return Mono.just(0L);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        long waitNanos = acquire(routeId, "ip", clientAddress.of(request), limits.getIp());
+        if (waitNanos == 0) {
+            waitNanos = acquire(routeId, "session", request.getHeaders().getFirst("X-Session-ID"), limits.getSession());
+        }
+        if (waitNanos != 0 || limits.getUser() == null) {
+            return Mono.just(counted(routeId, waitNanos));
+        }
+        return jwtTokenProvider.resolveClaims(exchange)
+                .map(VerifiedClaims::getUserId)
+                .map(userId -> counted(routeId, acquire(routeId, "user", userId, limits.getUser())))
+                .defaultIfEmpty(0L);
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    private long counted(String routeId, long waitNanos) {
+        if (waitNanos != 0) {
+            meterRegistry.counter("gateway.ratelimit.rejected", "route", String.valueOf(routeId)).increment();
+        }
+        return waitNanos;
+    }
+
+    private long acquire(String routeId, String dimension, String value, RateLimitProperties.Limit limit) {
+        if (limit == null || !StringUtils.hasText(value)) {
+            return 0;
+        }
+        long waitNanos = rateLimiter.tryAcquire(dimension + ':' + routeId + ':' + value, limit);
+        if (waitNanos != ClientRateLimiter.NO_BUCKET) {
+            return waitNanos;
+        }
+        // No room for another bucket: sessions and users are still covered by the IP limit acquired
+        // before them, IPs share one overflow bucket per route
+        return "ip".equals(dimension) ? rateLimiter.tryAcquireOverflow(dimension + ':' + routeId, limit) : 0;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, long waitNanos) {
+        long retryAfterSeconds = retryAfterSeconds(waitNanos);
+        log.debug("Rate limited {} on route {}, retry after {}s", exchange.getRequest().getPath(), routeId,
+                retryAfterSeconds);
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 3; // Execute after JWT authentication, once the session is resolved
+    }
+}
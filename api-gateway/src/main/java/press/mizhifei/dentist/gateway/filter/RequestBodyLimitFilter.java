@@ -0,0 +1,110 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.gateway.config.RequestBodyProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces per-route request body limits without buffering the body
+ * A declared Content-Length over the limit is rejected before anything is forwarded. Otherwise the body is
+ * counted chunk by chunk on its way downstream and the exchange fails with 413 once the limit is crossed.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class RequestBodyLimitFilter implements GlobalFilter, Ordered {
+
+    private static final String REJECTED_METRIC = "gateway.request.body.rejected";
+
+    private final RequestBodyProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RequestBodyLimitFilter(RequestBodyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        long maxBytes = properties.maxBytesOf(routeId);
+
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getHeaders().getContentLength() > maxBytes) {
+            return reject(exchange, routeId, maxBytes);
+        }
+        return chain.filter(exchange.mutate().request(new LimitedRequest(request, maxBytes)).build())
+                .onErrorResume(DataBufferLimitException.class, e -> {
+                    if (exchange.getResponse().isCommitted()) {
+                        return Mono.error(e);
+                    }
+                    return reject(exchange, routeId, maxBytes);
+                });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, long maxBytes) {
+        log.debug("Request body of {} exceeds {} bytes on route {}", exchange.getRequest().getPath(), maxBytes, routeId);
+        meterRegistry.counter(REJECTED_METRIC, "route", String.valueOf(routeId)).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+        return response.setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 4; // Before any filter that reads the body
+    }
+
+    /**
+     * Counts body bytes as they pass and errors the body once the limit is crossed
+     */
+    private static final class LimitedRequest extends ServerHttpRequestDecorator {
+
+        private final long maxBytes;
+
+        LimitedRequest(ServerHttpRequest delegate, long maxBytes) {
+            super(delegate);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.defer(() -> {
+                AtomicLong received = new AtomicLong();
+                return super.getBody().handle((buffer, sink) -> {
+                    if (received.addAndGet(buffer.readableByteCount()) > maxBytes) {
+                        DataBufferUtils.release(buffer);
+                        sink.error(new DataBufferLimitException("Request body exceeds " + maxBytes + " bytes"));
+                        return;
+                    }
+                    sink.next(buffer);
+                });
+            });
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.gateway.config.ResponseCacheProperties;
+import press.mizhifei.dentist.gateway.service.ResponseCache;
+import press.mizhifei.dentist.gateway.service.ResponseCache.CachedResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves configured public endpoints from the gateway response cache
+ * GET entries are keyed by path and query with parameters sorted by name, POST entries by path and
+ * the request body as canonical JSON. Hits answer If-None-Match with 304 and never reach the service;
+ * cached routes are sent with Cache-Control: no-cache so browsers revalidate instead of refetching.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final String CACHE_HEADER = "X-Gateway-Cache";
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter canonicalWriter;
+    private final Map<String, ResponseCacheProperties.Route> routes = new HashMap<>();
+    private final long maxEntryBytes;
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties, ObjectMapper objectMapper) {
+        this.cache = cache;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.maxEntryBytes = properties.getMaxEntrySize().toBytes();
+        for (ResponseCacheProperties.Route route : properties.getRoutes()) {
+            routes.put(HttpMethod.valueOf(route.getMethod().toUpperCase()).name() + " " + route.getPath(), route);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        String path = request.getPath().value();
+
+        ResponseCacheProperties.Route route = routes.get(method.name() + " " + path);
+        if (route == null) {
+            return isInvalidating(method, path) ? forwardAndInvalidate(exchange, chain) : chain.filter(exchange);
+        }
+        if (HttpMethod.GET.equals(method)) {
+            return serve(exchange, chain, route, queryKey(path, request.getQueryParams()));
+        }
+        return DataBufferUtils.join(request.getBody())
+                .map(ResponseCacheFilter::drain)
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    ServerWebExchange replayable = exchange.mutate().request(replayBody(request, body)).build();
+                    String canonical = canonicalJson(body);
+                    if (canonical == null) {
+                        return chain.filter(replayable);
+                    }
+                    return serve(replayable, chain, route, method.name() + " " + path + " " + canonical);
+                });
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain,
+                             ResponseCacheProperties.Route route, String key) {
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+        return chain.filter(exchange.mutate()
+                .response(new CachingResponse(exchange, key, route.getTtl()))
+                .build());
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.getEtag());
+        headers.setCacheControl(CacheControl.noCache());
+        headers.set(CACHE_HEADER, "HIT");
+        ServerHttpRequest request = exchange.getRequest();
+        if (isConditional(request) && cached.matches(request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.getContentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.getContentType());
+        }
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private boolean isInvalidating(HttpMethod method, String path) {
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+            return false;
+        }
+        for (String prefix : properties.getInvalidatePaths()) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> forwardAndInvalidate(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doOnSuccess(done -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (status != null && status.is2xxSuccessful()) {
+                log.debug("Clearing response cache after {} {}", exchange.getRequest().getMethod(),
+                        exchange.getRequest().getPath());
+                cache.clear();
+            }
+        });
+    }
+
+    private static boolean isConditional(ServerHttpRequest request) {
+        return HttpMethod.GET.equals(request.getMethod());
+    }
+
+    /**
+     * Builds the key of a GET request, sorting parameters by name and keeping the order of repeated values
+     */
+    private static String queryKey(String path, MultiValueMap<String, String> query) {
+        StringBuilder key = new StringBuilder("GET ").append(path);
+        if (query.isEmpty()) {
+            return key.toString();
+        }
+        char separator = '?';
+        for (Map.Entry<String, List<String>> param : new TreeMap<>(query).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value != null ? value : "");
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the body as JSON with sorted object keys and no whitespace, or null if it is not JSON
+     */
+    private String canonicalJson(byte[] body) {
+        try {
+            return canonicalWriter.writeValueAsString(objectMapper.readValue(body, Object.class));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] drain(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static byte[] join(List<DataBuffer> buffers) {
+        int length = 0;
+        for (DataBuffer buffer : buffers) {
+            length += buffer.readableByteCount();
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int count = buffer.readableByteCount();
+            buffer.read(bytes, offset, count);
+            offset += count;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+    private static ServerHttpRequest replayBody(ServerHttpRequest request, byte[] body) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+            }
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        // Just before the response writer, so misses can be captured; hits still pass through the access log
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    /**
+     * Response decorator that stores successful bodies in the cache and tags them with an ETag
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Duration ttl;
+
+        CachingResponse(ServerWebExchange exchange, String key, Duration ttl) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.ttl = ttl;
+        }
+
+        /**
+         * Buffers the body only while it fits in a cache entry
+         * A declared length over the limit streams straight through. Otherwise chunks are counted as they
+         * arrive; the first chunk crossing the limit releases everything held so far and the rest passes
+         * through unbuffered, without an ETag.
+         */
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable() || getHeaders().getContentLength() > maxEntryBytes) {
+                return super.writeWith(body);
+            }
+            AtomicLong seen = new AtomicLong();
+            return Flux.<DataBuffer>from(body)
+                    .bufferUntil(buffer -> seen.addAndGet(buffer.readableByteCount()) > maxEntryBytes)
+                    .switchOnFirst((first, chunks) -> {
+                        if (seen.get() > maxEntryBytes) {
+                            return super.writeWith(chunks.flatMapIterable(buffers -> buffers));
+                        }
+                        // Under the limit the first chunk can only have been emitted by completion
+                        return chunks.next().flatMap(buffers -> writeAndCache(join(buffers)));
+                    })
+                    .then();
+        }
+
+        private Mono<Void> writeAndCache(byte[] bytes) {
+            HttpHeaders headers = getHeaders();
+            String etag = cache.put(key, headers.getFirst(HttpHeaders.CONTENT_TYPE), bytes, ttl).getEtag();
+            headers.setETag(etag);
+            headers.setCacheControl(CacheControl.noCache());
+            headers.set(CACHE_HEADER, "MISS");
+            if (isConditional(exchange.getRequest()) && CachedResponse.matches(etag,
+                    exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return setComplete();
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private boolean isCacheable() {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value()) {
+                return false;
+            }
+            // Only configured public routes get here, so the downstream cache headers are not consulted
+            return !getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import press.mizhifei.dentist.gateway.security.GatewayRole;
+import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.security.VerifiedClaims;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Route filter that lets a single downstream GET go out per key at a time
+ * Identical GETs arriving while it is in flight wait for it and are answered with a copy of its response,
+ * so nothing is served that is older than the request itself. The key is path, query, Accept and the
+ * principal scope: role set and clinic for clinic staff, the user itself for everyone else.
+ *
+ * <pre>
+ * filters:
+ *   - name: SingleFlight
+ *     args:
+ *       paths: /api/appointment/clinic/{clinicId}, /api/clinic/{clinicId}/dentists
+ * </pre>
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+public class SingleFlightGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<SingleFlightGatewayFilterFactory.Config> {
+
+    private static final int STAFF_ROLES = GatewayRole.SYSTEM_ADMIN.bit() | GatewayRole.CLINIC_ADMIN.bit()
+            | GatewayRole.RECEPTIONIST.bit() | GatewayRole.DENTIST.bit();
+
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final JwtTokenProvider jwtTokenProvider;
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlightGatewayFilterFactory(JwtTokenProvider jwtTokenProvider, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> patterns = new ArrayList<>();
+        for (String path : config.getPaths()) {
+            patterns.add(PathPatternParser.defaultInstance.parse(path));
+        }
+        long maxBodyBytes = config.getMaxBodySize().toBytes();
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!HttpMethod.GET.equals(request.getMethod())
+                    || !matches(patterns, request.getPath().pathWithinApplication())) {
+                return chain.filter(exchange);
+            }
+            return jwtTokenProvider.resolveClaims(exchange)
+                    .map(SingleFlightGatewayFilterFactory::scopeOf)
+                    .defaultIfEmpty("anonymous")
+                    .flatMap(scope -> coalesce(exchange, chain, keyOf(request, scope), maxBodyBytes));
+        };
+        // Inside the response writer, so the leader's body can be captured
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, String key, long maxBodyBytes) {
+        Flight flight = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return leader.result.asMono()
+                    .map(shared -> {
+                        count(exchange, "follower");
+                        return shared.writeTo(exchange.getResponse());
+                    })
+                    // The leader's response could not be shared, send our own request
+                    .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                    .flatMap(Function.identity());
+        }
+        count(exchange, "leader");
+        CapturingResponse response = new CapturingResponse(exchange, key, flight, maxBodyBytes);
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, flight);
+                    flight.result.tryEmitEmpty();
+                });
+    }
+
+    private void count(ServerWebExchange exchange, String role) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.singleflight.requests",
+                "route", route != null ? route.getId() : "unknown", "role", role).increment();
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        if (patterns.isEmpty()) {
+            return true;
+        }
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clinic staff with the same roles see the same clinic data; anyone else may see data of their own
+     */
+    private static String scopeOf(VerifiedClaims claims) {
+        if ((claims.getRoleMask() & STAFF_ROLES) != 0) {
+            return "roles:" + claims.getRoleMask() + ";clinic:" + claims.getClinicId();
+        }
+        return "user:" + claims.getUserId();
+    }
+
+    private static String keyOf(ServerHttpRequest request, String scope) {
+        String query = request.getURI().getRawQuery();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return request.getPath().value() + (query != null ? "?" + query : "") + '\n' + accept + '\n' + scope;
+    }
+
+    @Data
+    public static class Config {
+        /**
+         * Path patterns coalesced on the route, empty means every GET of the route
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * Responses declaring a larger Content-Length are not shared
+         */
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+    }
+
+    private static final class Flight {
+        final Sinks.One<SharedResponse> result = Sinks.one();
+    }
+
+    /**
+     * Copy of the leader's downstream status, headers and body
+     */
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+        Mono<Void> writeTo(ServerHttpResponse response) {
+            response.setStatusCode(status);
+            response.getHeaders().putAll(headers);
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+        }
+    }
+
+    /**
+     * Response decorator that publishes the leader's response to the waiting followers as it is written
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Flight flight;
+        private final long maxBodyBytes;
+
+        CapturingResponse(ServerWebExchange exchange, String key, Flight flight, long maxBodyBytes) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.flight = flight;
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getStatusCode() == null || getHeaders().getContentLength() > maxBodyBytes) {
+                flight.result.tryEmitEmpty();
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        return bytes;
+                    })
+                    .flatMap(bytes -> {
+                        // Requests arriving from now on must not get a response produced before they came in
+                        inFlight.remove(key, flight);
+                        flight.result.tryEmitValue(new SharedResponse(getStatusCode(), downstreamHeaders(), bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streamed responses are not buffered for sharing
+            flight.result.tryEmitEmpty();
+            return super.writeAndFlushWith(body);
+        }
+
+        /**
+         * Headers received from the downstream service, without the ones the gateway added for this client
+         */
+        private HttpHeaders downstreamHeaders() {
+            Set<String> names = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES);
+            HttpHeaders headers = new HttpHeaders();
+            if (names != null) {
+                for (String name : names) {
+                    List<String> values = getHeaders().get(name);
+                    if (values != null && !HttpHeaders.SET_COOKIE.equalsIgnoreCase(name)) {
+                        headers.put(name, new ArrayList<>(values));
+                    }
+                }
+            }
+            return headers;
+        }
+    }
+}
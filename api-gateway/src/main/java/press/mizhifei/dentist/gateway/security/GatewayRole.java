@@ -0,0 +1,79 @@
+package press.mizhifei.dentist.gateway.security;
+
+import java.util.Collection;
+
+/**
+ * User roles known to the gateway, each mapped to a single bit
+ * so role checks on the request path are plain mask operations
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public enum GatewayRole {
+    SYSTEM_ADMIN,
+    CLINIC_ADMIN,
+    DENTIST,
+    RECEPTIONIST,
+    PATIENT;
+
+    private static final GatewayRole[] VALUES = values();
+
+    private final int bit = 1 << ordinal();
+
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * Computes the role mask of a comma-separated roles claim without splitting it.
+     * Unknown role names are ignored.
+     * @param roles the roles claim, e.g. "DENTIST,RECEPTIONIST"
+     * @return the combined role bits, 0 if none
+     */
+    public static int maskOf(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return 0;
+        }
+        int mask = 0;
+        int length = roles.length();
+        int start = 0;
+        while (start < length) {
+            int end = roles.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int from = start;
+            int to = end;
+            while (from < to && roles.charAt(from) == ' ') {
+                from++;
+            }
+            while (to > from && roles.charAt(to - 1) == ' ') {
+                to--;
+            }
+            for (GatewayRole role : VALUES) {
+                String name = role.name();
+                if (name.length() == to - from && roles.regionMatches(from, name, 0, name.length())) {
+                    mask |= role.bit;
+                    break;
+                }
+            }
+            start = end + 1;
+        }
+        return mask;
+    }
+
+    /**
+     * Computes the role mask of configured role names
+     * @param roles role names
+     * @return the combined role bits
+     * @throws IllegalArgumentException if a role name is unknown
+     */
+    public static int maskOf(Collection<String> roles) {
+        int mask = 0;
+        for (String role : roles) {
+            mask |= valueOf(role.trim().toUpperCase()).bit;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,68 @@
+package press.mizhifei.dentist.gateway.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.EdECPublicKey;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JWS verifier factory that verifies EdDSA signatures with the JDK's Ed25519 implementation
+ * Nimbus' own Ed25519 verifier needs Google Tink on the classpath; every other algorithm is left to Nimbus.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class JdkEdDsaVerifierFactory extends DefaultJWSVerifierFactory {
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        Set<JWSAlgorithm> algorithms = new HashSet<>(super.supportedJWSAlgorithms());
+        algorithms.add(JWSAlgorithm.EdDSA);
+        return algorithms;
+    }
+
+    @Override
+    public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+        if (JWSAlgorithm.EdDSA.equals(header.getAlgorithm()) && key instanceof EdECPublicKey publicKey) {
+            return new Ed25519Verifier(publicKey, getJCAContext());
+        }
+        return super.createJWSVerifier(header, key);
+    }
+
+    private record Ed25519Verifier(PublicKey publicKey, JCAContext jcaContext) implements JWSVerifier {
+
+        @Override
+        public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+            try {
+                Signature verifier = Signature.getInstance("Ed25519");
+                verifier.initVerify(publicKey);
+                verifier.update(signingInput);
+                return verifier.verify(signature.decode());
+            } catch (GeneralSecurityException e) {
+                throw new JOSEException("Ed25519 signature verification failed: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return Set.of(JWSAlgorithm.EdDSA);
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package press.mizhifei.dentist.gateway.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.reactive.function.client.WebClient;
+import press.mizhifei.dentist.gateway.config.JwksProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory JSON Web Key Set of auth-service, indexed by key id
+ * Loaded before the gateway takes traffic and refreshed in the background, so token verification never
+ * waits on auth-service. A failed refresh keeps the previous keys; a token signed with an unknown key id
+ * triggers a refetch at most once per minimum refetch interval.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+public class JwkSetCache implements InitializingBean, MeterBinder {
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final Duration timeout;
+    private final long minRefetchNanos;
+    private final AtomicReference<Mono<Void>> refreshInFlight = new AtomicReference<>();
+
+    private volatile Keys keys = new Keys(List.of(), Map.of());
+    private volatile long lastAttemptNanos;
+    private volatile long lastSuccessMillis;
+
+    private Timer successTimer;
+    private Timer failureTimer;
+
+    public JwkSetCache(WebClient webClient, String jwkSetUri, JwksProperties properties) {
+        this.webClient = webClient;
+        this.jwkSetUri = jwkSetUri;
+        this.timeout = properties.getTimeout();
+        this.minRefetchNanos = properties.getMinRefetchInterval().toNanos();
+        this.lastAttemptNanos = System.nanoTime() - minRefetchNanos;
+    }
+
+    /**
+     * JWK source of the reactive JWT decoder
+     * @param jwt the token being verified
+     * @return the key matching the token's key id, or every key if the token names none
+     */
+    public Flux<JWK> keysFor(SignedJWT jwt) {
+        String kid = jwt.getHeader().getKeyID();
+        if (kid == null) {
+            Keys current = keys;
+            if (!current.all.isEmpty()) {
+                return Flux.fromIterable(current.all);
+            }
+            return refreshIfAllowed().thenMany(Flux.defer(() -> Flux.fromIterable(keys.all)));
+        }
+        JWK jwk = keys.byKid.get(kid);
+        if (jwk != null) {
+            return Flux.just(jwk);
+        }
+        log.debug("Unknown JWK key id {}, refreshing key set", kid);
+        return refreshIfAllowed().thenMany(Mono.fromSupplier(() -> keys.byKid.get(kid)));
+    }
+
+    /**
+     * Loads the keys before the decoder is used, without failing startup if auth-service is not up yet
+     */
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            refresh().block(timeout.plusSeconds(1));
+        } catch (RuntimeException e) {
+            log.warn("Could not preload JWK set from {}: {}", jwkSetUri, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.jwks.refresh-interval:5m}",
+            initialDelayString = "${gateway.jwks.refresh-interval:5m}")
+    public void scheduledRefresh() {
+        refresh().subscribe();
+    }
+
+    /**
+     * Fetches the key set, joining a fetch already in progress
+     * @return completes when the fetch has finished, successful or not
+     */
+    public Mono<Void> refresh() {
+        Mono<Void> inFlight = refreshInFlight.get();
+        if (inFlight != null) {
+            return inFlight;
+        }
+        Mono<Void> fetch = Mono.defer(this::fetch)
+                .doOnTerminate(() -> refreshInFlight.set(null))
+                .cache();
+        return refreshInFlight.compareAndSet(null, fetch) ? fetch : refresh();
+    }
+
+    public int size() {
+        return keys.all.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        successTimer = Timer.builder("gateway.jwks.refresh")
+                .description("Time to fetch the JWK set from auth-service")
+                .tag("outcome", "success")
+                .register(registry);
+        failureTimer = Timer.builder("gateway.jwks.refresh")
+                .description("Time to fetch the JWK set from auth-service")
+                .tag("outcome", "failure")
+                .register(registry);
+        Gauge.builder("gateway.jwks.keys", this, JwkSetCache::size)
+                .description("Signing keys held by the gateway")
+                .register(registry);
+        Gauge.builder("gateway.jwks.age", this, cache -> cache.lastSuccessMillis == 0 ? Double.NaN
+                        : (System.currentTimeMillis() - cache.lastSuccessMillis) / 1000.0)
+                .description("Time since the JWK set was last refreshed")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private Mono<Void> refreshIfAllowed() {
+        return System.nanoTime() - lastAttemptNanos >= minRefetchNanos ? refresh() : Mono.empty();
+    }
+
+    private Mono<Void> fetch() {
+        long start = System.nanoTime();
+        lastAttemptNanos = start;
+        return webClient.get()
+                .uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(timeout)
+                .map(this::parse)
+                .doOnNext(loaded -> {
+                    keys = loaded;
+                    lastSuccessMillis = System.currentTimeMillis();
+                    record(successTimer, start);
+                    log.debug("Loaded {} keys from {}", loaded.all.size(), jwkSetUri);
+                })
+                .onErrorResume(e -> {
+                    record(failureTimer, start);
+                    log.warn("Could not refresh JWK set from {}, keeping {} cached keys: {}",
+                            jwkSetUri, keys.all.size(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Keys parse(String json) {
+        try {
+            List<JWK> all = JWKSet.parse(json).getKeys();
+            Map<String, JWK> byKid = new HashMap<>();
+            for (JWK jwk : all) {
+                if (jwk.getKeyID() != null) {
+                    byKid.put(jwk.getKeyID(), jwk);
+                }
+            }
+            return new Keys(List.copyOf(all), Map.copyOf(byKid));
+        } catch (ParseException e) {
+            throw new IllegalStateException("Malformed JWK set: " + e.getMessage(), e);
+        }
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record Keys(List<JWK> all, Map<String, JWK> byKid) {
+    }
+}
@@ -0,0 +1,92 @@
+package press.mizhifei.dentist.gateway.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Bloom filter over the ids (jti) of revoked access tokens, as published by auth-service
+ * Bit positions come from the SHA-256 digest of the id, split into two 64-bit hashes combined as h1 + i * h2.
+ * Mirrors the class auth-service builds the filter with; the two must stay in step.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public final class RevocationBloomFilter {
+
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+
+    private RevocationBloomFilter(long[] bits, int numHashes) {
+        this.bits = bits;
+        this.numBits = bits.length * Long.SIZE;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Sizes a filter for the given number of ids at the given false positive rate
+     */
+    public static RevocationBloomFilter create(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        int numHashes = (int) Math.max(1, Math.round((double) words * Long.SIZE / entries * Math.log(2)));
+        return new RevocationBloomFilter(new long[words], numHashes);
+    }
+
+    public static RevocationBloomFilter fromByteArray(byte[] bytes, int numHashes) {
+        long[] bits = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(bits);
+        return new RevocationBloomFilter(bits, numHashes);
+    }
+
+    public void put(String tokenId) {
+        long[] hashes = hashes(tokenId);
+        for (int i = 0; i < numHashes; i++) {
+            int index = index(hashes, i);
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    public boolean mightContain(String tokenId) {
+        long[] hashes = hashes(tokenId);
+        for (int i = 0; i < numHashes; i++) {
+            int index = index(hashes, i);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(bits.length * Long.BYTES);
+        buffer.asLongBuffer().put(bits);
+        return buffer.array();
+    }
+
+    public int getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    private int index(long[] hashes, int i) {
+        return (int) Math.floorMod(hashes[0] + i * hashes[1], (long) numBits);
+    }
+
+    private static long[] hashes(String tokenId) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(tokenId.getBytes(StandardCharsets.UTF_8)));
+            return new long[]{digest.getLong(), digest.getLong()};
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package press.mizhifei.dentist.gateway.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import press.mizhifei.dentist.gateway.config.RouteAuthorizationProperties;
+
+import java.util.Arrays;
+
+/**
+ * Route authorization rules compiled into a character-level path-prefix trie
+ * Each request does a single walk over its path to find the longest matching rule,
+ * then authorizes with role bitmask checks; nothing is allocated on the request path.
+ *
+ * Path variables (e.g. {clinicId}) match a run of digits. A rule may contain at most one,
+ * and its position in the path is fixed by the literal prefix before it.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class RouteAuthorizationTable {
+
+    private final Node root = new Node();
+    private final int superuserMask;
+    private final boolean defaultAllow;
+
+    public RouteAuthorizationTable(RouteAuthorizationProperties properties) {
+        this.superuserMask = GatewayRole.maskOf(properties.getSuperuserRoles());
+        this.defaultAllow = properties.isDefaultAllow();
+
+        for (String publicPath : properties.getPublicPaths()) {
+            insert(publicPath, true, 0, 0);
+        }
+        for (RouteAuthorizationProperties.Rule rule : properties.getRules()) {
+            insert(rule.getPath(), false,
+                    GatewayRole.maskOf(rule.getRoles()),
+                    GatewayRole.maskOf(rule.getClinicScopedRoles()));
+        }
+        log.info("Compiled {} public paths and {} authorization rules",
+                properties.getPublicPaths().size(), properties.getRules().size());
+    }
+
+    /**
+     * Finds the rule with the longest prefix matching the path
+     * @param path request path
+     * @return the matching rule, or null if no rule applies
+     */
+    public AccessRule match(String path) {
+        Node node = root;
+        AccessRule best = root.rule;
+        int length = path.length();
+        int i = 0;
+        while (i < length) {
+            char c = path.charAt(i);
+            Node child = node.child(c);
+            if (child != null) {
+                i++;
+            } else if (node.variable != null && isDigit(c)) {
+                child = node.variable;
+                do {
+                    i++;
+                } while (i < length && isDigit(path.charAt(i)));
+            } else {
+                break;
+            }
+            node = child;
+            if (node.rule != null) {
+                best = node.rule;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether a user may access a path
+     * @param rule the rule returned by {@link #match(String)} for the path, may be null
+     * @param path request path
+     * @param claims verified claims of the user
+     * @return true if access is allowed
+     */
+    public boolean isAuthorized(AccessRule rule, String path, VerifiedClaims claims) {
+        if (rule != null && rule.isPublic()) {
+            return true;
+        }
+        int roleMask = claims.getRoleMask();
+        if (roleMask == 0) {
+            return false;
+        }
+        if ((roleMask & superuserMask) != 0) {
+            return true;
+        }
+        if (rule == null) {
+            return defaultAllow;
+        }
+        if ((roleMask & rule.clinicScopedMask) != 0) {
+            return rule.variableOffset < 0 || clinicIdMatches(path, rule.variableOffset, claims.getClinicId());
+        }
+        return rule.roleMask == 0 || (roleMask & rule.roleMask) != 0;
+    }
+
+    private static boolean clinicIdMatches(String path, int offset, String clinicId) {
+        if (clinicId == null) {
+            return false;
+        }
+        int end = offset;
+        while (end < path.length() && isDigit(path.charAt(end))) {
+            end++;
+        }
+        int length = end - offset;
+        return length == clinicId.length() && path.regionMatches(offset, clinicId, 0, length);
+    }
+
+    private void insert(String pattern, boolean isPublic, int roleMask, int clinicScopedMask) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Authorization rule path must not be empty");
+        }
+        Node node = root;
+        int variableOffset = -1;
+        int literals = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '{') {
+                int close = pattern.indexOf('}', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed path variable in rule: " + pattern);
+                }
+                if (variableOffset >= 0) {
+                    throw new IllegalArgumentException("At most one path variable is supported per rule: " + pattern);
+                }
+                variableOffset = literals;
+                if (node.variable == null) {
+                    node.variable = new Node();
+                }
+                node = node.variable;
+                i = close + 1;
+            } else {
+                node = node.childOrCreate(c);
+                literals++;
+                i++;
+            }
+        }
+        if (node.rule != null) {
+            throw new IllegalArgumentException("Duplicate authorization rule for path: " + pattern);
+        }
+        node.rule = new AccessRule(pattern, isPublic, roleMask, clinicScopedMask, variableOffset);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Compiled authorization rule attached to a trie node
+     */
+    public static final class AccessRule {
+        private final String pattern;
+        private final boolean isPublic;
+        private final int roleMask;
+        private final int clinicScopedMask;
+        private final int variableOffset;
+
+        AccessRule(String pattern, boolean isPublic, int roleMask, int clinicScopedMask, int variableOffset) {
+            this.pattern = pattern;
+            this.isPublic = isPublic;
+            this.roleMask = roleMask;
+            this.clinicScopedMask = clinicScopedMask;
+            this.variableOffset = variableOffset;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public boolean isPublic() {
+            return isPublic;
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Node variable;
+        private AccessRule rule;
+
+        Node child(char c) {
+            char[] k = keys;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char c) {
+            Node existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node();
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            children[children.length - 1] = created;
+            return created;
+        }
+    }
+}
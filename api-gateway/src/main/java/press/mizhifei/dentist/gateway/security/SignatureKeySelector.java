@@ -0,0 +1,75 @@
+package press.mizhifei.dentist.gateway.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.JWKSecurityContext;
+import com.nimbusds.jose.proc.JWSKeySelector;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects the verification keys of a token from the key set of the JWK source, for every algorithm auth-service signs with
+ * Spring's reactive decoder accepts a single algorithm and Nimbus cannot turn Ed25519 JWKs into Java keys,
+ * so RS256, ES256 and EdDSA keys are all matched and converted here, Ed25519 through the JDK.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class SignatureKeySelector implements JWSKeySelector<JWKSecurityContext> {
+
+    public static final Set<JWSAlgorithm> ALGORITHMS = Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256, JWSAlgorithm.EdDSA);
+
+    // DER prefix of an X.509 SubjectPublicKeyInfo holding a raw 32 byte Ed25519 key
+    private static final byte[] ED25519_X509_PREFIX = HexFormat.of().parseHex("302a300506032b6570032100");
+
+    @Override
+    public List<Key> selectJWSKeys(JWSHeader header, JWKSecurityContext context) throws KeySourceException {
+        if (!ALGORITHMS.contains(header.getAlgorithm())) {
+            return List.of();
+        }
+        JWKMatcher matcher = JWKMatcher.forJWSHeader(header);
+        if (matcher == null) {
+            return List.of();
+        }
+        List<Key> keys = new ArrayList<>();
+        for (JWK jwk : new JWKSelector(matcher).select(new JWKSet(context.getKeys()))) {
+            try {
+                if (jwk instanceof RSAKey rsaKey) {
+                    keys.add(rsaKey.toRSAPublicKey());
+                } else if (jwk instanceof ECKey ecKey) {
+                    keys.add(ecKey.toECPublicKey());
+                } else if (jwk instanceof OctetKeyPair okp && Curve.Ed25519.equals(okp.getCurve())) {
+                    keys.add(toEd25519PublicKey(okp.getDecodedX()));
+                }
+            } catch (JOSEException | GeneralSecurityException e) {
+                throw new KeySourceException("Invalid JWK " + jwk.getKeyID() + ": " + e.getMessage(), e);
+            }
+        }
+        return keys;
+    }
+
+    private static Key toEd25519PublicKey(byte[] x) throws GeneralSecurityException {
+        byte[] encoded = new byte[ED25519_X509_PREFIX.length + x.length];
+        System.arraycopy(ED25519_X509_PREFIX, 0, encoded, 0, ED25519_X509_PREFIX.length);
+        System.arraycopy(x, 0, encoded, ED25519_X509_PREFIX.length, x.length);
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+}
@@ -0,0 +1,207 @@
+package press.mizhifei.dentist.gateway.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.reactive.function.client.WebClient;
+import press.mizhifei.dentist.cache.BoundedTtlCache;
+import press.mizhifei.dentist.gateway.config.RevocationProperties;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Access token revocations of auth-service, held as a Bloom filter over the revoked token ids
+ * The filter is polled in the background, revalidated by ETag, so the usual "not revoked" answer is a single
+ * in-memory probe. Only ids the filter reports as possibly revoked are checked exactly with auth-service, and the
+ * answer is reused for a while; if that check fails the token is treated as revoked. Until the first filter is
+ * loaded, and for tokens without an id, nothing is treated as revoked.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+public class TokenRevocationList implements InitializingBean, MeterBinder {
+
+    private static final Mono<Boolean> NOT_REVOKED = Mono.just(false);
+    private static final Mono<Boolean> REVOKED = Mono.just(true);
+
+    private final WebClient webClient;
+    private final RevocationProperties properties;
+    private final long checkCacheTtlMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BoundedTtlCache<String, Boolean> checks;
+
+    private volatile Filter filter;
+    private volatile long lastSuccessMillis;
+
+    private Counter negatives;
+    private Counter falsePositives;
+    private Counter revocations;
+    private Counter failures;
+
+    public TokenRevocationList(WebClient webClient, RevocationProperties properties) {
+        this.webClient = webClient;
+        this.properties = properties;
+        this.checkCacheTtlMillis = properties.getCheckCacheTtl().toMillis();
+        this.checks = new BoundedTtlCache<>(properties.getCheckCacheMaxSize(), System::currentTimeMillis);
+    }
+
+    /**
+     * @param tokenId the id (jti) of a verified access token
+     * @return whether the token has been revoked
+     */
+    public Mono<Boolean> isRevoked(String tokenId) {
+        Filter current = filter;
+        if (!properties.isEnabled() || tokenId == null || current == null || !current.bloom().mightContain(tokenId)) {
+            increment(negatives);
+            return NOT_REVOKED;
+        }
+        Boolean cached = checks.get(tokenId);
+        if (cached != null) {
+            return cached ? REVOKED : NOT_REVOKED;
+        }
+        // An answer that arrives after a newer filter was loaded may be outdated and is not kept
+        long stamp = checks.invalidationStamp();
+        return webClient.get()
+                .uri(properties.getUri() + "/{jti}", tokenId)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(properties.getTimeout())
+                .map(body -> body.path("revoked").asBoolean(true))
+                .doOnNext(revoked -> {
+                    checks.put(tokenId, revoked, checks.now() + checkCacheTtlMillis, stamp);
+                    increment(revoked ? revocations : falsePositives);
+                })
+                .onErrorResume(e -> {
+                    increment(failures);
+                    log.warn("Could not check revocation of token {}, rejecting it: {}", tokenId, e.getMessage());
+                    return REVOKED;
+                });
+    }
+
+    /**
+     * Loads the filter before the gateway takes traffic, without failing startup if auth-service is not up yet
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            refresh().block(properties.getTimeout().plusSeconds(1));
+        } catch (RuntimeException e) {
+            log.warn("Could not preload revocation filter from {}: {}", properties.getUri(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.revocation.refresh-interval:15s}",
+            initialDelayString = "${gateway.revocation.refresh-interval:15s}")
+    public void scheduledRefresh() {
+        if (properties.isEnabled()) {
+            refresh().subscribe();
+        }
+    }
+
+    /**
+     * Fetches the filter unless it is unchanged; a failed fetch keeps the current one
+     * @return completes when the fetch has finished, successful or not
+     */
+    public Mono<Void> refresh() {
+        Filter current = filter;
+        return webClient.get()
+                .uri(properties.getUri())
+                .headers(headers -> {
+                    if (current != null && current.etag() != null) {
+                        headers.setIfNoneMatch(current.etag());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody().then(Mono.justOrEmpty(current));
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createError();
+                    }
+                    String etag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(String.class).map(json -> parse(json, etag));
+                })
+                .timeout(properties.getTimeout())
+                .doOnNext(loaded -> {
+                    if (loaded != current) {
+                        filter = loaded;
+                        // Answers given against the previous filter may be outdated
+                        checks.invalidateAll();
+                        log.debug("Loaded revocation filter with {} revoked tokens", loaded.entries());
+                    }
+                    lastSuccessMillis = System.currentTimeMillis();
+                })
+                .onErrorResume(e -> {
+                    log.warn("Could not refresh revocation filter from {}, keeping the current one: {}",
+                            properties.getUri(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    public int size() {
+        Filter current = filter;
+        return current != null ? current.entries() : 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        negatives = checkCounter(registry, "negative");
+        falsePositives = checkCounter(registry, "false_positive");
+        revocations = checkCounter(registry, "revoked");
+        failures = checkCounter(registry, "error");
+        Gauge.builder("gateway.revocation.entries", this, TokenRevocationList::size)
+                .description("Revoked access tokens in the gateway's filter")
+                .register(registry);
+        Gauge.builder("gateway.revocation.age", this, list -> list.lastSuccessMillis == 0 ? Double.NaN
+                        : (System.currentTimeMillis() - list.lastSuccessMillis) / 1000.0)
+                .description("Time since the revocation filter was last refreshed")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private static Counter checkCounter(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.revocation.checks")
+                .description("Revocation checks of access tokens, by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Filter parse(String json, String etag) {
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            byte[] bits = Base64.getDecoder().decode(node.path("bits").asText());
+            int numHashes = node.path("numHashes").asInt();
+            if (bits.length < Long.BYTES || numHashes < 1) {
+                throw new IllegalArgumentException("empty filter");
+            }
+            RevocationBloomFilter bloom = RevocationBloomFilter.fromByteArray(bits, numHashes);
+            return new Filter(bloom, etag, node.path("entries").asInt());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Malformed revocation filter: " + e.getMessage(), e);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private record Filter(RevocationBloomFilter bloom, String etag, int entries) {
+    }
+}
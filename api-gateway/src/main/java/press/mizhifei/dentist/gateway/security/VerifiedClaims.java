@@ -0,0 +1,61 @@
+package press.mizhifei.dentist.gateway.security;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Immutable view of the user claims carried by an already verified JWT
+ * Built once per request and shared between gateway filters through an exchange attribute
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Getter
+@ToString
+public final class VerifiedClaims {
+
+    /**
+     * Exchange attribute under which the claims of the current request are stored
+     */
+    public static final String ATTRIBUTE = VerifiedClaims.class.getName();
+
+    private final String userId;
+    private final String email;
+    private final String roles;
+    private final String clinicId;
+    /**
+     * Token id (jti), checked against the revocation list; null for tokens issued without one
+     */
+    private final String tokenId;
+    private final int roleMask;
+
+    public VerifiedClaims(String userId, String email, String roles, String clinicId) {
+        this(userId, email, roles, clinicId, null);
+    }
+
+    public VerifiedClaims(String userId, String email, String roles, String clinicId, String tokenId) {
+        this.userId = userId;
+        this.email = email;
+        this.roles = roles;
+        this.clinicId = clinicId;
+        this.tokenId = tokenId;
+        this.roleMask = GatewayRole.maskOf(roles);
+    }
+
+    /**
+     * Builds the claims from a JWT decoded and validated by Spring Security
+     * @param jwt the verified JWT
+     * @return the extracted claims
+     */
+    public static VerifiedClaims from(Jwt jwt) {
+        Object clinicId = jwt.getClaims().get("clinicId");
+        return new VerifiedClaims(
+                jwt.getSubject(),
+                jwt.getClaimAsString("email"),
+                jwt.getClaimAsString("roles"),
+                clinicId != null ? clinicId.toString() : null,
+                jwt.getId());
+    }
+}
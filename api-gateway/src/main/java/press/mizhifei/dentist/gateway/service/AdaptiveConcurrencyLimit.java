@@ -0,0 +1,97 @@
+package press.mizhifei.dentist.gateway.service;
+
+import press.mizhifei.dentist.gateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient-based concurrency limit of one downstream route
+ * The limit follows the ratio between the long-term and the current round-trip time: it grows by
+ * about the square root of the limit while latency holds, shrinks as queueing pushes latency up, and
+ * is cut multiplicatively when the downstream reports overload.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double LONG_RTT_WEIGHT = 0.02;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.tolerance = properties.getTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+    }
+
+    /**
+     * Takes a slot if fewer requests than the limit are in flight
+     * @return the number of requests in flight including this one, or 0 if the request must be shed
+     */
+    public int tryAcquire() {
+        int allowed = (int) limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of a finished request without adjusting the limit
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Adjusts the limit to the round-trip time of a request
+     * @param rttNanos time until the downstream started responding
+     * @param inFlightAtStart requests in flight when it was admitted
+     * @param overloaded whether the downstream reported overload
+     */
+    public synchronized void onSample(long rttNanos, int inFlightAtStart, boolean overloaded) {
+        if (overloaded) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+        double current = limit;
+        // Not enough load to tell whether more concurrency would help
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double estimate = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - smoothing) + estimate * smoothing));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -1,13 +1,15 @@
 package press.mizhifei.dentist.gateway.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
 
 import java.security.SecureRandom;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
 
 /**
  * Service for managing user sessions across the API Gateway
@@ -24,36 +26,50 @@ public class AnonymousSessionService {
 
     private static final String SESSION_ID_HEADER = "X-Session-ID";
 
-    // In-memory storage for session mapping (in production, consider Redis or database)
-    private final ConcurrentMap<String, SessionInfo> sessionStore = new ConcurrentHashMap<>();
+    // Pluggable storage for session mapping, see SessionStoreConfig
+    private final SessionStore sessionStore;
+    private final LongSupplier clock;
     private final SecureRandom secureRandom = new SecureRandom();
 
+    @Autowired
+    public AnonymousSessionService(SessionStore sessionStore) {
+        this(sessionStore, System::currentTimeMillis);
+    }
+
+    AnonymousSessionService(SessionStore sessionStore, LongSupplier clock) {
+        this.sessionStore = sessionStore;
+        this.clock = clock;
+    }
+
     /**
      * Generates or retrieves a session
      * @param existingSessionId existing session ID from client (if any)
      * @return SessionInfo containing session details
      */
-    public SessionInfo getOrCreateSession(String existingSessionId) {
-        if (StringUtils.hasText(existingSessionId) && sessionStore.containsKey(existingSessionId)) {
-            SessionInfo session = sessionStore.get(existingSessionId);
-            log.debug("Retrieved existing session: {}", existingSessionId);
-            return session;
+    public Mono<SessionInfo> getOrCreateSession(String existingSessionId) {
+        if (!StringUtils.hasText(existingSessionId)) {
+            // Generate new cryptographically secure session
+            return createSession(generateSecureSessionId());
         }
 
-        // Generate new cryptographically secure session
-        String sessionId = existingSessionId != null ? existingSessionId : generateSecureSessionId();
+        return sessionStore.find(existingSessionId)
+                .doOnNext(existing -> {
+                    existing.setLastAccessedAt(clock.getAsLong());
+                    log.debug("Retrieved existing session: {}", existingSessionId);
+                })
+                .switchIfEmpty(Mono.defer(() -> createSession(existingSessionId)));
+    }
 
+    private Mono<SessionInfo> createSession(String sessionId) {
         SessionInfo sessionInfo = SessionInfo.builder()
                 .sessionId(sessionId)
-                .createdAt(System.currentTimeMillis())
-                .lastAccessedAt(System.currentTimeMillis())
+                .createdAt(clock.getAsLong())
+                .lastAccessedAt(clock.getAsLong())
                 .authenticated(false)
                 .build();
 
-        sessionStore.put(sessionId, sessionInfo);
         log.debug("Created new session: {}", sessionId);
-
-        return sessionInfo;
+        return sessionStore.save(sessionInfo).thenReturn(sessionInfo);
     }
 
     /**
@@ -65,41 +81,41 @@ public class AnonymousSessionService {
      * @param clinicId user clinic ID
      * @return updated SessionInfo
      */
-    public SessionInfo linkToAuthenticatedUser(String sessionId, String userId, String email,
-                                             String roles, String clinicId) {
-        SessionInfo session = sessionStore.get(sessionId);
-        if (session == null) {
-            // Create new session if not exists
-            session = getOrCreateSession(sessionId);
-        }
-
-        SessionInfo updatedSession = session.toBuilder()
-                .authenticated(true)
-                .userId(userId)
-                .email(email)
-                .roles(roles)
-                .clinicId(clinicId)
-                .lastAccessedAt(System.currentTimeMillis())
-                .build();
+    public Mono<SessionInfo> linkToAuthenticatedUser(String sessionId, String userId, String email,
+                                                   String roles, String clinicId) {
+        return getOrCreateSession(sessionId).flatMap(session -> {
+            if (session.isAuthenticated()
+                    && Objects.equals(session.getUserId(), userId)
+                    && Objects.equals(session.getEmail(), email)
+                    && Objects.equals(session.getRoles(), roles)
+                    && Objects.equals(session.getClinicId(), clinicId)) {
+                // Already linked to the same user, access time was refreshed in place
+                return Mono.just(session);
+            }
 
-        sessionStore.put(sessionId, updatedSession);
-        log.debug("Linked session {} to user {}", sessionId, userId);
+            SessionInfo updatedSession = session.toBuilder()
+                    .authenticated(true)
+                    .userId(userId)
+                    .email(email)
+                    .roles(roles)
+                    .clinicId(clinicId)
+                    .lastAccessedAt(clock.getAsLong())
+                    .build();
 
-        return updatedSession;
+            log.debug("Linked session {} to user {}", updatedSession.getSessionId(), userId);
+            return sessionStore.save(updatedSession).thenReturn(updatedSession);
+        });
     }
 
     /**
      * Updates the last accessed time for a session
      * @param sessionId session ID
+     * @return completion signal
      */
-    public void updateLastAccessed(String sessionId) {
-        SessionInfo session = sessionStore.get(sessionId);
-        if (session != null) {
-            SessionInfo updatedSession = session.toBuilder()
-                    .lastAccessedAt(System.currentTimeMillis())
-                    .build();
-            sessionStore.put(sessionId, updatedSession);
-        }
+    public Mono<Void> updateLastAccessed(String sessionId) {
+        return sessionStore.find(sessionId)
+                .doOnNext(session -> session.setLastAccessedAt(clock.getAsLong()))
+                .then();
     }
 
     /**
@@ -116,28 +132,21 @@ public class AnonymousSessionService {
     }
 
     /**
-     * Cleans up expired sessions (should be called periodically)
+     * Cleans up sessions held by this node that have been idle longer than the given age
+     * Routine expiry is done incrementally by the session store, this is for explicit purges
      * @param maxAgeMs maximum age in milliseconds
      */
     public void cleanupExpiredSessions(long maxAgeMs) {
-        long currentTime = System.currentTimeMillis();
-        sessionStore.entrySet().removeIf(entry -> {
-            SessionInfo session = entry.getValue();
-            boolean expired = (currentTime - session.getLastAccessedAt()) > maxAgeMs;
-            if (expired) {
-                log.debug("Removing expired session: {}", entry.getKey());
-            }
-            return expired;
-        });
+        sessionStore.removeIdleLongerThan(maxAgeMs);
     }
 
     /**
      * Gets session information by session ID
      * @param sessionId session ID
-     * @return SessionInfo or null if not found
+     * @return SessionInfo, or empty if not found
      */
-    public SessionInfo getSession(String sessionId) {
-        return sessionStore.get(sessionId);
+    public Mono<SessionInfo> getSession(String sessionId) {
+        return sessionStore.find(sessionId);
     }
 
     /**
@@ -155,6 +164,7 @@ public class AnonymousSessionService {
         private String roles;
         private String clinicId;
         private long createdAt;
-        private long lastAccessedAt;
+        // Updated in place on every access
+        private volatile long lastAccessedAt;
     }
 }
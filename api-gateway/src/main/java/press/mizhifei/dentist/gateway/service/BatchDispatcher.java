@@ -0,0 +1,211 @@
+package press.mizhifei.dentist.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import press.mizhifei.dentist.gateway.config.BatchProperties;
+import press.mizhifei.dentist.gateway.dto.BatchRequest;
+import press.mizhifei.dentist.gateway.dto.BatchResponse;
+import press.mizhifei.dentist.gateway.filter.ClientAddress;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the sub-requests of a batch through the gateway's own routes
+ * Every sub-request re-enters the gateway over loopback with the caller's credentials, so it passes the same
+ * route matching, authentication, authorization and caching as a direct call. Sub-requests are marked so rate
+ * limiting skips them; the batch is charged once instead. Up to the configured number of sub-requests run in
+ * parallel; responses are returned in request order with their own status.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Service
+public class BatchDispatcher implements ApplicationListener<ReactiveWebServerInitializedEvent> {
+
+    private static final String BATCH_PATH = "/api/batch";
+    private static final Set<HttpMethod> METHODS = Set.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT,
+            HttpMethod.PATCH, HttpMethod.DELETE);
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.AUTHORIZATION, "X-Session-ID",
+            HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.USER_AGENT);
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("host", "content-length", "transfer-encoding",
+            "connection", "x-forwarded-for", BatchSubRequests.HEADER.toLowerCase());
+    private static final List<String> RETURNED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.CACHE_CONTROL, HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER, "X-Gateway-Cache");
+
+    private final WebClient webClient;
+    private final BatchProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ClientAddress clientAddress;
+    private final BatchSubRequests subRequests;
+    private final DistributionSummary batchSize;
+    private volatile String baseUrl;
+
+    public BatchDispatcher(WebClient.Builder webClientBuilder, BatchProperties properties,
+                           ObjectMapper objectMapper, ClientAddress clientAddress, BatchSubRequests subRequests,
+                           MeterRegistry meterRegistry) {
+        int maxResponseBytes = (int) properties.getMaxResponseSize().toBytes();
+        this.webClient = webClientBuilder.clone()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseBytes))
+                .build();
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clientAddress = clientAddress;
+        this.subRequests = subRequests;
+        this.baseUrl = properties.getBaseUrl();
+        this.batchSize = DistributionSummary.builder("gateway.batch.size")
+                .description("Sub-requests per batch")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ReactiveWebServerInitializedEvent event) {
+        // The management server, if it runs on its own port, has a namespace
+        if (baseUrl == null && event.getApplicationContext().getServerNamespace() == null) {
+            baseUrl = "http://127.0.0.1:" + event.getWebServer().getPort();
+        }
+    }
+
+    /**
+     * Dispatches all sub-requests of a batch
+     * @param batch the sub-requests, at most the configured maximum
+     * @param original the batch request, whose credentials and client address are passed on
+     * @return one response per sub-request, in request order
+     */
+    public Mono<BatchResponse> dispatch(BatchRequest batch, ServerHttpRequest original) {
+        List<BatchRequest.Item> items = batch.getRequests();
+        batchSize.record(items.size());
+        HttpHeaders forwarded = forwardedHeaders(original);
+        return Flux.range(0, items.size())
+                .flatMapSequential(i -> dispatch(items.get(i), i, forwarded), Math.max(1, properties.getConcurrency()))
+                .collectList()
+                .map(responses -> BatchResponse.builder().responses(responses).build());
+    }
+
+    private Mono<BatchResponse.Item> dispatch(BatchRequest.Item item, int index, HttpHeaders forwarded) {
+        String id = StringUtils.hasText(item.getId()) ? item.getId() : String.valueOf(index);
+        HttpMethod method = item.getMethod() != null ? HttpMethod.valueOf(item.getMethod().toUpperCase()) : HttpMethod.GET;
+        String path = item.getPath();
+        if (!METHODS.contains(method) || path == null || !path.startsWith("/api/") || path.startsWith(BATCH_PATH)) {
+            return Mono.just(error(id, HttpStatus.BAD_REQUEST, "Unsupported sub-request " + method + " " + path));
+        }
+        URI uri;
+        try {
+            uri = URI.create(baseUrl + path);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(error(id, HttpStatus.BAD_REQUEST, "Malformed path " + path));
+        }
+
+        Map<String, String> itemHeaders = item.getHeaders() != null ? item.getHeaders() : Map.of();
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(uri)
+                .headers(headers -> {
+                    headers.addAll(forwarded);
+                    itemHeaders.forEach((name, value) -> {
+                        if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                            headers.set(name, value);
+                        }
+                    });
+                });
+        JsonNode body = item.getBody();
+        WebClient.RequestHeadersSpec<?> spec = request;
+        if (body != null && !body.isNull()) {
+            if (itemHeaders.keySet().stream().noneMatch(HttpHeaders.CONTENT_TYPE::equalsIgnoreCase)) {
+                request.contentType(body.isTextual() ? MediaType.TEXT_PLAIN : MediaType.APPLICATION_JSON);
+            }
+            spec = request.bodyValue(body.isTextual() ? body.asText() : body.toString());
+        }
+        return spec.exchangeToMono(response -> toItem(id, response))
+                .timeout(properties.getTimeout())
+                .onErrorResume(TimeoutException.class, e ->
+                        Mono.just(error(id, HttpStatus.GATEWAY_TIMEOUT, "Sub-request timed out")))
+                .onErrorResume(DataBufferLimitException.class, e ->
+                        Mono.just(error(id, HttpStatus.BAD_GATEWAY, "Response exceeds " + properties.getMaxResponseSize())))
+                .onErrorResume(e -> {
+                    log.warn("Batch sub-request {} {} failed: {}", method, path, e.getMessage());
+                    return Mono.just(error(id, HttpStatus.BAD_GATEWAY, "Sub-request failed"));
+                });
+    }
+
+    private Mono<BatchResponse.Item> toItem(String id, ClientResponse response) {
+        Map<String, String> headers = new HashMap<>();
+        for (String name : RETURNED_HEADERS) {
+            String value = response.headers().asHttpHeaders().getFirst(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        MediaType contentType = response.headers().contentType().orElse(null);
+        return response.bodyToMono(byte[].class)
+                .map(bytes -> parse(bytes, contentType))
+                .defaultIfEmpty(objectMapper.nullNode())
+                .map(body -> BatchResponse.Item.builder()
+                        .id(id)
+                        .status(response.statusCode().value())
+                        .headers(headers)
+                        .body(body.isNull() ? null : body)
+                        .build());
+    }
+
+    private JsonNode parse(byte[] bytes, MediaType contentType) {
+        String text = new String(bytes, contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset() : StandardCharsets.UTF_8);
+        if (contentType != null && (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                || contentType.getSubtype().endsWith("+json"))) {
+            try {
+                return objectMapper.readTree(bytes);
+            } catch (IOException e) {
+                log.debug("Sub-response declared as JSON is not valid JSON: {}", e.getMessage());
+            }
+        }
+        return TextNode.valueOf(text);
+    }
+
+    private HttpHeaders forwardedHeaders(ServerHttpRequest original) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : FORWARDED_HEADERS) {
+            List<String> values = original.getHeaders().get(name);
+            if (values != null) {
+                headers.put(name, values);
+            }
+        }
+        // Keeps per-IP rate limits and access records pointing at the real client
+        headers.set("X-Forwarded-For", clientAddress.of(original));
+        subRequests.mark(headers);
+        return headers;
+    }
+
+    private static BatchResponse.Item error(String id, HttpStatus status, String message) {
+        return BatchResponse.Item.builder()
+                .id(id)
+                .status(status.value())
+                .body(TextNode.valueOf(message))
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package press.mizhifei.dentist.gateway.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Tells the loopback sub-requests of a batch apart from client calls
+ * Sub-requests carry a random marker generated at startup that never leaves this gateway, so a client cannot
+ * forge it. Sub-requests sent to another address than this gateway are not recognized and count as client calls.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+public class BatchSubRequests {
+
+    public static final String HEADER = "X-Gateway-Batch";
+
+    private final byte[] marker = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+
+    public void mark(HttpHeaders headers) {
+        headers.set(HEADER, new String(marker, StandardCharsets.US_ASCII));
+    }
+
+    public boolean isSubRequest(ServerHttpRequest request) {
+        String value = request.getHeaders().getFirst(HEADER);
+        return value != null && MessageDigest.isEqual(marker, value.getBytes(StandardCharsets.US_ASCII));
+    }
+}
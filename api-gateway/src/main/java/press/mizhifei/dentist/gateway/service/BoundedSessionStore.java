@@ -0,0 +1,242 @@
+package press.mizhifei.dentist.gateway.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import press.mizhifei.dentist.gateway.config.SessionProperties;
+import press.mizhifei.dentist.gateway.service.AnonymousSessionService.SessionInfo;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-capped session store with idle-time expiry
+ * Sessions are indexed in a timing wheel by their expected expiry; each tick only inspects
+ * the slots that came due, removing expired sessions and rescheduling the ones touched since.
+ * Access time is updated in place on the session, so reads never rewrite the map.
+ * Serves as the in-memory {@link SessionStore} and as the near-cache of the other stores.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+public class BoundedSessionStore implements SessionStore, MeterBinder {
+
+    private static final int MAX_WHEEL_SLOTS = 4096;
+
+    private final ConcurrentMap<String, SessionInfo> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<SessionInfo>[] wheel;
+    private final int maxSessions;
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final LongSupplier clock;
+    private volatile long lastProcessedTick;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+
+    public BoundedSessionStore(SessionProperties properties) {
+        this(properties.getMaxSessions(), properties.getTtl(), properties.getExpiryTick());
+    }
+
+    public BoundedSessionStore(int maxSessions, Duration ttl, Duration expiryTick) {
+        this(maxSessions, ttl, expiryTick, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedSessionStore(int maxSessions, Duration ttl, Duration expiryTick, LongSupplier clock) {
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.tickMillis = Math.max(1, expiryTick.toMillis());
+        int slots = (int) Math.min(MAX_WHEEL_SLOTS, ttlMillis / tickMillis + 1);
+        this.wheel = new ConcurrentLinkedQueue[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastProcessedTick = clock.getAsLong() / tickMillis;
+    }
+
+    @Override
+    public Mono<SessionInfo> find(String sessionId) {
+        return Mono.justOrEmpty(get(sessionId));
+    }
+
+    @Override
+    public Mono<Void> save(SessionInfo session) {
+        put(session);
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> delete(String sessionId) {
+        remove(sessionId);
+        return Mono.empty();
+    }
+
+    /**
+     * Looks up a live session
+     * @param sessionId session ID
+     * @return the session, or null if absent or expired
+     */
+    public SessionInfo get(String sessionId) {
+        SessionInfo session = sessions.get(sessionId);
+        if (session != null && isExpired(session, clock.getAsLong())) {
+            if (sessions.remove(sessionId, session)) {
+                expirations.increment();
+            }
+            session = null;
+        }
+        (session != null ? hits : misses).increment();
+        return session;
+    }
+
+    /**
+     * Stores or replaces a session, evicting the soonest expiring ones when over capacity
+     * @param session session to store
+     */
+    public void put(SessionInfo session) {
+        SessionInfo previous = sessions.put(session.getSessionId(), session);
+        if (previous != session) {
+            schedule(session);
+        }
+        if (previous == null && sessions.size() > maxSessions) {
+            evictForCapacity();
+        }
+    }
+
+    /**
+     * Removes a session
+     * @param sessionId session ID
+     */
+    public void remove(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Removes every session idle for longer than the given age with a full scan
+     * @param maxAgeMs maximum idle age in milliseconds
+     */
+    @Override
+    public void removeIdleLongerThan(long maxAgeMs) {
+        long currentTime = clock.getAsLong();
+        sessions.values().removeIf(session -> {
+            boolean expired = (currentTime - session.getLastAccessedAt()) > maxAgeMs;
+            if (expired) {
+                expirations.increment();
+                log.debug("Removing expired session: {}", session.getSessionId());
+            }
+            return expired;
+        });
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return a read-only view of the sessions currently held
+     */
+    public Collection<SessionInfo> sessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * Advances the timing wheel to the current tick, expiring the sessions in the slots that came due
+     */
+    @Scheduled(fixedDelayString = "${gateway.session.expiry-tick:1s}")
+    public void expire() {
+        long now = clock.getAsLong();
+        long currentTick = now / tickMillis;
+        long from = Math.max(lastProcessedTick + 1, currentTick - wheel.length + 1);
+        List<SessionInfo> reschedule = new ArrayList<>();
+        int expired = 0;
+
+        for (long tick = from; tick <= currentTick; tick++) {
+            ConcurrentLinkedQueue<SessionInfo> slot = wheel[slotOf(tick)];
+            SessionInfo session;
+            while ((session = slot.poll()) != null) {
+                if (sessions.get(session.getSessionId()) != session) {
+                    // Replaced or removed since it was scheduled
+                    continue;
+                }
+                if (isExpired(session, now)) {
+                    if (sessions.remove(session.getSessionId(), session)) {
+                        expired++;
+                    }
+                } else {
+                    reschedule.add(session);
+                }
+            }
+        }
+        lastProcessedTick = currentTick;
+        reschedule.forEach(this::schedule);
+
+        if (expired > 0) {
+            expirations.add(expired);
+            log.debug("Expired {} sessions, {} remaining", expired, sessions.size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.sessions.size", sessions, Map::size)
+                .description("Sessions currently held by the gateway")
+                .register(registry);
+        FunctionCounter.builder("gateway.sessions.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("gateway.sessions.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("gateway.sessions.evictions", expirations, LongAdder::sum)
+                .tag("cause", "expired")
+                .register(registry);
+        FunctionCounter.builder("gateway.sessions.evictions", sizeEvictions, LongAdder::sum)
+                .tag("cause", "size")
+                .register(registry);
+    }
+
+    private void evictForCapacity() {
+        long tick = lastProcessedTick + 1;
+        for (int scanned = 0; scanned < wheel.length && sessions.size() > maxSessions; scanned++, tick++) {
+            ConcurrentLinkedQueue<SessionInfo> slot = wheel[slotOf(tick)];
+            SessionInfo session;
+            while (sessions.size() > maxSessions && (session = slot.poll()) != null) {
+                if (sessions.remove(session.getSessionId(), session)) {
+                    sizeEvictions.increment();
+                    log.debug("Evicted session {} over capacity", session.getSessionId());
+                }
+            }
+        }
+    }
+
+    private void schedule(SessionInfo session) {
+        long expiryTick = (session.getLastAccessedAt() + ttlMillis) / tickMillis;
+        wheel[slotOf(Math.max(expiryTick, lastProcessedTick + 1))].offer(session);
+    }
+
+    private int slotOf(long tick) {
+        return (int) (tick % wheel.length);
+    }
+
+    private boolean isExpired(SessionInfo session, long now) {
+        return now - session.getLastAccessedAt() > ttlMillis;
+    }
+}
@@ -0,0 +1,142 @@
+package press.mizhifei.dentist.gateway.service;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import press.mizhifei.dentist.gateway.config.RateLimitProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets of gateway clients, kept in a striped map that expires idle buckets
+ * A bucket left alone for one refill period is full again, so dropping it changes no decision.
+ * Each sweep visits a single stripe, bounding the work per run regardless of the number of clients.
+ * A full stripe creates no more buckets until a sweep frees room; callers fall back to a coarser limit
+ * through {@link #tryAcquireOverflow}, so a flood of new keys can neither grow the map nor skip limiting.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+public class ClientRateLimiter implements MeterBinder {
+
+    /**
+     * Returned by {@link #tryAcquire} when the key has no bucket and its stripe is full
+     */
+    public static final long NO_BUCKET = -1;
+
+    private final ConcurrentMap<String, Entry>[] stripes;
+    private final ConcurrentMap<String, Entry> overflow = new ConcurrentHashMap<>();
+    private final int maxBucketsPerStripe;
+    private final LongAdder refused = new LongAdder();
+    private int nextStripe;
+
+    @SuppressWarnings("unchecked")
+    public ClientRateLimiter(RateLimitProperties properties) {
+        int count = Integer.highestOneBit(Math.max(1, properties.getStripes()));
+        this.stripes = new ConcurrentMap[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxBucketsPerStripe = Math.max(1, properties.getMaxBuckets() / count);
+    }
+
+    /**
+     * Takes one token from the bucket of the given key
+     * @param key client key, including the route and the dimension it is limited on
+     * @param limit limit of the bucket, used when the bucket is created
+     * @return 0 if the request is allowed, {@link #NO_BUCKET} if the key has no bucket and none can be created,
+     * otherwise nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, RateLimitProperties.Limit limit) {
+        ConcurrentMap<String, Entry> stripe = stripeOf(key);
+        Entry entry = stripe.get(key);
+        if (entry == null) {
+            if (stripe.size() >= maxBucketsPerStripe) {
+                refused.increment();
+                return NO_BUCKET;
+            }
+            entry = stripe.computeIfAbsent(key, k -> new Entry(limit));
+        }
+        return consume(entry);
+    }
+
+    /**
+     * Takes one token from a bucket shared by every client refused a bucket of its own
+     * Overflow buckets are keyed by route and dimension only, so their number stays bounded.
+     * @param key overflow key, made of the route and the dimension it is limited on
+     * @param limit limit of the bucket, used when the bucket is created
+     * @return 0 if the request is allowed, otherwise nanoseconds until a token is available
+     */
+    public long tryAcquireOverflow(String key, RateLimitProperties.Limit limit) {
+        return consume(overflow.computeIfAbsent(key, k -> new Entry(limit)));
+    }
+
+    /**
+     * Drops the buckets of one stripe that have been idle for a full refill period
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-interval:1s}")
+    public void sweep() {
+        int index = nextStripe;
+        nextStripe = (index + 1) & (stripes.length - 1);
+        sweep(stripes[index], System.nanoTime());
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentMap<String, Entry> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.ratelimit.buckets", this, ClientRateLimiter::size)
+                .description("Client token buckets held by the gateway")
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.buckets.refused", refused, LongAdder::sum)
+                .description("Client buckets not created because their stripe was full")
+                .register(registry);
+    }
+
+    private static long consume(Entry entry) {
+        entry.lastAccessNanos = System.nanoTime();
+        ConsumptionProbe probe = entry.bucket.tryConsumeAndReturnRemaining(1);
+        return probe.isConsumed() ? 0 : Math.max(1, probe.getNanosToWaitForRefill());
+    }
+
+    private static void sweep(ConcurrentMap<String, Entry> stripe, long now) {
+        stripe.values().removeIf(entry -> now - entry.lastAccessNanos >= entry.idleNanos);
+    }
+
+    private ConcurrentMap<String, Entry> stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static final class Entry {
+        final Bucket bucket;
+        final long idleNanos;
+        volatile long lastAccessNanos;
+
+        Entry(RateLimitProperties.Limit limit) {
+            this.bucket = Bucket.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(limit.getCapacity())
+                            .refillGreedy(limit.getCapacity(), limit.getPeriod())
+                            .build())
+                    .build();
+            this.idleNanos = limit.getPeriod().toNanos();
+        }
+    }
+}
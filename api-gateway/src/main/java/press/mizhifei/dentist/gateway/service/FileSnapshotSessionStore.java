@@ -0,0 +1,128 @@
+package press.mizhifei.dentist.gateway.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import press.mizhifei.dentist.gateway.service.AnonymousSessionService.SessionInfo;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory session store that snapshots its sessions to a local file
+ * The snapshot is restored on startup so a restarted node keeps serving the same sessions
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+public class FileSnapshotSessionStore implements SessionStore, InitializingBean, DisposableBean {
+
+    private static final TypeReference<List<SessionInfo>> SNAPSHOT_TYPE = new TypeReference<>() {
+    };
+
+    private final BoundedSessionStore memory;
+    private final Path snapshotPath;
+    private final long ttlMillis;
+    private final ObjectMapper objectMapper;
+
+    public FileSnapshotSessionStore(BoundedSessionStore memory, Path snapshotPath, Duration ttl,
+                                    ObjectMapper objectMapper) {
+        this.memory = memory;
+        this.snapshotPath = snapshotPath;
+        this.ttlMillis = ttl.toMillis();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<SessionInfo> find(String sessionId) {
+        return memory.find(sessionId);
+    }
+
+    @Override
+    public Mono<Void> save(SessionInfo session) {
+        return memory.save(session);
+    }
+
+    @Override
+    public Mono<Void> delete(String sessionId) {
+        return memory.delete(sessionId);
+    }
+
+    @Override
+    public void removeIdleLongerThan(long maxAgeMs) {
+        memory.removeIdleLongerThan(maxAgeMs);
+    }
+
+    /**
+     * Restores the sessions of the last snapshot that have not expired since
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!Files.exists(snapshotPath)) {
+            log.info("No session snapshot found at {}, starting empty", snapshotPath);
+            return;
+        }
+        try {
+            List<SessionInfo> sessions = objectMapper.readValue(snapshotPath.toFile(), SNAPSHOT_TYPE);
+            long now = System.currentTimeMillis();
+            int restored = 0;
+            for (SessionInfo session : sessions) {
+                if (now - session.getLastAccessedAt() <= ttlMillis) {
+                    memory.put(session);
+                    restored++;
+                }
+            }
+            log.info("Restored {} of {} sessions from {}", restored, sessions.size(), snapshotPath);
+        } catch (IOException e) {
+            log.warn("Could not restore session snapshot from {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the current sessions to the snapshot file, replacing it atomically
+     */
+    @Scheduled(fixedDelayString = "${gateway.session.snapshot.interval:60s}",
+            initialDelayString = "${gateway.session.snapshot.interval:60s}")
+    public void snapshot() {
+        List<SessionInfo> sessions = new ArrayList<>(memory.sessions());
+        Path temp = null;
+        try {
+            Path directory = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "gateway-sessions", ".tmp");
+            objectMapper.writeValue(temp.toFile(), sessions);
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} sessions to {}", sessions.size(), snapshotPath);
+        } catch (IOException e) {
+            log.warn("Could not write session snapshot to {}: {}", snapshotPath, e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        snapshot();
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort cleanup of a partially written snapshot
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package press.mizhifei.dentist.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.GetExArgs;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import press.mizhifei.dentist.cache.BoundedTtlCache;
+import press.mizhifei.dentist.gateway.service.AnonymousSessionService.SessionInfo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session store shared between gateway nodes through Redis
+ * A local near-cache serves repeat requests in memory. Its entries expire a fixed time after they were read from
+ * Redis, however often they are used, so changes and deletions made by other nodes are picked up within that time.
+ * Accesses served from the near-cache are batched and written back as key expiry on a fixed interval.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+public class RedisSessionStore implements SessionStore, DisposableBean {
+
+    private static final int SYNC_CONCURRENCY = 64;
+
+    private final BoundedTtlCache<String, SessionInfo> nearCache;
+    private final long nearCacheTtlMillis;
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, String> connection;
+    private final RedisReactiveCommands<String, String> commands;
+    private final ObjectMapper objectMapper;
+    private final String keyPrefix;
+    private final long ttlMillis;
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    public RedisSessionStore(int nearCacheMaxSize, Duration nearCacheTtl, String uri, String keyPrefix, Duration ttl,
+                             ObjectMapper objectMapper) {
+        this.nearCache = new BoundedTtlCache<>(nearCacheMaxSize, System::currentTimeMillis);
+        this.nearCacheTtlMillis = nearCacheTtl.toMillis();
+        this.client = RedisClient.create(uri);
+        this.connection = client.connect();
+        this.commands = connection.reactive();
+        this.objectMapper = objectMapper;
+        this.keyPrefix = keyPrefix;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    @Override
+    public Mono<SessionInfo> find(String sessionId) {
+        SessionInfo local = nearCache.get(sessionId);
+        if (local != null) {
+            touched.add(sessionId);
+            return Mono.just(local);
+        }
+        // A read that overlaps a delete on this node is not cached
+        long stamp = nearCache.invalidationStamp();
+        // GETEX refreshes the shared expiry in the same round trip
+        return commands.getex(keyPrefix + sessionId, GetExArgs.Builder.px(ttlMillis))
+                .flatMap(this::deserialize)
+                .doOnNext(session -> {
+                    long now = nearCache.now();
+                    session.setLastAccessedAt(now);
+                    nearCache.put(sessionId, session, now + nearCacheTtlMillis, stamp);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Could not read session {} from Redis: {}", sessionId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<Void> save(SessionInfo session) {
+        nearCache.put(session.getSessionId(), session, nearCache.now() + nearCacheTtlMillis);
+        return serialize(session)
+                .flatMap(json -> commands.set(keyPrefix + session.getSessionId(), json, SetArgs.Builder.px(ttlMillis)))
+                .onErrorResume(e -> {
+                    log.warn("Could not write session {} to Redis: {}", session.getSessionId(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(String sessionId) {
+        nearCache.invalidate(sessionId);
+        touched.remove(sessionId);
+        return commands.del(keyPrefix + sessionId)
+                .onErrorResume(e -> {
+                    log.warn("Could not delete session {} from Redis: {}", sessionId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void removeIdleLongerThan(long maxAgeMs) {
+        // Shared entries expire through their Redis TTL, near-cache entries a fixed time after they were read
+    }
+
+    /**
+     * Extends the Redis expiry of the sessions accessed through the near-cache since the last run
+     */
+    @Scheduled(fixedDelayString = "${gateway.session.redis.sync-interval:10s}")
+    public void syncAccessTimes() {
+        if (touched.isEmpty()) {
+            return;
+        }
+        List<String> sessionIds = new ArrayList<>(touched);
+        sessionIds.forEach(touched::remove);
+
+        Flux.fromIterable(sessionIds)
+                .flatMap(sessionId -> commands.pexpire(keyPrefix + sessionId, ttlMillis), SYNC_CONCURRENCY)
+                .count()
+                .subscribe(
+                        count -> log.debug("Extended Redis expiry of {} sessions", count),
+                        e -> log.warn("Could not extend Redis session expiry: {}", e.getMessage()));
+    }
+
+    @Override
+    public void destroy() {
+        connection.close();
+        client.shutdown();
+    }
+
+    private Mono<SessionInfo> deserialize(String json) {
+        try {
+            return Mono.just(objectMapper.readValue(json, SessionInfo.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable session from Redis: {}", e.getMessage());
+            return Mono.empty();
+        }
+    }
+
+    private Mono<String> serialize(SessionInfo session) {
+        try {
+            return Mono.just(objectMapper.writeValueAsString(session));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
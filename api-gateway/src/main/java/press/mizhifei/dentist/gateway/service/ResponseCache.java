@@ -0,0 +1,192 @@
+package press.mizhifei.dentist.gateway.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import press.mizhifei.dentist.gateway.config.ResponseCacheProperties;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Memory-bounded LRU cache of downstream response bodies
+ * Size is accounted in bytes of body and key; each entry carries its own expiry and a strong ETag.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long maxBytes;
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.maxBytes = properties.getMaxSize().toBytes();
+    }
+
+    /**
+     * Looks up a live response
+     * @param key cache key
+     * @return the cached response, or null if absent or expired
+     */
+    public CachedResponse get(String key) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            CachedResponse response = entries.get(key);
+            if (response != null && response.expiresAt <= now) {
+                entries.remove(key);
+                usedBytes -= response.weight;
+                expirations.increment();
+                response = null;
+            }
+            (response != null ? hits : misses).increment();
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a response body, evicting the least recently used entries when over the memory bound
+     * @param key cache key
+     * @param contentType content type of the body, may be null
+     * @param body response body
+     * @param ttl time to live
+     * @return the stored entry
+     */
+    public CachedResponse put(String key, String contentType, byte[] body, Duration ttl) {
+        CachedResponse response = new CachedResponse(key, contentType, body, System.currentTimeMillis() + ttl.toMillis());
+        lock.lock();
+        try {
+            CachedResponse previous = entries.put(key, response);
+            if (previous != null) {
+                usedBytes -= previous.weight;
+            }
+            usedBytes += response.weight;
+            Iterator<CachedResponse> eldest = entries.values().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext()) {
+                CachedResponse evicted = eldest.next();
+                eldest.remove();
+                usedBytes -= evicted.weight;
+                sizeEvictions.increment();
+            }
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            usedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.response.cache.size", this, ResponseCache::usedBytes)
+                .description("Bytes held by the gateway response cache")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.evictions", expirations, LongAdder::sum)
+                .tag("cause", "expired")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.evictions", sizeEvictions, LongAdder::sum)
+                .tag("cause", "size")
+                .register(registry);
+    }
+
+    /**
+     * Immutable cached response body
+     */
+    @Getter
+    public static final class CachedResponse {
+        private final String contentType;
+        private final byte[] body;
+        private final String etag;
+        private final long expiresAt;
+        private final long weight;
+
+        CachedResponse(String key, String contentType, byte[] body, long expiresAt) {
+            this.contentType = contentType;
+            this.body = body;
+            this.etag = etagOf(body);
+            this.expiresAt = expiresAt;
+            this.weight = body.length + 2L * key.length();
+        }
+
+        /**
+         * Same strong ETag format as Spring's ShallowEtagHeaderFilter
+         */
+        public static String etagOf(byte[] body) {
+            return "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+
+        /**
+         * @param ifNoneMatch value of the If-None-Match request header, may be null
+         * @return whether the client already holds this representation
+         */
+        public boolean matches(String ifNoneMatch) {
+            return matches(etag, ifNoneMatch);
+        }
+
+        public static boolean matches(String etag, String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || (tag.startsWith("W/") && tag.substring(2).equals(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
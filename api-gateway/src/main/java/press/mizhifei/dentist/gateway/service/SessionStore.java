@@ -0,0 +1,42 @@
+package press.mizhifei.dentist.gateway.service;
+
+import press.mizhifei.dentist.gateway.service.AnonymousSessionService.SessionInfo;
+import reactor.core.publisher.Mono;
+
+/**
+ * Storage SPI for gateway sessions
+ * Selected with gateway.session.store: memory (default), file or redis
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public interface SessionStore {
+
+    /**
+     * Finds a live session
+     * @param sessionId session ID
+     * @return the session, or empty if absent or expired
+     */
+    Mono<SessionInfo> find(String sessionId);
+
+    /**
+     * Stores or replaces a session
+     * @param session session to store
+     * @return completion signal
+     */
+    Mono<Void> save(SessionInfo session);
+
+    /**
+     * Removes a session
+     * @param sessionId session ID
+     * @return completion signal
+     */
+    Mono<Void> delete(String sessionId);
+
+    /**
+     * Removes sessions held by this node that have been idle longer than the given age
+     * @param maxAgeMs maximum idle age in milliseconds
+     */
+    void removeIdleLongerThan(long maxAgeMs);
+}
@@ -0,0 +1,322 @@
+package press.mizhifei.dentist.gateway;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end streaming tests for large uploads and server-sent events through the gateway
+ * Downstream services are stubbed with an in-process HTTP server; the gateway runs with its real filter chain.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.config.enabled=false",
+        "gateway.request-body.routes.genai-service=1MB"
+})
+class StreamingPassThroughTest {
+
+    private static final long UPLOAD_SIZE = 50L * 1024 * 1024;
+    private static final long GATE = 40L * 1024 * 1024;
+    private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+    private static final Duration TOKEN_INTERVAL = Duration.ofMillis(1000);
+
+    private static final AtomicLong uploaded = new AtomicLong();
+    private static final AtomicInteger downstreamCalls = new AtomicInteger();
+    private static final RSAKey signingKey;
+    private static final HttpServer downstream;
+
+    static {
+        try {
+            signingKey = new RSAKeyGenerator(2048).keyID("test").generate();
+            downstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            downstream.setExecutor(Executors.newCachedThreadPool());
+            downstream.createContext("/auth/oauth2/jwks", exchange ->
+                    respond(exchange, new JWKSet(signingKey.toPublicJWK()).toString()));
+            downstream.createContext("/clinical-records/image/upload", exchange -> {
+                downstreamCalls.incrementAndGet();
+                respond(exchange, "{\"received\":" + drain(exchange) + "}");
+            });
+            downstream.createContext("/genai/chatbot/help", StreamingPassThroughTest::streamTokens);
+            downstream.start();
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        String uri = "http://127.0.0.1:" + downstream.getAddress().getPort();
+        registry.add("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", () -> uri + "/auth/oauth2/jwks");
+        route(registry, 0, "clinical-records-service", uri, "/api/clinical-records/**");
+        route(registry, 1, "genai-service", uri, "/api/genai/**");
+    }
+
+    @AfterAll
+    static void stopDownstream() {
+        downstream.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        uploaded.set(0);
+        downstreamCalls.set(0);
+    }
+
+    @Test
+    void testLargeUploadStreamsWithoutBufferingInGateway() throws Exception {
+        // Given
+        send(upload(new GeneratedBody(1024 * 1024, Long.MAX_VALUE)));
+        uploaded.set(0);
+        long baseline = liveHeap();
+        GeneratedBody body = new GeneratedBody(UPLOAD_SIZE, GATE);
+
+        // When
+        HttpResponse<String> response = send(upload(body));
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"received\":" + UPLOAD_SIZE + "}", response.body());
+        assertTrue(body.gatePassed, "downstream had not received the first " + GATE + " bytes before the rest was sent");
+        long growth = body.heapAtGate - baseline;
+        assertTrue(growth < MAX_HEAP_GROWTH, "heap grew by " + (growth >> 10) + " KB by " + (GATE >> 20)
+                + " MB of a " + (UPLOAD_SIZE >> 20) + " MB upload");
+    }
+
+    @Test
+    void testServerSentEventsAreFlushedAsReceived() throws Exception {
+        // Given
+        HttpRequest request = HttpRequest.newBuilder(gateway("/api/genai/chatbot/help"))
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString("How often should I floss?"))
+                .build();
+        long start = System.nanoTime();
+
+        // When
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        long firstToken = 0;
+        int tokens = 0;
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith("data:") && tokens++ == 0) {
+                    firstToken = System.nanoTime() - start;
+                }
+            }
+        }
+        long total = System.nanoTime() - start;
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals(2, tokens);
+        assertTrue(firstToken < TOKEN_INTERVAL.toNanos() / 2,
+                "first token took " + TimeUnit.NANOSECONDS.toMillis(firstToken) + " ms");
+        assertTrue(total >= TOKEN_INTERVAL.toNanos(),
+                "stream completed after " + TimeUnit.NANOSECONDS.toMillis(total) + " ms");
+    }
+
+    @Test
+    void testDeclaredOversizedBodyIsRejectedBeforeForwarding() throws Exception {
+        // Given
+        HttpRequest request = HttpRequest.newBuilder(gateway("/api/genai/chatbot/help"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[2 * 1024 * 1024]))
+                .build();
+
+        // When
+        HttpResponse<String> response = send(request);
+
+        // Then
+        assertEquals(413, response.statusCode());
+        assertEquals(0, downstreamCalls.get());
+    }
+
+    @Test
+    void testChunkedBodyIsCutOffAtTheLimit() throws Exception {
+        // Given
+        HttpRequest request = HttpRequest.newBuilder(gateway("/api/genai/chatbot/help"))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new GeneratedBody(2 * 1024 * 1024, Long.MAX_VALUE)))
+                .build();
+
+        // When
+        HttpResponse<String> response = send(request);
+
+        // Then
+        assertEquals(413, response.statusCode());
+    }
+
+    private HttpRequest upload(GeneratedBody body) throws Exception {
+        return HttpRequest.newBuilder(gateway("/api/clinical-records/image/upload"))
+                .header("Authorization", "Bearer " + token())
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> body))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI gateway(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    private static String token() throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("1")
+                .claim("email", "dentist@example.com")
+                .claim("roles", "DENTIST")
+                .claim("clinicId", 1)
+                .expirationTime(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("test").build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+
+    private static long liveHeap() throws InterruptedException {
+        System.gc();
+        Thread.sleep(100);
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void route(DynamicPropertyRegistry registry, int index, String id, String uri, String path) {
+        String prefix = "spring.cloud.gateway.server.webflux.routes[" + index + "].";
+        registry.add(prefix + "id", () -> id);
+        registry.add(prefix + "uri", () -> uri);
+        registry.add(prefix + "predicates[0]", () -> "Path=" + path);
+        registry.add(prefix + "filters[0]", () -> "StripPrefix=1");
+    }
+
+    private static long drain(HttpExchange exchange) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                total += read;
+                uploaded.addAndGet(read);
+            }
+        }
+        return total;
+    }
+
+    private static void streamTokens(HttpExchange exchange) throws IOException {
+        downstreamCalls.incrementAndGet();
+        drain(exchange);
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write("data: Floss\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Thread.sleep(TOKEN_INTERVAL.toMillis());
+            out.write("data: daily.\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Request body generated on the fly, sent chunked; pauses at the gate until downstream has caught up
+     * and samples the live heap while the rest of the upload is still pending
+     */
+    private static final class GeneratedBody extends InputStream {
+
+        private final long size;
+        private final long gate;
+        private long sent;
+        private boolean gateReached;
+        volatile boolean gatePassed;
+        volatile long heapAtGate;
+
+        GeneratedBody(long size, long gate) {
+            this.size = size;
+            this.gate = gate;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0];
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (sent >= size) {
+                return -1;
+            }
+            if (sent >= gate && !gateReached) {
+                gateReached = true;
+                awaitGate();
+            }
+            int n = (int) Math.min(len, Math.min(size - sent, sent < gate ? gate - sent : Long.MAX_VALUE));
+            sent += n;
+            return n;
+        }
+
+        private void awaitGate() {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            try {
+                // Everything but what is still in socket and channel buffers must have reached downstream
+                while (uploaded.get() < gate - 8 * 1024 * 1024 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                gatePassed = uploaded.get() >= gate - 8 * 1024 * 1024;
+                heapAtGate = liveHeap();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import press.mizhifei.dentist.gateway.config.ClientAddressProperties;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for ClientAddress
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class ClientAddressTest {
+
+    private final ClientAddress clientAddress = new ClientAddress(new ClientAddressProperties());
+
+    @Test
+    void testForwardingHeadersOfUntrustedPeersAreIgnored() {
+        // Given
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("198.51.100.9", 50000))
+                .header("X-Forwarded-For", "203.0.113.7")
+                .header("X-Real-IP", "203.0.113.8")
+                .build();
+
+        // When
+        String address = clientAddress.of(request);
+
+        // Then
+        assertEquals("198.51.100.9", address);
+    }
+
+    @Test
+    void testRightMostUntrustedHopIsTheClient() {
+        // Given
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 50000))
+                .header("X-Forwarded-For", "1.2.3.4, 203.0.113.7, 10.0.0.3")
+                .build();
+
+        // When
+        String address = clientAddress.of(request);
+
+        // Then
+        assertEquals("203.0.113.7", address);
+    }
+
+    @Test
+    void testForgedNonAddressHopIsNotSkipped() {
+        // Given
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 50000))
+                .header("X-Forwarded-For", "203.0.113.7, not-an-address")
+                .build();
+
+        // When
+        String address = clientAddress.of(request);
+
+        // Then
+        assertEquals("not-an-address", address);
+    }
+
+    @Test
+    void testTrustedPeerWithoutForwardingHeadersIsTheClient() {
+        // Given
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("127.0.0.1", 50000))
+                .build();
+
+        // When
+        String address = clientAddress.of(request);
+
+        // Then
+        assertEquals("127.0.0.1", address);
+    }
+}
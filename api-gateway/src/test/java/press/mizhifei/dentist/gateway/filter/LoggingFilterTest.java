@@ -0,0 +1,69 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import press.mizhifei.dentist.gateway.config.ClientAddressProperties;
+import press.mizhifei.dentist.gateway.config.ConcurrencyLimitProperties;
+import press.mizhifei.dentist.gateway.config.RateLimitProperties;
+import press.mizhifei.dentist.gateway.config.RequestBodyProperties;
+import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.service.BatchSubRequests;
+import press.mizhifei.dentist.gateway.service.ClientRateLimiter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LoggingFilter
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class LoggingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ClientAddress clientAddress = new ClientAddress(new ClientAddressProperties());
+    private final LoggingFilter loggingFilter = new LoggingFilter(meterRegistry, clientAddress);
+
+    @Test
+    void testLoggingFilterRunsBeforeEveryShortCircuitingFilter() {
+        // Given
+        RateLimitProperties properties = new RateLimitProperties();
+        List<Ordered> shortCircuiting = List.of(
+                new RateLimitFilter(new ClientRateLimiter(properties), properties, new JwtTokenProvider(),
+                        clientAddress, new BatchSubRequests(), meterRegistry),
+                new RequestBodyLimitFilter(new RequestBodyProperties(), meterRegistry),
+                new ConcurrencyLimitFilter(new ConcurrencyLimitProperties(), meterRegistry));
+
+        // When / Then
+        for (Ordered filter : shortCircuiting) {
+            assertTrue(loggingFilter.getOrder() < filter.getOrder(), filter.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void testRejectedRequestIsTimed() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list"));
+        GatewayFilterChain rejecting = filtered -> {
+            filtered.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return filtered.getResponse().setComplete();
+        };
+
+        // When
+        loggingFilter.filter(exchange, rejecting).block();
+
+        // Then
+        Timer timer = meterRegistry.find("gateway.route.latency").tag("outcome", "CLIENT_ERROR").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+}
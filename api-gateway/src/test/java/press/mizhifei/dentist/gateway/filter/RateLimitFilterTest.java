@@ -0,0 +1,151 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import press.mizhifei.dentist.gateway.config.ClientAddressProperties;
+import press.mizhifei.dentist.gateway.config.RateLimitProperties;
+import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.service.BatchSubRequests;
+import press.mizhifei.dentist.gateway.service.ClientRateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for RateLimitFilter
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class RateLimitFilterTest {
+
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final BatchSubRequests subRequests = new BatchSubRequests();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @Test
+    void testRotatingSessionIdsAndForgedForwardingHeadersDoNotEscapeTheIpLimit() {
+        // Given
+        RateLimitFilter filter = filter(limit(100), limit(3));
+
+        // When
+        int rejected = 0;
+        for (int i = 0; i < 10; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list")
+                    .remoteAddress(new InetSocketAddress("198.51.100.9", 50000))
+                    .header("X-Forwarded-For", "203.0.113." + i)
+                    .header("X-Session-ID", "session-" + i)
+                    .build());
+            filter.filter(exchange, chain).block();
+            if (exchange.getResponse().getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                rejected++;
+            }
+        }
+
+        // Then
+        assertEquals(3, forwarded.get());
+        assertEquals(7, rejected);
+    }
+
+    @Test
+    void testRequestRejectedByIpLimitSpendsNoSessionToken() {
+        // Given
+        RateLimitFilter filter = filter(limit(2), limit(1));
+        MockServerHttpRequest.BaseBuilder<?> fromBlockedAddress = MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("198.51.100.9", 50000))
+                .header("X-Session-ID", "session-1");
+        filter.filter(MockServerWebExchange.from(fromBlockedAddress), chain).block();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            filter.filter(MockServerWebExchange.from(fromBlockedAddress), chain).block();
+        }
+        MockServerWebExchange fromOtherAddress = MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("198.51.100.10", 50000))
+                .header("X-Session-ID", "session-1"));
+        filter.filter(fromOtherAddress, chain).block();
+
+        // Then
+        assertEquals(2, forwarded.get());
+    }
+
+    @Test
+    void testAddressesRefusedABucketShareTheOverflowLimit() {
+        // Given
+        RateLimitFilter filter = filter(null, limit(3), 1);
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("198.51.100.1", 50000))), chain).block();
+
+        // When
+        for (int i = 2; i < 12; i++) {
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list")
+                    .remoteAddress(new InetSocketAddress("198.51.100." + i, 50000))), chain).block();
+        }
+
+        // Then
+        assertEquals(1 + 3, forwarded.get());
+    }
+
+    @Test
+    void testBatchSubRequestsAreNotChargedAgain() {
+        // Given
+        RateLimitFilter filter = filter(null, limit(1));
+        MockServerWebExchange batch = MockServerWebExchange.from(MockServerHttpRequest.post("/api/batch")
+                .remoteAddress(new InetSocketAddress("198.51.100.9", 50000)));
+        long batchWait = filter.acquire(batch, "batch").block();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            HttpHeaders marked = new HttpHeaders();
+            subRequests.mark(marked);
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list")
+                    .remoteAddress(new InetSocketAddress("198.51.100.9", 50000))
+                    .headers(marked)), chain).block();
+        }
+        MockServerWebExchange forged = MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("198.51.100.9", 50000))
+                .header(BatchSubRequests.HEADER, "forged"));
+        filter.filter(forged, chain).block();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/clinic/list")
+                .remoteAddress(new InetSocketAddress("198.51.100.9", 50000))), chain).block();
+
+        // Then
+        assertEquals(0, batchWait);
+        assertEquals(5 + 1, forwarded.get());
+    }
+
+    private RateLimitFilter filter(RateLimitProperties.Limit session, RateLimitProperties.Limit ip) {
+        return filter(session, ip, new RateLimitProperties().getMaxBuckets());
+    }
+
+    private RateLimitFilter filter(RateLimitProperties.Limit session, RateLimitProperties.Limit ip,
+                                          int maxBuckets) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setStripes(1);
+        properties.setMaxBuckets(maxBuckets);
+        properties.getDefaults().setSession(session);
+        properties.getDefaults().setIp(ip);
+        return new RateLimitFilter(new ClientRateLimiter(properties), properties, new JwtTokenProvider(),
+                new ClientAddress(new ClientAddressProperties()), subRequests, new SimpleMeterRegistry());
+    }
+
+    private static RateLimitProperties.Limit limit(long capacity) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(Duration.ofMinutes(1));
+        return limit;
+    }
+}
@@ -0,0 +1,116 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import press.mizhifei.dentist.gateway.config.ResponseCacheProperties;
+import press.mizhifei.dentist.gateway.service.ResponseCache;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResponseCacheFilter
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class ResponseCacheFilterTest {
+
+    private static final String PATH = "/api/clinic/list";
+
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private ResponseCache cache;
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxEntrySize(DataSize.ofBytes(64));
+        ResponseCacheProperties.Route route = new ResponseCacheProperties.Route();
+        route.setPath(PATH);
+        properties.getRoutes().add(route);
+        cache = new ResponseCache(properties);
+        filter = new ResponseCacheFilter(cache, properties, new ObjectMapper());
+    }
+
+    @Test
+    void testBodyWithinLimitIsCachedAndServedOnTheNextRequest() {
+        // Given
+        GatewayFilterChain chain = respondWith(null, "[{\"id\":1,", "\"name\":\"Smile\"}]");
+        filter.filter(get(), chain).block();
+
+        // When
+        MockServerWebExchange exchange = get();
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertEquals(1, forwarded.get());
+        assertEquals("HIT", exchange.getResponse().getHeaders().getFirst("X-Gateway-Cache"));
+        assertEquals("[{\"id\":1,\"name\":\"Smile\"}]", exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testChunkedBodyOverLimitStreamsThroughUncached() {
+        // Given
+        String chunk = "x".repeat(40);
+        MockServerWebExchange exchange = get();
+
+        // When
+        filter.filter(exchange, respondWith(null, chunk, chunk, chunk)).block();
+
+        // Then
+        assertEquals(chunk.repeat(3), exchange.getResponse().getBodyAsString().block());
+        assertNull(exchange.getResponse().getHeaders().getETag());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDeclaredLengthOverLimitIsNotBuffered() {
+        // Given
+        String body = "y".repeat(100);
+        MockServerWebExchange exchange = get();
+
+        // When
+        filter.filter(exchange, respondWith((long) body.length(), body)).block();
+
+        // Then
+        assertEquals(body, exchange.getResponse().getBodyAsString().block());
+        assertNull(exchange.getResponse().getHeaders().getFirst("X-Gateway-Cache"));
+        assertEquals(0, cache.size());
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+    }
+
+    private GatewayFilterChain respondWith(Long contentLength, String... chunks) {
+        return exchange -> {
+            forwarded.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            if (contentLength != null) {
+                response.getHeaders().setContentLength(contentLength);
+            }
+            return response.writeWith(Flux.fromArray(chunks).map(ResponseCacheFilterTest::buffer));
+        };
+    }
+
+    private static DataBuffer buffer(String chunk) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+    }
+}
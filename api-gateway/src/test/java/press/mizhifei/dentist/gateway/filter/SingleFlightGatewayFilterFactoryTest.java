@@ -0,0 +1,118 @@
+package press.mizhifei.dentist.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import press.mizhifei.dentist.gateway.security.JwtTokenProvider;
+import press.mizhifei.dentist.gateway.security.VerifiedClaims;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlightGatewayFilterFactory
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class SingleFlightGatewayFilterFactoryTest {
+
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SingleFlightGatewayFilterFactory factory =
+                new SingleFlightGatewayFilterFactory(new JwtTokenProvider(), new SimpleMeterRegistry());
+        SingleFlightGatewayFilterFactory.Config config = new SingleFlightGatewayFilterFactory.Config();
+        config.setPaths(List.of("/api/appointment/clinic/{clinicId}"));
+        filter = factory.apply(config);
+    }
+
+    @Test
+    void testConcurrentIdenticalGetsShareOneDownstreamCall() {
+        // Given
+        MockServerWebExchange first = staff("/api/appointment/clinic/1?date=2025-06-02", 1L);
+        MockServerWebExchange second = staff("/api/appointment/clinic/1?date=2025-06-02", 1L);
+
+        // When
+        Mono.when(filter.filter(first, downstream()), filter.filter(second, downstream())).block();
+
+        // Then
+        assertEquals(1, downstreamCalls.get());
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals("application/json", second.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals(first.getResponse().getBodyAsString().block(), second.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testDifferentClinicsAreNotShared() {
+        // Given
+        MockServerWebExchange first = staff("/api/appointment/clinic/1?date=2025-06-02", 1L);
+        MockServerWebExchange second = staff("/api/appointment/clinic/1?date=2025-06-02", 2L);
+
+        // When
+        Mono.when(filter.filter(first, downstream()), filter.filter(second, downstream())).block();
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    void testSequentialRequestsAreNotShared() {
+        // When
+        filter.filter(staff("/api/appointment/clinic/1", 1L), downstream()).block();
+        filter.filter(staff("/api/appointment/clinic/1", 1L), downstream()).block();
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    void testPathsOutsideConfiguredPatternsAreNotShared() {
+        // Given
+        MockServerWebExchange first = staff("/api/appointment/dentist/1", 1L);
+        MockServerWebExchange second = staff("/api/appointment/dentist/1", 1L);
+
+        // When
+        Mono.when(filter.filter(first, downstream()), filter.filter(second, downstream())).block();
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    private static MockServerWebExchange staff(String uri, Long clinicId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+        exchange.getAttributes().put(VerifiedClaims.ATTRIBUTE,
+                new VerifiedClaims("7", "reception@clinic.com", "RECEPTIONIST", clinicId.toString()));
+        return exchange;
+    }
+
+    private GatewayFilterChain downstream() {
+        return (ServerWebExchange exchange) -> {
+            int call = downstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES,
+                    Set.of(HttpHeaders.CONTENT_TYPE));
+            byte[] body = ("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.delay(Duration.ofMillis(50))
+                    .map(tick -> exchange.getResponse().bufferFactory().wrap(body)));
+        };
+    }
+}
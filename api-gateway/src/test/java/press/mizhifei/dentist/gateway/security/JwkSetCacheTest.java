@@ -0,0 +1,142 @@
+package press.mizhifei.dentist.gateway.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import press.mizhifei.dentist.gateway.config.JwksProperties;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JwkSetCache
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class JwkSetCacheTest {
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private volatile String jwks;
+    private volatile int status = 200;
+    private HttpServer server;
+    private JwkSetCache cache;
+    private RSAKey currentKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        currentKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        jwks = new JWKSet(currentKey.toPublicJWK()).toString();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/auth/oauth2/jwks", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = jwks.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        JwksProperties properties = new JwksProperties();
+        properties.setMinRefetchInterval(Duration.ofMinutes(1));
+        cache = new JwkSetCache(WebClient.create(),
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/auth/oauth2/jwks", properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testKeysArePreloadedAndServedFromMemory() throws Exception {
+        // When
+        cache.afterPropertiesSet();
+        List<JWK> first = cache.keysFor(token("key-1")).collectList().block();
+        List<JWK> second = cache.keysFor(token(null)).collectList().block();
+
+        // Then
+        assertEquals(1, fetches.get());
+        assertEquals("key-1", first.get(0).getKeyID());
+        assertEquals(1, second.size());
+    }
+
+    @Test
+    void testUnknownKeyIdRefetchesAtMostOncePerInterval() throws Exception {
+        // Given
+        cache.afterPropertiesSet();
+        RSAKey rotated = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        jwks = new JWKSet(List.of(currentKey.toPublicJWK(), rotated.toPublicJWK())).toString();
+
+        // When
+        List<JWK> unknown = cache.keysFor(token("key-3")).collectList().block();
+        List<JWK> rotatedKeys = cache.keysFor(token("key-2")).collectList().block();
+
+        // Then
+        assertTrue(unknown.isEmpty());
+        assertTrue(rotatedKeys.isEmpty());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testRotatedKeyIsFetchedOnFirstUse() throws Exception {
+        // Given
+        JwksProperties properties = new JwksProperties();
+        properties.setMinRefetchInterval(Duration.ZERO);
+        JwkSetCache eager = new JwkSetCache(WebClient.create(),
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/auth/oauth2/jwks", properties);
+        eager.afterPropertiesSet();
+        RSAKey rotated = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        jwks = new JWKSet(List.of(currentKey.toPublicJWK(), rotated.toPublicJWK())).toString();
+
+        // When
+        List<JWK> keys = eager.keysFor(token("key-2")).collectList().block();
+
+        // Then
+        assertEquals(1, keys.size());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testFailedRefreshKeepsStaleKeys() throws Exception {
+        // Given
+        cache.afterPropertiesSet();
+        status = 503;
+
+        // When
+        cache.refresh().block();
+
+        // Then
+        assertEquals(2, fetches.get());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.keysFor(token("key-1")).collectList().block().size());
+    }
+
+    private SignedJWT token(String kid) throws JOSEException {
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(kid).build();
+        SignedJWT jwt = new SignedJWT(header, new JWTClaimsSet.Builder().subject("1").build());
+        jwt.sign(new RSASSASigner(currentKey));
+        return jwt;
+    }
+}
@@ -0,0 +1,107 @@
+package press.mizhifei.dentist.gateway.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import press.mizhifei.dentist.gateway.config.RouteAuthorizationProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RouteAuthorizationTable
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class RouteAuthorizationTableTest {
+
+    private RouteAuthorizationTable table;
+
+    @BeforeEach
+    void setUp() {
+        RouteAuthorizationProperties properties = new RouteAuthorizationProperties();
+        properties.setPublicPaths(List.of("/api/auth/", "/api/clinic/list/all", "/admin"));
+        properties.setRules(List.of(
+                rule("/api/clinic/", List.of("CLINIC_ADMIN", "RECEPTIONIST", "DENTIST", "PATIENT"), List.of()),
+                rule("/api/clinic/{clinicId}/", List.of("CLINIC_ADMIN", "RECEPTIONIST", "DENTIST", "PATIENT"),
+                        List.of("CLINIC_ADMIN", "RECEPTIONIST")),
+                rule("/api/patient/", List.of("CLINIC_ADMIN", "RECEPTIONIST", "DENTIST", "PATIENT"), List.of())));
+        table = new RouteAuthorizationTable(properties);
+    }
+
+    @Test
+    void testPublicPathsUsePrefixMatching() {
+        assertTrue(table.match("/api/auth/login").isPublic());
+        assertTrue(table.match("/api/clinic/list/all").isPublic());
+        assertTrue(table.match("/admin").isPublic());
+        assertFalse(table.match("/api/clinic/list").isPublic());
+        assertNull(table.match("/api/appointment/1"));
+    }
+
+    @Test
+    void testLongestPrefixWins() {
+        assertEquals("/api/clinic/{clinicId}/", table.match("/api/clinic/12/patients").getPattern());
+        assertEquals("/api/clinic/", table.match("/api/clinic/12").getPattern());
+        assertEquals("/api/clinic/", table.match("/api/clinic/service/3").getPattern());
+    }
+
+    @Test
+    void testClinicScopedRolesMustMatchPathClinicId() {
+        VerifiedClaims admin = claims("CLINIC_ADMIN", "12");
+
+        assertTrue(authorized("/api/clinic/12/patients", admin));
+        assertFalse(authorized("/api/clinic/13/patients", admin));
+        assertFalse(authorized("/api/clinic/123/patients", admin));
+        assertTrue(authorized("/api/clinic/13", admin));
+        assertFalse(authorized("/api/clinic/12/patients", claims("RECEPTIONIST", null)));
+    }
+
+    @Test
+    void testUnscopedRolesIgnoreClinicId() {
+        assertTrue(authorized("/api/clinic/13/dentists", claims("DENTIST", "12")));
+        assertTrue(authorized("/api/clinic/13/dentists", claims("PATIENT", null)));
+    }
+
+    @Test
+    void testSuperuserAndDefaults() {
+        assertTrue(authorized("/api/clinic/13/patients", claims("SYSTEM_ADMIN", null)));
+        assertTrue(authorized("/api/appointment/1", claims("PATIENT", null)));
+        assertFalse(authorized("/api/appointment/1", claims("", null)));
+        assertFalse(authorized("/api/patient/1", claims("UNKNOWN", null)));
+    }
+
+    @Test
+    void testRoleMaskParsing() {
+        int mask = GatewayRole.maskOf("DENTIST, RECEPTIONIST,UNKNOWN");
+        assertEquals(GatewayRole.DENTIST.bit() | GatewayRole.RECEPTIONIST.bit(), mask);
+        assertEquals(0, GatewayRole.maskOf((String) null));
+    }
+
+    @Test
+    void testInvalidRulesAreRejectedAtStartup() {
+        RouteAuthorizationProperties properties = new RouteAuthorizationProperties();
+        properties.setRules(List.of(rule("/api/clinic/{clinicId}/x/{id}/", List.of(), List.of())));
+        assertThrows(IllegalArgumentException.class, () -> new RouteAuthorizationTable(properties));
+
+        properties.setRules(List.of(rule("/api/x/", List.of("NOT_A_ROLE"), List.of())));
+        assertThrows(IllegalArgumentException.class, () -> new RouteAuthorizationTable(properties));
+    }
+
+    private boolean authorized(String path, VerifiedClaims claims) {
+        return table.isAuthorized(table.match(path), path, claims);
+    }
+
+    private static VerifiedClaims claims(String roles, String clinicId) {
+        return new VerifiedClaims("1", "user@example.com", roles, clinicId);
+    }
+
+    private static RouteAuthorizationProperties.Rule rule(String path, List<String> roles, List<String> scoped) {
+        RouteAuthorizationProperties.Rule rule = new RouteAuthorizationProperties.Rule();
+        rule.setPath(path);
+        rule.setRoles(roles);
+        rule.setClinicScopedRoles(scoped);
+        return rule;
+    }
+}
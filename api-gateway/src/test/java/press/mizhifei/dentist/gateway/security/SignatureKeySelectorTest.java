@@ -0,0 +1,114 @@
+package press.mizhifei.dentist.gateway.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SignatureKeySelector and JdkEdDsaVerifierFactory
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class SignatureKeySelectorTest {
+
+    private RSAKey rsaKey;
+    private ECKey ecKey;
+    private KeyPair edKeyPair;
+    private ReactiveJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rsaKey = new RSAKeyGenerator(2048).keyID("rsa").generate();
+        ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+        edKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] encoded = edKeyPair.getPublic().getEncoded();
+        OctetKeyPair edJwk = new OctetKeyPair.Builder(Curve.Ed25519,
+                Base64URL.encode(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)))
+                .keyID("ed")
+                .build();
+
+        List<JWK> keys = List.of(rsaKey.toPublicJWK(), ecKey.toPublicJWK(), edJwk);
+        decoder = NimbusReactiveJwtDecoder.withJwkSource(jwt -> Flux.fromIterable(keys))
+                .jwtProcessorCustomizer(processor -> {
+                    processor.setJWSKeySelector(new SignatureKeySelector());
+                    processor.setJWSVerifierFactory(new JdkEdDsaVerifierFactory());
+                })
+                .build();
+    }
+
+    @Test
+    void testRsaAndEcTokensAreVerified() throws Exception {
+        // Given
+        SignedJWT rs256 = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("rsa").build(), claims());
+        rs256.sign(new RSASSASigner(rsaKey));
+        SignedJWT es256 = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256).keyID("ec").build(), claims());
+        es256.sign(new ECDSASigner(ecKey));
+
+        // When / Then
+        assertEquals("42", decoder.decode(rs256.serialize()).block().getSubject());
+        assertEquals("42", decoder.decode(es256.serialize()).block().getSubject());
+    }
+
+    @Test
+    void testEd25519TokenIsVerifiedWithJdk() throws Exception {
+        // Given
+        String token = ed25519Token("ed");
+
+        // When / Then
+        assertEquals("42", decoder.decode(token).block().getSubject());
+    }
+
+    @Test
+    void testTamperedOrUnknownKeyTokensAreRejected() throws Exception {
+        // Given
+        String token = ed25519Token("ed");
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+        String unknownKey = ed25519Token("other");
+
+        // When / Then
+        assertThrows(BadJwtException.class, () -> decoder.decode(tampered).block());
+        assertThrows(BadJwtException.class, () -> decoder.decode(unknownKey).block());
+    }
+
+    private String ed25519Token(String kid) throws Exception {
+        String header = Base64URL.encode("{\"alg\":\"EdDSA\",\"kid\":\"" + kid + "\"}").toString();
+        String payload = Base64URL.encode(claims().toString()).toString();
+        String signingInput = header + "." + payload;
+        Signature signer = Signature.getInstance("Ed25519");
+        signer.initSign(edKeyPair.getPrivate());
+        signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + Base64URL.encode(signer.sign());
+    }
+
+    private static JWTClaimsSet claims() {
+        return new JWTClaimsSet.Builder().subject("42").build();
+    }
+}
@@ -0,0 +1,152 @@
+package press.mizhifei.dentist.gateway.security;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import press.mizhifei.dentist.gateway.config.RevocationProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenRevocationList
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class TokenRevocationListTest {
+
+    private final AtomicInteger filterFetches = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger exactChecks = new AtomicInteger();
+    private volatile Set<String> revoked = Set.of("revoked-jti");
+    private volatile Set<String> inFilter = Set.of("revoked-jti", "false-positive-jti");
+    private volatile int exactStatus = 200;
+    private HttpServer server;
+    private TokenRevocationList list;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/auth/oauth2/revocations", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/auth/oauth2/revocations")) {
+                filterFetches.incrementAndGet();
+                String etag = "\"" + inFilter.hashCode() + "\"";
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                exchange.getResponseHeaders().add("ETag", etag);
+                respond(exchange, 200, filterJson(inFilter));
+            } else {
+                exactChecks.incrementAndGet();
+                String jti = path.substring(path.lastIndexOf('/') + 1);
+                respond(exchange, exactStatus, "{\"revoked\":" + revoked.contains(jti) + "}");
+            }
+        });
+        server.start();
+
+        RevocationProperties properties = new RevocationProperties();
+        properties.setUri("http://127.0.0.1:" + server.getAddress().getPort() + "/auth/oauth2/revocations");
+        list = new TokenRevocationList(WebClient.create(), properties);
+        list.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testTokensNotInFilterAreAnsweredFromMemory() {
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(list.isRevoked("jti-" + i).block());
+        }
+
+        // Then
+        assertEquals(0, exactChecks.get());
+        assertEquals(1, filterFetches.get());
+        assertEquals(2, list.size());
+    }
+
+    @Test
+    void testPossibleMatchesAreCheckedExactlyOnce() {
+        // When
+        boolean first = list.isRevoked("revoked-jti").block();
+        boolean second = list.isRevoked("revoked-jti").block();
+        boolean falsePositive = list.isRevoked("false-positive-jti").block();
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(falsePositive);
+        assertEquals(2, exactChecks.get());
+    }
+
+    @Test
+    void testFailedExactCheckRejectsTheToken() {
+        // Given
+        exactStatus = 500;
+
+        // When
+        boolean result = list.isRevoked("false-positive-jti").block();
+
+        // Then
+        assertTrue(result);
+    }
+
+    @Test
+    void testUnchangedFilterIsRevalidatedAndNewRevocationsArePickedUp() {
+        // Given
+        list.isRevoked("false-positive-jti").block();
+
+        // When
+        list.refresh().block();
+        boolean beforeChange = list.isRevoked("newly-revoked-jti").block();
+        revoked = Set.of("revoked-jti", "newly-revoked-jti", "false-positive-jti");
+        inFilter = revoked;
+        list.refresh().block();
+        boolean afterChange = list.isRevoked("newly-revoked-jti").block();
+        boolean previouslyCleared = list.isRevoked("false-positive-jti").block();
+
+        // Then
+        assertEquals(1, notModified.get());
+        assertFalse(beforeChange);
+        assertTrue(afterChange);
+        assertTrue(previouslyCleared);
+        assertEquals(3, list.size());
+    }
+
+    private static String filterJson(Set<String> jtis) {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(1000, 0.01);
+        jtis.forEach(filter::put);
+        return "{\"entries\":" + jtis.size()
+                + ",\"numBits\":" + filter.getNumBits()
+                + ",\"numHashes\":" + filter.getNumHashes()
+                + ",\"bits\":\"" + Base64.getEncoder().encodeToString(filter.toByteArray()) + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package press.mizhifei.dentist.gateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import press.mizhifei.dentist.gateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimit
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private AdaptiveConcurrencyLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(50);
+        limit = new AdaptiveConcurrencyLimit(properties);
+    }
+
+    @Test
+    void testRequestsBeyondLimitAreShed() {
+        // When
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i, limit.tryAcquire());
+        }
+
+        // Then
+        assertEquals(0, limit.tryAcquire());
+        limit.release();
+        assertEquals(10, limit.tryAcquire());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyHolds() {
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit(), false);
+        }
+
+        // Then
+        assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit(), false);
+        }
+        int before = limit.getLimit();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BASE_RTT * 4, limit.getLimit(), false);
+        }
+
+        // Then
+        assertTrue(limit.getLimit() < before);
+    }
+
+    @Test
+    void testLimitDoesNotGrowWithoutLoad() {
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASE_RTT, 1, false);
+        }
+
+        // Then
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void testOverloadBacksOffToMinimum() {
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit(), true);
+        }
+
+        // Then
+        assertEquals(2, limit.getLimit());
+    }
+}
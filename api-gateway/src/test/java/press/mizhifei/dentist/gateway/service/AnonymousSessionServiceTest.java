@@ -2,8 +2,11 @@ package press.mizhifei.dentist.gateway.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import press.mizhifei.dentist.gateway.config.SessionProperties;
 import press.mizhifei.dentist.gateway.service.AnonymousSessionService.SessionInfo;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -15,17 +18,21 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class AnonymousSessionServiceTest {
 
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
     private AnonymousSessionService anonymousSessionService;
 
     @BeforeEach
     void setUp() {
-        anonymousSessionService = new AnonymousSessionService();
+        SessionProperties properties = new SessionProperties();
+        BoundedSessionStore store = new BoundedSessionStore(properties.getMaxSessions(), properties.getTtl(),
+                properties.getExpiryTick(), clock::get);
+        anonymousSessionService = new AnonymousSessionService(store, clock::get);
     }
 
     @Test
     void testGetOrCreateSession_NewSession() {
         // When
-        SessionInfo sessionInfo = anonymousSessionService.getOrCreateSession(null);
+        SessionInfo sessionInfo = anonymousSessionService.getOrCreateSession(null).block();
 
         // Then
         assertNotNull(sessionInfo);
@@ -40,11 +47,11 @@ class AnonymousSessionServiceTest {
     @Test
     void testGetOrCreateSession_ExistingSessionId() {
         // Given
-        SessionInfo firstSession = anonymousSessionService.getOrCreateSession(null);
+        SessionInfo firstSession = anonymousSessionService.getOrCreateSession(null).block();
         String existingSessionId = firstSession.getSessionId();
 
         // When
-        SessionInfo secondSession = anonymousSessionService.getOrCreateSession(existingSessionId);
+        SessionInfo secondSession = anonymousSessionService.getOrCreateSession(existingSessionId).block();
 
         // Then
         assertNotNull(secondSession);
@@ -55,12 +62,12 @@ class AnonymousSessionServiceTest {
     @Test
     void testLinkToAuthenticatedUser() {
         // Given
-        SessionInfo anonymousSession = anonymousSessionService.getOrCreateSession(null);
+        SessionInfo anonymousSession = anonymousSessionService.getOrCreateSession(null).block();
         String sessionId = anonymousSession.getSessionId();
 
         // When
         SessionInfo linkedSession = anonymousSessionService.linkToAuthenticatedUser(
-                sessionId, "user123", "test@example.com", "DENTIST", "clinic456");
+                sessionId, "user123", "test@example.com", "DENTIST", "clinic456").block();
 
         // Then
         assertNotNull(linkedSession);
@@ -77,7 +84,7 @@ class AnonymousSessionServiceTest {
     void testLinkToAuthenticatedUser_NonExistentSessionId() {
         // When
         SessionInfo linkedSession = anonymousSessionService.linkToAuthenticatedUser(
-                "non-existent-id", "user123", "test@example.com", "DENTIST", "clinic456");
+                "non-existent-id", "user123", "test@example.com", "DENTIST", "clinic456").block();
 
         // Then
         assertNotNull(linkedSession);
@@ -89,22 +96,16 @@ class AnonymousSessionServiceTest {
     @Test
     void testUpdateLastAccessed() {
         // Given
-        SessionInfo session = anonymousSessionService.getOrCreateSession(null);
+        SessionInfo session = anonymousSessionService.getOrCreateSession(null).block();
         String sessionId = session.getSessionId();
         long originalLastAccessed = session.getLastAccessedAt();
-
-        // Wait a bit to ensure timestamp difference
-        try {
-            Thread.sleep(10);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        clock.addAndGet(10);
 
         // When
-        anonymousSessionService.updateLastAccessed(sessionId);
+        anonymousSessionService.updateLastAccessed(sessionId).block();
 
         // Then
-        SessionInfo updatedSession = anonymousSessionService.getSession(sessionId);
+        SessionInfo updatedSession = anonymousSessionService.getSession(sessionId).block();
         assertNotNull(updatedSession);
         assertTrue(updatedSession.getLastAccessedAt() > originalLastAccessed);
     }
@@ -112,11 +113,11 @@ class AnonymousSessionServiceTest {
     @Test
     void testGetSession() {
         // Given
-        SessionInfo originalSession = anonymousSessionService.getOrCreateSession(null);
+        SessionInfo originalSession = anonymousSessionService.getOrCreateSession(null).block();
         String sessionId = originalSession.getSessionId();
 
         // When
-        SessionInfo retrievedSession = anonymousSessionService.getSession(sessionId);
+        SessionInfo retrievedSession = anonymousSessionService.getSession(sessionId).block();
 
         // Then
         assertNotNull(retrievedSession);
@@ -127,7 +128,7 @@ class AnonymousSessionServiceTest {
     @Test
     void testGetSession_NonExistent() {
         // When
-        SessionInfo session = anonymousSessionService.getSession("non-existent-id");
+        SessionInfo session = anonymousSessionService.getSession("non-existent-id").block();
 
         // Then
         assertNull(session);
@@ -136,15 +137,18 @@ class AnonymousSessionServiceTest {
     @Test
     void testCleanupExpiredSessions() {
         // Given
-        SessionInfo session1 = anonymousSessionService.getOrCreateSession(null);
-        SessionInfo session2 = anonymousSessionService.getOrCreateSession(null);
+        SessionInfo session1 = anonymousSessionService.getOrCreateSession(null).block();
+        SessionInfo session2 = anonymousSessionService.getOrCreateSession(null).block();
 
-        // When - cleanup with very short max age (everything should be expired)
-        anonymousSessionService.cleanupExpiredSessions(1); // 1ms max age
+        clock.addAndGet(5);
+        anonymousSessionService.updateLastAccessed(session2.getSessionId()).block();
+        clock.addAndGet(1);
 
-        // Then - sessions should still exist immediately after creation
-        // (this test is more about ensuring the method doesn't crash)
-        assertNotNull(anonymousSessionService.getSession(session1.getSessionId()));
-        assertNotNull(anonymousSessionService.getSession(session2.getSessionId()));
+        // When
+        anonymousSessionService.cleanupExpiredSessions(1);
+
+        // Then
+        assertNull(anonymousSessionService.getSession(session1.getSessionId()).block());
+        assertNotNull(anonymousSessionService.getSession(session2.getSessionId()).block());
     }
 }
@@ -0,0 +1,195 @@
+package press.mizhifei.dentist.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import press.mizhifei.dentist.gateway.config.BatchProperties;
+import press.mizhifei.dentist.gateway.config.ClientAddressProperties;
+import press.mizhifei.dentist.gateway.dto.BatchRequest;
+import press.mizhifei.dentist.gateway.dto.BatchResponse;
+import press.mizhifei.dentist.gateway.filter.ClientAddress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchDispatcher
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class BatchDispatcherTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Map<String, String> receivedHeaders = new ConcurrentHashMap<>();
+    private final BatchSubRequests subRequests = new BatchSubRequests();
+    private HttpServer server;
+    private BatchProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/clinic/", exchange -> respond(exchange, 200, "{\"path\":\""
+                + exchange.getRequestURI() + "\"}"));
+        server.createContext("/api/notification/", exchange -> respond(exchange, 403, ""));
+        server.createContext("/api/appointment/", exchange -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(Long.parseLong(exchange.getRequestURI().getQuery().substring("delay=".length())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            respond(exchange, 200, "[]");
+        });
+        server.start();
+
+        properties = new BatchProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testResponsesKeepRequestOrderAndOwnStatus() {
+        // Given
+        BatchRequest batch = batch(
+                item("clinic", "/api/clinic/1/dentists"),
+                item(null, "/api/notification/unread/count"),
+                item("slow", "/api/appointment/clinic/1?delay=200"));
+
+        // When
+        BatchResponse response = dispatcher().dispatch(batch, original()).block();
+
+        // Then
+        List<BatchResponse.Item> items = response.getResponses();
+        assertEquals(List.of("clinic", "1", "slow"), items.stream().map(BatchResponse.Item::getId).toList());
+        assertEquals(List.of(200, 403, 200), items.stream().map(BatchResponse.Item::getStatus).toList());
+        assertEquals("/api/clinic/1/dentists", items.get(0).getBody().get("path").asText());
+        assertTrue(items.get(2).getBody().isArray());
+        assertEquals("Bearer token", receivedHeaders.get("Authorization"));
+        assertEquals("203.0.113.7", receivedHeaders.get("X-Forwarded-For"));
+        assertTrue(subRequests.isSubRequest(MockServerHttpRequest.get("/api/clinic/1")
+                .header(BatchSubRequests.HEADER, receivedHeaders.get(BatchSubRequests.HEADER)).build()));
+    }
+
+    @Test
+    void testClientCannotMarkItsOwnSubRequest() {
+        // Given
+        BatchRequest batch = batch(BatchRequest.Item.builder().path("/api/clinic/1")
+                .headers(Map.of(BatchSubRequests.HEADER, "forged")).build());
+
+        // When
+        dispatcher().dispatch(batch, original()).block();
+
+        // Then
+        assertTrue(subRequests.isSubRequest(MockServerHttpRequest.get("/api/clinic/1")
+                .header(BatchSubRequests.HEADER, receivedHeaders.get(BatchSubRequests.HEADER)).build()));
+        assertFalse(subRequests.isSubRequest(MockServerHttpRequest.get("/api/clinic/1")
+                .header(BatchSubRequests.HEADER, "forged").build()));
+    }
+
+    @Test
+    void testSubRequestsRunInParallelUpToTheCap() {
+        // Given
+        properties.setConcurrency(2);
+        BatchRequest batch = batch(IntStream.range(0, 6)
+                .mapToObj(i -> item(null, "/api/appointment/clinic/" + i + "?delay=150"))
+                .toArray(BatchRequest.Item[]::new));
+
+        // When
+        BatchResponse response = dispatcher().dispatch(batch, original()).block();
+
+        // Then
+        assertEquals(6, response.getResponses().size());
+        assertEquals(6, calls.get());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void testNonApiAndNestedBatchPathsAreRejected() {
+        // Given
+        BatchRequest batch = batch(item(null, "/actuator/env"), item(null, "/api/batch"),
+                BatchRequest.Item.builder().method("TRACE").path("/api/clinic/1").build());
+
+        // When
+        BatchResponse response = dispatcher().dispatch(batch, original()).block();
+
+        // Then
+        assertTrue(response.getResponses().stream().allMatch(item -> item.getStatus() == 400));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void testSlowSubRequestTimesOutAlone() {
+        // Given
+        properties.setTimeout(Duration.ofMillis(100));
+        BatchRequest batch = batch(item(null, "/api/appointment/clinic/1?delay=500"), item(null, "/api/clinic/1"));
+
+        // When
+        BatchResponse response = dispatcher().dispatch(batch, original()).block();
+
+        // Then
+        assertEquals(504, response.getResponses().get(0).getStatus());
+        assertEquals(200, response.getResponses().get(1).getStatus());
+    }
+
+    private BatchDispatcher dispatcher() {
+        return new BatchDispatcher(WebClient.builder(), properties, new ObjectMapper(),
+                new ClientAddress(new ClientAddressProperties()), subRequests, new SimpleMeterRegistry());
+    }
+
+    private static MockServerHttpRequest original() {
+        return MockServerHttpRequest.post("/api/batch")
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 443))
+                .header("Authorization", "Bearer token")
+                .header("X-Forwarded-For", "203.0.113.7")
+                .build();
+    }
+
+    private static BatchRequest batch(BatchRequest.Item... items) {
+        return BatchRequest.builder().requests(List.of(items)).build();
+    }
+
+    private static BatchRequest.Item item(String id, String path) {
+        return BatchRequest.Item.builder().id(id).path(path).build();
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        calls.incrementAndGet();
+        receivedHeaders.put("Authorization", exchange.getRequestHeaders().getFirst("Authorization"));
+        receivedHeaders.put("X-Forwarded-For", exchange.getRequestHeaders().getFirst("X-Forwarded-For"));
+        receivedHeaders.put(BatchSubRequests.HEADER, exchange.getRequestHeaders().getFirst(BatchSubRequests.HEADER));
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
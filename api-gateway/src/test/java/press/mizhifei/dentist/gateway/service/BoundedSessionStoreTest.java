@@ -0,0 +1,106 @@
+package press.mizhifei.dentist.gateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import press.mizhifei.dentist.gateway.config.SessionProperties;
+import press.mizhifei.dentist.gateway.service.AnonymousSessionService.SessionInfo;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedSessionStore
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class BoundedSessionStoreTest {
+
+    @Test
+    void testExpiredSessionsAreRemovedByTick() throws InterruptedException {
+        // Given
+        BoundedSessionStore store = store(10, Duration.ofMillis(50), Duration.ofMillis(10));
+        store.put(session("idle", System.currentTimeMillis()));
+        SessionInfo active = session("active", System.currentTimeMillis());
+        store.put(active);
+
+        // When - keep one session active past the TTL of the other
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(10);
+            active.setLastAccessedAt(System.currentTimeMillis());
+            store.expire();
+        }
+
+        // Then
+        assertNull(store.get("idle"));
+        assertSame(active, store.get("active"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testExpiredSessionIsNotReturnedBeforeTick() {
+        // Given
+        BoundedSessionStore store = store(10, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        store.put(session("old", System.currentTimeMillis() - Duration.ofMinutes(2).toMillis()));
+
+        // Then
+        assertNull(store.get("old"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testCapacityEvictsSoonestExpiring() {
+        // Given
+        BoundedSessionStore store = store(2, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        long now = System.currentTimeMillis();
+        store.put(session("oldest", now - 30_000));
+        store.put(session("middle", now - 10_000));
+
+        // When
+        store.put(session("newest", now));
+
+        // Then
+        assertEquals(2, store.size());
+        assertNull(store.get("oldest"));
+        assertNotNull(store.get("middle"));
+        assertNotNull(store.get("newest"));
+    }
+
+    @Test
+    void testMetrics() {
+        // Given
+        BoundedSessionStore store = store(1, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+
+        // When
+        store.put(session("a", System.currentTimeMillis()));
+        store.put(session("b", System.currentTimeMillis()));
+        store.get("b");
+        store.get("a");
+
+        // Then
+        assertEquals(1, registry.get("gateway.sessions.size").gauge().value());
+        assertEquals(1, registry.get("gateway.sessions.lookups").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("gateway.sessions.lookups").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("gateway.sessions.evictions").tag("cause", "size").functionCounter().count());
+    }
+
+    private static BoundedSessionStore store(int maxSessions, Duration ttl, Duration tick) {
+        SessionProperties properties = new SessionProperties();
+        properties.setMaxSessions(maxSessions);
+        properties.setTtl(ttl);
+        properties.setExpiryTick(tick);
+        return new BoundedSessionStore(properties);
+    }
+
+    private static SessionInfo session(String id, long lastAccessedAt) {
+        return SessionInfo.builder()
+                .sessionId(id)
+                .createdAt(lastAccessedAt)
+                .lastAccessedAt(lastAccessedAt)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package press.mizhifei.dentist.gateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import press.mizhifei.dentist.gateway.config.RateLimitProperties;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ClientRateLimiter
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class ClientRateLimiterTest {
+
+    private ClientRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setStripes(4);
+        rateLimiter = new ClientRateLimiter(properties);
+    }
+
+    @Test
+    void testRequestsBeyondCapacityAreRejectedWithWaitTime() {
+        // Given
+        RateLimitProperties.Limit limit = limit(3, Duration.ofMinutes(1));
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("ip:appointment-service:10.0.0.1", limit));
+        }
+        long waitNanos = rateLimiter.tryAcquire("ip:appointment-service:10.0.0.1", limit);
+
+        // Then
+        assertTrue(waitNanos > 0);
+        assertTrue(waitNanos <= Duration.ofMinutes(1).toNanos());
+    }
+
+    @Test
+    void testClientsHaveIndependentBuckets() {
+        // Given
+        RateLimitProperties.Limit limit = limit(1, Duration.ofMinutes(1));
+        rateLimiter.tryAcquire("ip:appointment-service:10.0.0.1", limit);
+
+        // When & Then
+        assertNotEquals(0, rateLimiter.tryAcquire("ip:appointment-service:10.0.0.1", limit));
+        assertEquals(0, rateLimiter.tryAcquire("ip:appointment-service:10.0.0.2", limit));
+        assertEquals(0, rateLimiter.tryAcquire("ip:clinical-records-service:10.0.0.1", limit));
+    }
+
+    @Test
+    void testSweepDropsBucketsIdleForARefillPeriod() throws InterruptedException {
+        // Given
+        rateLimiter.tryAcquire("idle", limit(1, Duration.ofMillis(1)));
+        rateLimiter.tryAcquire("active", limit(1, Duration.ofMinutes(1)));
+        Thread.sleep(5);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.sweep();
+        }
+
+        // Then
+        assertEquals(1, rateLimiter.size());
+        assertNotEquals(0, rateLimiter.tryAcquire("active", limit(1, Duration.ofMinutes(1))));
+    }
+
+    @Test
+    void testFullLimiterRefusesNewBucketsButKeepsServingExistingOnes() {
+        // Given
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setStripes(1);
+        properties.setMaxBuckets(100);
+        ClientRateLimiter fullLimiter = new ClientRateLimiter(properties);
+        RateLimitProperties.Limit limit = limit(10, Duration.ofMinutes(1));
+        for (int i = 0; i < 100; i++) {
+            fullLimiter.tryAcquire("session:appointment-service:session-" + i, limit);
+        }
+
+        // When
+        long newKey = fullLimiter.tryAcquire("session:appointment-service:session-100", limit);
+        long existingKey = fullLimiter.tryAcquire("session:appointment-service:session-0", limit);
+
+        // Then
+        assertEquals(ClientRateLimiter.NO_BUCKET, newKey);
+        assertEquals(0, existingKey);
+        assertEquals(100, fullLimiter.size());
+    }
+
+    @Test
+    void testOverflowBucketIsSharedByRefusedClients() {
+        // Given
+        RateLimitProperties.Limit limit = limit(2, Duration.ofMinutes(1));
+
+        // When
+        long first = rateLimiter.tryAcquireOverflow("ip:appointment-service", limit);
+        long second = rateLimiter.tryAcquireOverflow("ip:appointment-service", limit);
+        long third = rateLimiter.tryAcquireOverflow("ip:appointment-service", limit);
+
+        // Then
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > 0);
+        assertEquals(0, rateLimiter.size());
+    }
+
+    private static RateLimitProperties.Limit limit(long capacity, Duration period) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(period);
+        return limit;
+    }
+}
@@ -0,0 +1,91 @@
+package press.mizhifei.dentist.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import press.mizhifei.dentist.gateway.service.AnonymousSessionService.SessionInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FileSnapshotSessionStore
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class FileSnapshotSessionStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSnapshotIsRestoredByNewNode() {
+        // Given
+        Path snapshot = tempDir.resolve("sessions.json");
+        FileSnapshotSessionStore store = store(snapshot);
+        long now = System.currentTimeMillis();
+        store.save(SessionInfo.builder()
+                .sessionId("linked")
+                .authenticated(true)
+                .userId("42")
+                .roles("DENTIST")
+                .createdAt(now)
+                .lastAccessedAt(now)
+                .build()).block();
+
+        // When
+        store.destroy();
+        FileSnapshotSessionStore restarted = store(snapshot);
+        restarted.afterPropertiesSet();
+
+        // Then
+        SessionInfo restored = restarted.find("linked").block();
+        assertNotNull(restored);
+        assertTrue(restored.isAuthenticated());
+        assertEquals("42", restored.getUserId());
+        assertEquals("DENTIST", restored.getRoles());
+    }
+
+    @Test
+    void testExpiredSessionsAreNotRestored() throws Exception {
+        // Given
+        Path snapshot = tempDir.resolve("sessions.json");
+        long stale = System.currentTimeMillis() - TTL.toMillis() - 1_000;
+        new ObjectMapper().writeValue(snapshot.toFile(), new SessionInfo[] {
+                SessionInfo.builder().sessionId("stale").createdAt(stale).lastAccessedAt(stale).build()
+        });
+
+        // When
+        FileSnapshotSessionStore restarted = store(snapshot);
+        restarted.afterPropertiesSet();
+
+        // Then
+        assertNull(restarted.find("stale").block());
+    }
+
+    @Test
+    void testMissingSnapshotStartsEmpty() {
+        // Given
+        Path snapshot = tempDir.resolve("missing/sessions.json");
+
+        // When
+        FileSnapshotSessionStore store = store(snapshot);
+        store.afterPropertiesSet();
+        store.snapshot();
+
+        // Then
+        assertTrue(Files.exists(snapshot));
+    }
+
+    private static FileSnapshotSessionStore store(Path snapshot) {
+        BoundedSessionStore memory = new BoundedSessionStore(100, TTL, Duration.ofSeconds(1));
+        return new FileSnapshotSessionStore(memory, snapshot, TTL, new ObjectMapper());
+    }
+}
@@ -0,0 +1,94 @@
+package press.mizhifei.dentist.gateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import press.mizhifei.dentist.gateway.config.ResponseCacheProperties;
+import press.mizhifei.dentist.gateway.service.ResponseCache.CachedResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResponseCache
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class ResponseCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxSize(DataSize.ofBytes(1_000));
+        cache = new ResponseCache(properties);
+    }
+
+    @Test
+    void testStoredResponseIsServedWithStableEtag() {
+        // Given
+        byte[] body = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+        CachedResponse stored = cache.put("GET /api/clinic/list/all", "application/json", body, TTL);
+
+        // When
+        CachedResponse cached = cache.get("GET /api/clinic/list/all");
+
+        // Then
+        assertNotNull(cached);
+        assertArrayEquals(body, cached.getBody());
+        assertEquals("application/json", cached.getContentType());
+        assertEquals(stored.getEtag(), CachedResponse.etagOf(body.clone()));
+        assertTrue(cached.matches(stored.getEtag()));
+        assertTrue(cached.matches("\"other\", W/" + stored.getEtag()));
+        assertFalse(cached.matches("\"other\""));
+        assertFalse(cached.matches(null));
+    }
+
+    @Test
+    void testExpiredResponseIsMissed() {
+        // Given
+        cache.put("GET /api/clinic/list/all", null, new byte[10], Duration.ZERO);
+
+        // When & Then
+        assertNull(cache.get("GET /api/clinic/list/all"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.usedBytes());
+    }
+
+    @Test
+    void testLeastRecentlyUsedResponsesAreEvictedBeyondMemoryBound() {
+        // Given
+        cache.put("a", null, new byte[400], TTL);
+        cache.put("b", null, new byte[400], TTL);
+        cache.get("a");
+
+        // When
+        cache.put("c", null, new byte[400], TTL);
+
+        // Then
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertTrue(cache.usedBytes() <= 1_000);
+    }
+
+    @Test
+    void testReplacingResponseReleasesPreviousSize() {
+        // Given
+        cache.put("a", null, new byte[400], TTL);
+
+        // When
+        cache.put("a", null, new byte[100], TTL);
+
+        // Then
+        assertEquals(1, cache.size());
+        assertEquals(102, cache.usedBytes());
+    }
+}
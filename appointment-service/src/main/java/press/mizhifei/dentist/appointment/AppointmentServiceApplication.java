@@ -4,6 +4,10 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
+import press.mizhifei.dentist.cache.names.NameCacheController;
+import press.mizhifei.dentist.cache.names.NameCaches;
+import press.mizhifei.dentist.cache.names.UserNameResolver;
 
 /**
  *
@@ -15,6 +19,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
+@Import({NameCaches.class, NameCacheController.class, UserNameResolver.class})
 public class AppointmentServiceApplication {
 
     public static void main(String[] args) {
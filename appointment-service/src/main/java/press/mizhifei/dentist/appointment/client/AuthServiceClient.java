@@ -3,6 +3,7 @@ package press.mizhifei.dentist.appointment.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import press.mizhifei.dentist.cache.names.UserDirectoryClient;
 
 /**
  *
@@ -11,9 +12,9 @@ import org.springframework.web.bind.annotation.PathVariable;
  * @github https://github.com/zm377
  *
  */
-@FeignClient(name = "auth-service", path = "/auth")
-public interface AuthServiceClient {
+@FeignClient(name = "auth-service")
+public interface AuthServiceClient extends UserDirectoryClient {
     
-    @GetMapping("/user/{userId}/full-name")
+    @GetMapping("/auth/user/{userId}/full-name")
     String getUserFullName(@PathVariable("userId") Long userId);
 }
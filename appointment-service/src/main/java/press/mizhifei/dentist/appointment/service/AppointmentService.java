@@ -4,12 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import press.mizhifei.dentist.appointment.client.AuthServiceClient;
-import press.mizhifei.dentist.appointment.client.ClinicServiceClient;
+import press.mizhifei.dentist.appointment.client.ClinicNameResolver;
 import press.mizhifei.dentist.appointment.client.NotificationClient;
 import press.mizhifei.dentist.appointment.dto.*;
 import press.mizhifei.dentist.appointment.model.*;
 import press.mizhifei.dentist.appointment.repository.*;
+import press.mizhifei.dentist.cache.names.UserNameResolver;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -34,8 +34,8 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final DentistAvailabilityRepository availabilityRepository;
     private final NotificationClient notificationClient;
-    private final AuthServiceClient authServiceClient;
-    private final ClinicServiceClient clinicServiceClient;
+    private final UserNameResolver userNameResolver;
+    private final ClinicNameResolver clinicNameResolver;
     
     @Transactional
     public AppointmentResponse createAppointment(AppointmentRequest request) {
@@ -179,21 +179,21 @@ public class AppointmentService {
     public List<AppointmentResponse> getPatientAppointments(Long patientId) {
         List<Appointment> appointments = appointmentRepository
                 .findByPatientIdOrderByAppointmentDateDescStartTimeDesc(patientId);
-        return appointments.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(appointments);
     }
     
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getDentistAppointments(Long dentistId, LocalDate date) {
         List<Appointment> appointments = appointmentRepository
                 .findByDentistIdAndAppointmentDateOrderByStartTime(dentistId, date);
-        return appointments.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(appointments);
     }
     
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getClinicAppointments(Long clinicId, LocalDate date) {
         List<Appointment> appointments = appointmentRepository
                 .findByClinicIdAndAppointmentDateOrderByStartTime(clinicId, date);
-        return appointments.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(appointments);
     }
     
     // Additional methods for inter-service communication
@@ -201,14 +201,14 @@ public class AppointmentService {
     public List<AppointmentResponse> getLastCompletedAppointmentByPatientAndClinic(Long patientId, Long clinicId, LocalDate currentDate) {
         List<Appointment> appointments = appointmentRepository
                 .findLastCompletedAppointmentByPatientAndClinic(patientId, clinicId, currentDate);
-        return appointments.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(appointments);
     }
     
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getNextUpcomingAppointmentByPatientAndClinic(Long patientId, Long clinicId, LocalDate currentDate, LocalTime currentTime) {
         List<Appointment> appointments = appointmentRepository
                 .findNextUpcomingAppointmentByPatientAndClinic(patientId, clinicId, currentDate, currentTime);
-        return appointments.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(appointments);
     }
     
     @Transactional(readOnly = true)
@@ -296,7 +296,22 @@ public class AppointmentService {
         return toResponse(saved);
     }
 
+    private List<AppointmentResponse> toResponses(List<Appointment> appointments) {
+        Map<Long, String> userNames = resolveUserNames(appointments);
+        return appointments.stream()
+                .map(appointment -> toResponse(appointment, userNames))
+                .collect(Collectors.toList());
+    }
+
     private AppointmentResponse toResponse(Appointment appointment) {
+        return toResponse(appointment, resolveUserNames(List.of(appointment)));
+    }
+
+    private Map<Long, String> resolveUserNames(List<Appointment> appointments) {
+        return userNameResolver.resolve(appointments, Appointment::getPatientId, Appointment::getDentistId);
+    }
+
+    private AppointmentResponse toResponse(Appointment appointment, Map<Long, String> userNames) {
         AppointmentResponse response = AppointmentResponse.builder()
                 .id(appointment.getId())
                 .patientId(appointment.getPatientId())
@@ -320,28 +335,14 @@ public class AppointmentService {
                 .updatedAt(appointment.getUpdatedAt())
                 .build();
 
-        // Fetch names from user service
-        try {
-            response.setPatientName(authServiceClient.getUserFullName(appointment.getPatientId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch patient name for id {}: {}", appointment.getPatientId(), e.getMessage());
-            response.setPatientName("Patient " + appointment.getPatientId());
-        }
-
-        try {
-            response.setDentistName(authServiceClient.getUserFullName(appointment.getDentistId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch dentist name for id {}: {}", appointment.getDentistId(), e.getMessage());
-            response.setDentistName("Dr. Dentist " + appointment.getDentistId());
-        }
+        // Names resolved in one bulk call for the whole page
+        response.setPatientName(userNames.getOrDefault(appointment.getPatientId(), "Patient " + appointment.getPatientId()));
+        response.setDentistName(userNames.getOrDefault(appointment.getDentistId(), "Dr. Dentist " + appointment.getDentistId()));
 
         // Fetch clinic name
         if (appointment.getClinicId() != null) {
             try {
-                var clinicResponse = clinicServiceClient.getClinic(appointment.getClinicId());
-                if (clinicResponse.isSuccess() && clinicResponse.getDataObject() != null) {
-                    response.setClinicName(clinicResponse.getDataObject().getName());
-                }
+                response.setClinicName(clinicNameResolver.getClinicName(appointment.getClinicId()));
             } catch (Exception e) {
                 log.warn("Failed to fetch clinic name for id {}: {}", appointment.getClinicId(), e.getMessage());
                 response.setClinicName("Clinic " + appointment.getClinicId());
@@ -351,10 +352,7 @@ public class AppointmentService {
         // Fetch service name
         if (appointment.getServiceId() != null) {
             try {
-                var serviceResponse = clinicServiceClient.getService(appointment.getServiceId());
-                if (serviceResponse.isSuccess() && serviceResponse.getDataObject() != null) {
-                    response.setServiceName(serviceResponse.getDataObject().getName());
-                }
+                response.setServiceName(clinicNameResolver.getServiceName(appointment.getServiceId()));
             } catch (Exception e) {
                 log.warn("Failed to fetch service name for id {}: {}", appointment.getServiceId(), e.getMessage());
                 response.setServiceName("Service " + appointment.getServiceId());
@@ -389,21 +387,9 @@ public class AppointmentService {
         Map<String, String> templateVariables = new HashMap<>();
 
         // Fetch actual names from auth service
-        try {
-            String patientName = authServiceClient.getUserFullName(appointment.getPatientId());
-            templateVariables.put("patient_name", patientName);
-        } catch (Exception e) {
-            log.warn("Failed to fetch patient name for notification: {}", e.getMessage());
-            templateVariables.put("patient_name", "Patient");
-        }
-
-        try {
-            String dentistName = authServiceClient.getUserFullName(appointment.getDentistId());
-            templateVariables.put("dentist_name", dentistName);
-        } catch (Exception e) {
-            log.warn("Failed to fetch dentist name for notification: {}", e.getMessage());
-            templateVariables.put("dentist_name", "Dr. Dentist");
-        }
+        Map<Long, String> userNames = resolveUserNames(List.of(appointment));
+        templateVariables.put("patient_name", userNames.getOrDefault(appointment.getPatientId(), "Patient"));
+        templateVariables.put("dentist_name", userNames.getOrDefault(appointment.getDentistId(), "Dr. Dentist"));
 
         templateVariables.put("appointment_date", appointment.getAppointmentDate().toString());
         templateVariables.put("appointment_time", appointment.getStartTime().toString());
@@ -0,0 +1,93 @@
+package press.mizhifei.dentist.auth.benchmark;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import press.mizhifei.dentist.auth.security.JwtAlgorithm;
+import press.mizhifei.dentist.auth.security.JwtKeyProvider;
+import press.mizhifei.dentist.auth.security.JwtTokenProvider;
+import press.mizhifei.dentist.auth.security.UserPrincipal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of access tokens for each supported signature algorithm
+ * {@link #sign()} is the login path, {@link #verify()} a first-seen token with the verified-token cache disabled.
+ * The size of each algorithm's token, which every request carries in its Authorization header, is printed at setup.
+ *
+ * Build: mvn -pl auth-service-benchmarks -am package -DskipTests
+ * Run:   java -jar auth-service-benchmarks/target/benchmarks.jar JwtAlgorithmBenchmark
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JwtAlgorithmBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private JwtAlgorithm algorithm;
+
+    private JwtTokenProvider tokenProvider;
+    private UsernamePasswordAuthenticationToken authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(new JwtKeyProvider("", "", "dentistdss", algorithm), 0);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", TimeUnit.DAYS.toMillis(1));
+        authentication = authentication();
+        token = tokenProvider.generateToken(authentication);
+        System.out.printf("%n%s token: %d bytes%n", algorithm, token.length());
+    }
+
+    @Benchmark
+    public String sign() {
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String verify() {
+        return tokenProvider.parseVerified(token).map(Claims::getSubject).orElseThrow();
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication() {
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(42L)
+                .email("benchmark@example.com")
+                .authorities(List.of(new SimpleGrantedAuthority("DENTIST")))
+                .clinicId(7L)
+                .enabled(true)
+                .build();
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtAlgorithmBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+package press.mizhifei.dentist.auth.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import press.mizhifei.dentist.auth.security.JwtKeyProvider;
+import press.mizhifei.dentist.auth.security.JwtTokenProvider;
+import press.mizhifei.dentist.auth.security.UserPrincipal;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting the claims of an authenticated request's token, as done by the JWT filter
+ * {@link #parserPerCall()} is the former pattern of a new parser and a full RSA verification for the
+ * validity check and again for every claim read; {@link #sharedParser()} verifies once with the shared
+ * parser, and {@link #cachedParseVerified()} is a repeat request served from the verified-token cache.
+ *
+ * Build: mvn -pl auth-service-benchmarks -am package -DskipTests
+ * Run:   java -jar auth-service-benchmarks/target/benchmarks.jar JwtParsingBenchmark -prof gc
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JwtParsingBenchmark {
+
+    private JwtKeyProvider keyProvider;
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        keyProvider = new JwtKeyProvider(
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                "dentistdss");
+        uncachedProvider = provider(0);
+        cachedProvider = provider(10_000);
+        token = cachedProvider.generateToken(authentication());
+        cachedProvider.parseVerified(token);
+    }
+
+    @Benchmark
+    public String parserPerCall() {
+        Jwts.parser().verifyWith(keyProvider.getPublicKey()).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith(keyProvider.getPublicKey()).build().parseSignedClaims(token)
+                .getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String sharedParser() {
+        return uncachedProvider.parseVerified(token).map(Claims::getSubject).orElseThrow();
+    }
+
+    @Benchmark
+    public String cachedParseVerified() {
+        return cachedProvider.parseVerified(token).map(Claims::getSubject).orElseThrow();
+    }
+
+    private JwtTokenProvider provider(int verifiedCacheMaxSize) {
+        JwtTokenProvider provider = new JwtTokenProvider(keyProvider, verifiedCacheMaxSize);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", TimeUnit.DAYS.toMillis(1));
+        return provider;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication() {
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(42L)
+                .email("benchmark@example.com")
+                .authorities(List.of(new SimpleGrantedAuthority("DENTIST")))
+                .clinicId(7L)
+                .enabled(true)
+                .build();
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtParsingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -16,9 +16,10 @@ import java.lang.annotation.Target;
  * Usage examples:
  * - Single role: @RequireRoles(Role.SYSTEM_ADMIN)
  * - Multiple roles: @RequireRoles({Role.SYSTEM_ADMIN, Role.CLINIC_ADMIN})
+ * - Checked against the database: @RequireRoles(value = Role.SYSTEM_ADMIN, strict = true)
  * 
  * The annotation integrates with the existing JWT authentication system and validates user roles
- * before method execution using AOP.
+ * before method execution using AOP. Roles are read from the verified token unless strict is set.
  * 
  * @author zhifeimi
  * @email zm377@uowmail.edu.au
@@ -35,4 +36,12 @@ public @interface RequireRoles {
      * @return array of required roles
      */
     Role[] value();
+
+    /**
+     * Whether to check the user's current roles in the database instead of the roles claim of the token.
+     * Use for sensitive admin operations that must not be allowed on roles revoked since the token was issued.
+     *
+     * @return true to authorize against the database
+     */
+    boolean strict() default false;
 }
@@ -1,11 +1,13 @@
 package press.mizhifei.dentist.auth.aspect;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -18,14 +20,20 @@ import press.mizhifei.dentist.auth.model.User;
 import press.mizhifei.dentist.auth.repository.UserRepository;
 import press.mizhifei.dentist.auth.security.JwtTokenProvider;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * AOP Aspect for enforcing role-based access control using @RequireRoles annotation.
  * 
  * This aspect intercepts methods annotated with @RequireRoles and validates user roles
  * before method execution. It integrates with the existing JWT authentication system.
+ * Roles are read from the verified roles claim of the token; only methods marked strict
+ * load the user's current roles from the database.
  * 
  * @author zhifeimi
  * @email zm377@uowmail.edu.au
@@ -39,6 +47,7 @@ public class RoleAuthorizationAspect {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
+    private final ConcurrentMap<Method, Set<Role>> requiredRolesByMethod = new ConcurrentHashMap<>();
 
     /**
      * Around advice that intercepts methods annotated with @RequireRoles.
@@ -71,39 +80,46 @@ public class RoleAuthorizationAspect {
             }
 
             // Validate token and extract user email
-            if (!jwtTokenProvider.validateToken(jwt)) {
+            Claims claims = jwtTokenProvider.parseVerified(jwt).orElse(null);
+            if (claims == null) {
                 log.warn("Invalid JWT token for method: {}", joinPoint.getSignature().getName());
                 return ResponseEntity.status(401)
                         .body(ApiResponse.error("Invalid authentication token"));
             }
 
-            String userEmail = jwtTokenProvider.getEmailFromJWT(jwt);
+            String userEmail = claims.get("email", String.class);
             if (!StringUtils.hasText(userEmail)) {
                 log.warn("No email found in JWT token for method: {}", joinPoint.getSignature().getName());
                 return ResponseEntity.status(401)
                         .body(ApiResponse.error("Invalid authentication token"));
             }
 
-            // Get user and their roles from database
-            User user = userRepository.findByEmail(userEmail)
-                    .orElse(null);
-            
-            if (user == null) {
-                log.warn("User not found with email: {} for method: {}", userEmail, joinPoint.getSignature().getName());
-                return ResponseEntity.status(401)
-                        .body(ApiResponse.error("User not found"));
+            Set<Role> userRoles;
+            if (requireRoles.strict()) {
+                // Get user and their roles from database
+                User user = userRepository.findByEmail(userEmail)
+                        .orElse(null);
+
+                if (user == null) {
+                    log.warn("User not found with email: {} for method: {}", userEmail, joinPoint.getSignature().getName());
+                    return ResponseEntity.status(401)
+                            .body(ApiResponse.error("User not found"));
+                }
+                userRoles = user.getRoles();
+            } else {
+                userRoles = rolesFromClaims(claims);
             }
 
             // Check if user has any of the required roles
-            Role[] requiredRoles = requireRoles.value();
-            Set<Role> userRoles = user.getRoles();
-            
-            boolean hasRequiredRole = Arrays.stream(requiredRoles)
-                    .anyMatch(userRoles::contains);
+            Set<Role> requiredRoles = requiredRolesByMethod.computeIfAbsent(
+                    ((MethodSignature) joinPoint.getSignature()).getMethod(), method -> toEnumSet(requireRoles.value()));
+
+            boolean hasRequiredRole = userRoles.stream()
+                    .anyMatch(requiredRoles::contains);
 
             if (!hasRequiredRole) {
                 log.warn("User {} does not have required roles {} for method: {}. User roles: {}", 
-                        userEmail, Arrays.toString(requiredRoles), joinPoint.getSignature().getName(), userRoles);
+                        userEmail, requiredRoles, joinPoint.getSignature().getName(), userRoles);
                 return ResponseEntity.status(403)
                         .body(ApiResponse.error("Insufficient permissions"));
             }
@@ -121,6 +137,34 @@ public class RoleAuthorizationAspect {
         }
     }
 
+    /**
+     * Reads the roles claim of a verified token, ignoring role names this service does not know.
+     *
+     * @param claims the verified token claims
+     * @return the roles granted by the token
+     */
+    private Set<Role> rolesFromClaims(Claims claims) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        String rolesClaim = claims.get("roles", String.class);
+        if (!StringUtils.hasText(rolesClaim)) {
+            return roles;
+        }
+        for (String role : rolesClaim.split(",")) {
+            try {
+                roles.add(Role.fromString(role.trim()));
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring unknown role {} in JWT token", role);
+            }
+        }
+        return roles;
+    }
+
+    private static Set<Role> toEnumSet(Role[] roles) {
+        Set<Role> set = EnumSet.noneOf(Role.class);
+        set.addAll(Arrays.asList(roles));
+        return set;
+    }
+
     /**
      * Extracts JWT token from the Authorization header.
      * 
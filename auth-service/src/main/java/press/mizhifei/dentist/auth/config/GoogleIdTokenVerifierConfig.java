@@ -1,12 +1,16 @@
 package press.mizhifei.dentist.auth.config;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GoogleOAuthConstants;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import press.mizhifei.dentist.auth.security.CachingGoogleIdTokenVerifier;
+import press.mizhifei.dentist.auth.security.GoogleCertificateCache;
 
+import java.time.Duration;
 import java.util.Collections;
 
 /**
@@ -20,9 +24,21 @@ import java.util.Collections;
 public class GoogleIdTokenVerifierConfig {
 
     @Bean
-    public GoogleIdTokenVerifier googleIdTokenVerifier(@Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId) {
-        return new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), JacksonFactory.getDefaultInstance())
-                .setAudience(Collections.singletonList(clientId))
-                .build();
+    public GoogleCertificateCache googleCertificateCache(
+            @Value("${app.google.certificates.url:" + GoogleOAuthConstants.DEFAULT_PUBLIC_CERTS_ENCODED_URL + "}") String url,
+            @Value("${app.google.certificates.timeout:5s}") Duration timeout,
+            @Value("${app.google.certificates.refresh-ahead:10m}") Duration refreshAhead,
+            @Value("${app.google.certificates.default-max-age:5m}") Duration defaultMaxAge) {
+        return new GoogleCertificateCache(url, timeout, refreshAhead, defaultMaxAge);
+    }
+
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(@Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+                                                       GoogleCertificateCache googleCertificateCache,
+                                                       @Value("${app.google.verified-id-tokens.max-size:1000}") int memoMaxSize,
+                                                       @Value("${app.google.verified-id-tokens.ttl:2m}") Duration memoTtl) {
+        GoogleIdTokenVerifier.Builder builder = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), JacksonFactory.getDefaultInstance())
+                .setAudience(Collections.singletonList(clientId));
+        return new CachingGoogleIdTokenVerifier(builder, googleCertificateCache, memoMaxSize, memoTtl);
     }
 }
@@ -3,6 +3,8 @@ package press.mizhifei.dentist.auth.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import press.mizhifei.dentist.auth.dto.ApiResponse;
@@ -10,13 +12,16 @@ import press.mizhifei.dentist.auth.dto.AuthResponse;
 import press.mizhifei.dentist.auth.dto.ChangePasswordRequest;
 import press.mizhifei.dentist.auth.dto.LoginRequest;
 import press.mizhifei.dentist.auth.dto.OAuthLoginRequest;
+import press.mizhifei.dentist.auth.dto.RefreshTokenRequest;
 import press.mizhifei.dentist.auth.dto.SignUpClinicAdminRequest;
 import press.mizhifei.dentist.auth.dto.SignUpRequest;
 import press.mizhifei.dentist.auth.dto.SignUpStaffRequest;
 import press.mizhifei.dentist.auth.dto.UserResponse;
 import press.mizhifei.dentist.auth.dto.VerifyCodeRequest;
+import press.mizhifei.dentist.auth.security.PasswordHashingExecutor.PasswordHashingRejectedException;
 import press.mizhifei.dentist.auth.service.AuthService;
 import press.mizhifei.dentist.auth.service.OAuthUserService;
+import press.mizhifei.dentist.auth.service.RefreshTokenService;
 
 /**
  *
@@ -33,6 +38,7 @@ public class AuthController {
 
     private final AuthService authService;
     private final OAuthUserService oAuthUserService;
+    private final RefreshTokenService refreshTokenService;
 
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
@@ -74,11 +80,44 @@ public class AuthController {
         return ResponseEntity.ok(authService.verifyEmailByCode(verifyRequest.getEmail(), verifyRequest.getCode()));
     }
 
+    @PostMapping("/token/refresh")
+    public ResponseEntity<ApiResponse<AuthResponse>> refreshToken(@CookieValue(value = RefreshTokenService.REFRESH_TOKEN_COOKIE, required = false) String refreshTokenCookie,
+                                                                  @Valid @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        if (refreshTokenRequest == null && (refreshTokenCookie == null || refreshTokenCookie.isBlank())) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Refresh token is required"));
+        }
+        if (refreshTokenRequest != null) {
+            ApiResponse<AuthResponse> response = refreshTokenService.refresh(refreshTokenRequest.getRefreshToken());
+            return response.isSuccess()
+                    ? ResponseEntity.ok(response)
+                    : ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        // Cookie sessions get the rotated refresh token back as a cookie, never in the body
+        ApiResponse<AuthResponse> response = refreshTokenService.refresh(refreshTokenCookie);
+        if (!response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenService.clearedRefreshTokenCookie().toString())
+                    .body(response);
+        }
+        AuthResponse authResponse = response.getDataObject();
+        String rotated = authResponse.getRefreshToken();
+        authResponse.setRefreshToken(null);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, refreshTokenService.refreshTokenCookie(rotated).toString())
+                .body(response);
+    }
+
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<String>> logoutUser() {
-        // JWT is stateless, so we don't need to do anything on the server side
-        // The client should remove the token from local storage
-        return ResponseEntity.ok(ApiResponse.successMessage("User logged out successfully"));
+    public ResponseEntity<ApiResponse<String>> logoutUser(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                          @CookieValue(value = RefreshTokenService.REFRESH_TOKEN_COOKIE, required = false) String refreshTokenCookie,
+                                                          @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        // Revokes the refresh token and the access token, which the gateway then rejects until it expires
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        refreshTokenService.logout(accessToken, refreshTokenRequest != null ? refreshTokenRequest.getRefreshToken() : refreshTokenCookie);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, refreshTokenService.clearedRefreshTokenCookie().toString())
+                .body(ApiResponse.successMessage("User logged out successfully"));
     }
 
     @GetMapping("/me")
@@ -90,4 +129,11 @@ public class AuthController {
     public ResponseEntity<ApiResponse<String>> changePassword(@RequestBody ChangePasswordRequest changePasswordRequest) {
         return ResponseEntity.ok(authService.changePassword(changePasswordRequest));
     }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ApiResponse<?>> handleHashingRejected(PasswordHashingRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
 }
@@ -1,62 +1,153 @@
 package press.mizhifei.dentist.auth.controller;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import press.mizhifei.dentist.auth.security.JwtAlgorithm;
+import press.mizhifei.dentist.auth.security.JwtKey;
 import press.mizhifei.dentist.auth.security.JwtKeyProvider;
+import press.mizhifei.dentist.auth.security.JwtKeyRing;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECPoint;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Controller for exposing JSON Web Key (JWK) information
  * Following OAuth 2.0 standards for JWK exposure
- * 
+ * The key set is serialized once per key ring and served with Cache-Control and ETag,
+ * so verifiers can cache it and revalidate with If-None-Match.
+ *
  * @author zhifeimi
  * @email zm377@uowmail.edu.au
  * @github https://github.com/zm377
  */
 @RestController
 @RequestMapping("/auth/oauth2")
-@RequiredArgsConstructor
 public class JwkController {
 
     private final JwtKeyProvider jwtKeyProvider;
+    private final ObjectMapper objectMapper;
+    private final CacheControl cacheControl;
+
+    private volatile Jwks jwks;
+
+    public JwkController(JwtKeyProvider jwtKeyProvider, ObjectMapper objectMapper,
+                         @Value("${jwt.jwks.cache-max-age:5m}") Duration cacheMaxAge) {
+        this.jwtKeyProvider = jwtKeyProvider;
+        this.objectMapper = objectMapper;
+        this.cacheControl = CacheControl.maxAge(cacheMaxAge).cachePublic();
+    }
 
     /**
      * Exposes the JSON Web Key Set (JWKS) endpoint
-     * This endpoint provides public key information for JWT verification
-     * 
+     * This endpoint provides public key information for JWT verification,
+     * the active signing key first, followed by the retired keys still accepted
+     *
      * @return JWKS response containing public key information
      */
     @GetMapping("/jwks")
-    public ResponseEntity<Map<String, Object>> getJwks() {
-        RSAPublicKey publicKey = (RSAPublicKey) jwtKeyProvider.getPublicKey();
-        
-        Map<String, Object> jwk = new HashMap<>();
-        jwk.put("kty", "RSA");
+    public ResponseEntity<String> getJwks() {
+        Jwks current = currentJwks();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .eTag(current.etag())
+                .body(current.json());
+    }
+
+    private Jwks currentJwks() {
+        JwtKeyRing keyRing = jwtKeyProvider.getKeyRing();
+        Jwks current = jwks;
+        if (current == null || current.keyRing() != keyRing) {
+            current = serialize(keyRing);
+            jwks = current;
+        }
+        return current;
+    }
+
+    private Jwks serialize(JwtKeyRing keyRing) {
+        List<Map<String, Object>> keys = keyRing.keys().stream()
+                .map(this::toJwk)
+                .toList();
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("keys", keys));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+            return new Jwks(keyRing, json, etag);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to serialize JWK set", e);
+        }
+    }
+
+    private Map<String, Object> toJwk(JwtKey key) {
+        JwtAlgorithm algorithm = key.algorithm();
+
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", switch (algorithm) {
+            case RS256 -> "RSA";
+            case ES256 -> "EC";
+            case EdDSA -> "OKP";
+        });
         jwk.put("use", "sig");
-        jwk.put("alg", "RS256");
-        jwk.put("kid", jwtKeyProvider.getKeyId());
-        
-        // Convert RSA public key components to Base64URL
-        jwk.put("n", base64UrlEncode(publicKey.getModulus().toByteArray()));
-        jwk.put("e", base64UrlEncode(publicKey.getPublicExponent().toByteArray()));
-        
-        Map<String, Object> jwks = new HashMap<>();
-        jwks.put("keys", List.of(jwk));
-        
-        return ResponseEntity.ok(jwks);
+        jwk.put("alg", algorithm.name());
+        jwk.put("kid", key.keyId());
+
+        switch (algorithm) {
+            case RS256 -> {
+                // Convert RSA public key components to Base64URL
+                RSAPublicKey publicKey = (RSAPublicKey) key.publicKey();
+                jwk.put("n", base64UrlEncode(publicKey.getModulus().toByteArray()));
+                jwk.put("e", base64UrlEncode(publicKey.getPublicExponent().toByteArray()));
+            }
+            case ES256 -> {
+                // P-256 coordinates are fixed-length 32 byte big-endian integers
+                ECPoint point = ((ECPublicKey) key.publicKey()).getW();
+                jwk.put("crv", "P-256");
+                jwk.put("x", base64UrlEncode(point.getAffineX(), 32));
+                jwk.put("y", base64UrlEncode(point.getAffineY(), 32));
+            }
+            case EdDSA -> {
+                // The raw Ed25519 public key is the last 32 bytes of its X.509 encoding
+                byte[] encoded = key.publicKey().getEncoded();
+                jwk.put("crv", "Ed25519");
+                jwk.put("x", Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+            }
+        }
+        return jwk;
+    }
+
+    /**
+     * Converts an unsigned integer to Base64URL encoding of exactly the given length (without padding)
+     */
+    private String base64UrlEncode(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, fixed, length - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
     }
 
     /**
      * Converts byte array to Base64URL encoding (without padding)
-     * 
+     *
      * @param bytes the byte array to encode
      * @return Base64URL encoded string
      */
@@ -66,10 +157,13 @@ public class JwkController {
         while (start < bytes.length && bytes[start] == 0) {
             start++;
         }
-        
+
         byte[] trimmed = new byte[bytes.length - start];
         System.arraycopy(bytes, start, trimmed, 0, trimmed.length);
-        
+
         return Base64.getUrlEncoder().withoutPadding().encodeToString(trimmed);
     }
+
+    private record Jwks(JwtKeyRing keyRing, String json, String etag) {
+    }
 }
@@ -0,0 +1,51 @@
+package press.mizhifei.dentist.auth.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import press.mizhifei.dentist.auth.service.TokenRevocationService;
+import press.mizhifei.dentist.auth.service.TokenRevocationService.FilterSnapshot;
+
+import java.util.Map;
+
+/**
+ * Publishes access token revocations to the gateway
+ * The gateway polls the Bloom filter, revalidating with If-None-Match, and asks for the exact state of a token id
+ * only when the filter reports it as possibly revoked.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@RestController
+@RequestMapping("/auth/oauth2/revocations")
+@RequiredArgsConstructor
+public class TokenRevocationController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    @GetMapping
+    public ResponseEntity<String> getRevocationFilter(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        FilterSnapshot filter = tokenRevocationService.getFilter();
+        if (filter.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(filter.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(filter.etag())
+                .body(filter.json());
+    }
+
+    @GetMapping("/{jti}")
+    public ResponseEntity<Map<String, Boolean>> isRevoked(@PathVariable String jti) {
+        return ResponseEntity.ok(Map.of("revoked", tokenRevocationService.isRevoked(jti)));
+    }
+}
@@ -0,0 +1,44 @@
+package press.mizhifei.dentist.auth.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import press.mizhifei.dentist.auth.service.UserService;
+import press.mizhifei.dentist.cache.names.UserDirectoryClient;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * User directory lookups for the other services
+ * Mapped outside /auth, so the gateway does not route it and names cannot be harvested from outside.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@RestController
+@RequestMapping("/internal/user")
+@RequiredArgsConstructor
+public class UserController {
+
+    static final int MAX_IDS = UserDirectoryClient.MAX_IDS_PER_CALL;
+
+    private final UserService userService;
+
+    /**
+     * Full names of the given users, one query for the whole page of ids
+     * @param ids comma separated user ids, at most {@value #MAX_IDS}
+     * @return full name by user id; unknown ids are left out
+     */
+    @GetMapping("/names")
+    public ResponseEntity<Map<Long, String>> getUserFullNames(@RequestParam("ids") Set<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.getUserFullNames(ids));
+    }
+}
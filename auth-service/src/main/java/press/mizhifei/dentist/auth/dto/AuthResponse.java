@@ -20,5 +20,10 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
     private String accessToken;
     private String tokenType;
+    /**
+     * Lifetime of the access token in seconds
+     */
+    private Long expiresIn;
+    private String refreshToken;
     private UserResponse user;
 }
@@ -0,0 +1,31 @@
+package press.mizhifei.dentist.auth.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import press.mizhifei.dentist.auth.model.RevokedAccessToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ *
+ */
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+    @Query("SELECT r.jti FROM RevokedAccessToken r WHERE r.expiresAt > :now")
+    List<String> findUnexpiredJtis(@Param("now") LocalDateTime now);
+
+    boolean existsByJtiAndExpiresAtAfter(String jti, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedAccessToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
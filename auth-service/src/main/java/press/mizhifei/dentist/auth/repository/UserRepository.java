@@ -8,6 +8,7 @@ import press.mizhifei.dentist.auth.model.User;
 import press.mizhifei.dentist.auth.model.AuthProvider;
 import press.mizhifei.dentist.auth.model.Role;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +37,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE u.clinicId = :clinicId")
     List<User> findByClinicId(@Param("clinicId") Long clinicId);
+
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName FROM User u WHERE u.id IN :ids")
+    List<UserName> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Name columns of a user, read without loading the entity and its roles
+     */
+    interface UserName {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+    }
 }
@@ -0,0 +1,92 @@
+package press.mizhifei.dentist.auth.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import press.mizhifei.dentist.cache.BoundedTtlCache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.time.Duration;
+
+/**
+ * Google ID token verifier reading its keys from a {@link GoogleCertificateCache} and remembering verified tokens
+ * Audience, issuer and expiry are checked as usual. A token verified before is served from a short-lived memo keyed
+ * by its SHA-256 digest, so front-end retries of the same sign-in skip the signature check; entries never outlive
+ * the token itself.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class CachingGoogleIdTokenVerifier extends GoogleIdTokenVerifier {
+
+    private final GoogleCertificateCache certificateCache;
+    private final BoundedTtlCache<ByteBuffer, GoogleIdToken> verified;
+    private final long memoTtlMillis;
+
+    public CachingGoogleIdTokenVerifier(GoogleIdTokenVerifier.Builder builder, GoogleCertificateCache certificateCache,
+                                        int memoMaxSize, Duration memoTtl) {
+        super(builder);
+        this.certificateCache = certificateCache;
+        this.verified = new BoundedTtlCache<>(memoMaxSize, () -> getClock().currentTimeMillis());
+        this.memoTtlMillis = memoTtl.toMillis();
+    }
+
+    @Override
+    public GoogleIdToken verify(String idTokenString) throws GeneralSecurityException, IOException {
+        if (!verified.isEnabled()) {
+            return super.verify(idTokenString);
+        }
+        ByteBuffer key = digest(idTokenString);
+        GoogleIdToken cached = verified.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long now = verified.now();
+        GoogleIdToken idToken = super.verify(idTokenString);
+        if (idToken != null && idToken.getPayload().getExpirationTimeSeconds() != null) {
+            long tokenExpiresAt = idToken.getPayload().getExpirationTimeSeconds() * 1000;
+            verified.put(key, idToken, Math.min(tokenExpiresAt, now + memoTtlMillis));
+        }
+        return idToken;
+    }
+
+    @Override
+    public boolean verify(GoogleIdToken googleIdToken) throws GeneralSecurityException, IOException {
+        if (!verifyPayload(googleIdToken)) {
+            return false;
+        }
+        if (verifySignature(googleIdToken)) {
+            return true;
+        }
+        // Signed with a key published after the cached certificates were fetched
+        return certificateCache.refreshIfStale() && verifySignature(googleIdToken);
+    }
+
+    private boolean verifySignature(GoogleIdToken googleIdToken) throws GeneralSecurityException, IOException {
+        for (PublicKey publicKey : certificateCache.getPublicKeys()) {
+            if (googleIdToken.verifySignature(publicKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getMemoSize() {
+        return verified.size();
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
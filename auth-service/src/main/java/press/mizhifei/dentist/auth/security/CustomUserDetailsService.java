@@ -21,6 +21,7 @@ import press.mizhifei.dentist.auth.repository.UserRepository;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     @Transactional
@@ -31,8 +32,15 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
-    @Transactional
+    /**
+     * Loads the principal of an authenticated request, served from the principal cache when possible
+     * Not transactional, so a cache hit does not take a database connection; roles are fetched eagerly.
+     */
     public UserDetails loadUserById(Long id) {
+        return userPrincipalCache.get(id, this::loadFromDatabase);
+    }
+
+    private UserPrincipal loadFromDatabase(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id : " + id));
 
@@ -0,0 +1,160 @@
+package press.mizhifei.dentist.auth.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Google's ID token signing certificates, refreshed in the background ahead of their expiry
+ * The certificates are kept for the Cache-Control max-age (less Age) the endpoint sends with them; a scheduled check
+ * refetches them refresh-ahead before that, so sign-ins read the current keys without ever waiting on the endpoint.
+ * Only a cold start, or a cache left expired by failed refreshes, loads them on the caller's thread.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+public class GoogleCertificateCache {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+    private static final TypeReference<Map<String, String>> CERTIFICATES = new TypeReference<>() {
+    };
+
+    private final HttpClient httpClient;
+    private final URI certificatesUri;
+    private final Duration timeout;
+    private final long refreshAheadMillis;
+    private final long defaultMaxAgeMillis;
+    private final LongSupplier clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Object loadLock = new Object();
+    private volatile Certificates certificates;
+
+    public GoogleCertificateCache(String certificatesUrl, Duration timeout, Duration refreshAhead, Duration defaultMaxAge) {
+        this(certificatesUrl, timeout, refreshAhead, defaultMaxAge, System::currentTimeMillis);
+    }
+
+    GoogleCertificateCache(String certificatesUrl, Duration timeout, Duration refreshAhead, Duration defaultMaxAge,
+                           LongSupplier clock) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.certificatesUri = URI.create(certificatesUrl);
+        this.timeout = timeout;
+        this.refreshAheadMillis = refreshAhead.toMillis();
+        this.defaultMaxAgeMillis = defaultMaxAge.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * @return the current signing keys, loaded on this thread only if none are cached or they have expired
+     */
+    public List<PublicKey> getPublicKeys() throws IOException, GeneralSecurityException {
+        Certificates current = certificates;
+        if (current != null && current.expiresAt() > clock.getAsLong()) {
+            return current.keys();
+        }
+        synchronized (loadLock) {
+            current = certificates;
+            if (current == null || current.expiresAt() <= clock.getAsLong()) {
+                current = load();
+            }
+            return current.keys();
+        }
+    }
+
+    /**
+     * Refetches the certificates if they expire within the refresh-ahead window; failures keep the current ones
+     */
+    @Scheduled(fixedDelayString = "${app.google.certificates.refresh-check-interval:30s}")
+    public void refreshIfDue() {
+        Certificates current = certificates;
+        if (current != null && current.expiresAt() - refreshAheadMillis > clock.getAsLong()) {
+            return;
+        }
+        try {
+            synchronized (loadLock) {
+                load();
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            log.warn("Failed to refresh Google certificates from {}: {}", certificatesUri, e.getMessage());
+        }
+    }
+
+    /**
+     * Refetches the certificates now, for a token signed by a key that is not cached yet; at most once a minute
+     * @return whether new certificates were loaded
+     */
+    public boolean refreshIfStale() throws IOException, GeneralSecurityException {
+        synchronized (loadLock) {
+            Certificates current = certificates;
+            if (current != null && clock.getAsLong() - current.fetchedAt() < Duration.ofMinutes(1).toMillis()) {
+                return false;
+            }
+            load();
+            return true;
+        }
+    }
+
+    public long getExpirationTimeMillis() {
+        Certificates current = certificates;
+        return current != null ? current.expiresAt() : 0;
+    }
+
+    private Certificates load() throws IOException, GeneralSecurityException {
+        HttpRequest request = HttpRequest.newBuilder(certificatesUri).timeout(timeout).GET().build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching Google certificates", e);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Google certificates endpoint returned " + response.statusCode());
+        }
+
+        CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        List<PublicKey> keys = new ArrayList<>();
+        for (String pem : objectMapper.readValue(response.body(), CERTIFICATES).values()) {
+            keys.add(factory.generateCertificate(new ByteArrayInputStream(pem.getBytes(StandardCharsets.US_ASCII)))
+                    .getPublicKey());
+        }
+
+        long now = clock.getAsLong();
+        Certificates loaded = new Certificates(List.copyOf(keys), now, now + maxAgeMillis(response));
+        certificates = loaded;
+        log.debug("Loaded {} Google certificates, valid for {}s", keys.size(), (loaded.expiresAt() - now) / 1000);
+        return loaded;
+    }
+
+    private long maxAgeMillis(HttpResponse<?> response) {
+        Matcher maxAge = MAX_AGE.matcher(response.headers().firstValue("Cache-Control").orElse(""));
+        if (!maxAge.find()) {
+            return defaultMaxAgeMillis;
+        }
+        long age = response.headers().firstValue("Age").map(Long::parseLong).orElse(0L);
+        return Math.max(0, Long.parseLong(maxAge.group(1)) - age) * 1000;
+    }
+
+    private record Certificates(List<PublicKey> keys, long fetchedAt, long expiresAt) {
+    }
+}
@@ -0,0 +1,43 @@
+package press.mizhifei.dentist.auth.security;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+
+/**
+ * One key of the JWT key ring
+ * The active key has a private key and signs new tokens; retired keys only verify tokens issued before a rotation,
+ * until {@code verifyUntil} if set.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public record JwtKey(String keyId, PublicKey publicKey, PrivateKey privateKey, Instant createdAt, Instant verifyUntil) {
+
+    public static JwtKey signing(String keyId, PublicKey publicKey, PrivateKey privateKey, Instant createdAt) {
+        return new JwtKey(keyId, publicKey, privateKey, createdAt, null);
+    }
+
+    public static JwtKey verification(String keyId, PublicKey publicKey, Instant createdAt) {
+        return new JwtKey(keyId, publicKey, null, createdAt, null);
+    }
+
+    /**
+     * @return this key without its private key, accepted for verification until the given instant
+     */
+    public JwtKey retire(Instant until) {
+        return new JwtKey(keyId, publicKey, null, createdAt, until);
+    }
+
+    /**
+     * @return the algorithm tokens signed with this key use, derived from the key type
+     */
+    public JwtAlgorithm algorithm() {
+        return JwtAlgorithm.of(publicKey);
+    }
+
+    public boolean canVerifyAt(Instant now) {
+        return verifyUntil == null || verifyUntil.isAfter(now);
+    }
+}
@@ -0,0 +1,70 @@
+package press.mizhifei.dentist.auth.security;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the JWT keys: the active signing key followed by the retired verification keys
+ * A rotation replaces the whole snapshot, so readers such as the JWKS endpoint can cache anything derived from it
+ * for as long as they hold the same instance.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public final class JwtKeyRing {
+
+    private final JwtKey active;
+    private final Map<String, JwtKey> byKeyId;
+
+    public JwtKeyRing(JwtKey active, List<JwtKey> retired) {
+        if (active.privateKey() == null) {
+            throw new IllegalArgumentException("Active JWT key " + active.keyId() + " has no private key");
+        }
+        Map<String, JwtKey> keys = new LinkedHashMap<>();
+        keys.put(active.keyId(), active);
+        for (JwtKey key : retired) {
+            keys.putIfAbsent(key.keyId(), key);
+        }
+        this.active = active;
+        this.byKeyId = keys;
+    }
+
+    public JwtKey active() {
+        return active;
+    }
+
+    /**
+     * @return every key, active first, in the order they are published
+     */
+    public List<JwtKey> keys() {
+        return List.copyOf(byKeyId.values());
+    }
+
+    /**
+     * @param keyId the key id of a token header, or null for tokens issued without one
+     * @return the key verifying the token, or null if unknown or no longer accepted
+     */
+    public JwtKey find(String keyId, Instant now) {
+        JwtKey key = keyId == null ? active : byKeyId.get(keyId);
+        return key != null && key.canVerifyAt(now) ? key : null;
+    }
+
+    /**
+     * @return a ring signing with the new key, keeping the current active key for verification until the given instant
+     *         and dropping retired keys that are no longer accepted
+     */
+    public JwtKeyRing rotate(JwtKey next, Instant retireUntil, Instant now) {
+        List<JwtKey> retired = new ArrayList<>();
+        retired.add(active.retire(retireUntil));
+        for (JwtKey key : byKeyId.values()) {
+            if (key != active && key.canVerifyAt(now)) {
+                retired.add(key);
+            }
+        }
+        return new JwtKeyRing(next, retired);
+    }
+}
@@ -2,16 +2,16 @@ package press.mizhifei.dentist.auth.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.SignatureException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.security.PrivateKey;
-import java.security.PublicKey;
+import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -23,16 +23,33 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtTokenProvider {
 
     private final JwtKeyProvider jwtKeyProvider;
+    private final JwtParser jwtParser;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
 
+    public JwtTokenProvider(JwtKeyProvider jwtKeyProvider,
+                            @Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheMaxSize) {
+        this.jwtKeyProvider = jwtKeyProvider;
+        // Immutable and thread-safe, so one parser serves every request; the key is looked up by the token's key id
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return jwtKeyProvider.findVerificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+        this.verifiedTokenCache = new VerifiedTokenCache(verifiedCacheMaxSize);
+    }
+
     /**
-     * Generates a JWT token for the authenticated user
+     * Generates a short-lived access token for the authenticated user
+     * Each token carries a random id (jti), so it can be revoked before it expires.
      * @param authentication the authentication object containing user details
      * @return the JWT token as a string
      */
@@ -46,44 +63,36 @@ public class JwtTokenProvider {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
+        JwtKey signingKey = jwtKeyProvider.getKeyRing().active();
         return Jwts.builder()
+                .header().keyId(signingKey.keyId()).and()
+                .id(UUID.randomUUID().toString())
                 .subject(userPrincipal.getId().toString())
                 .claim("email", userPrincipal.getEmail())
                 .claim("roles", authorities)
                 .claim("clinicId", userPrincipal.getClinicId())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(jwtKeyProvider.getPrivateKey())
+                .signWith(signingKey.privateKey(), signingKey.algorithm().getSignatureAlgorithm())
                 .compact();
     }
 
     /**
-     * Extracts the user ID from a JWT token
-     * @param token the JWT token
-     * @return the user ID
+     * @return the lifetime of the access tokens in milliseconds
      */
-    public String getUserIdFromJWT(String token) {
-        Jws<Claims> claimsJws = Jwts.parser()
-                .verifyWith(jwtKeyProvider.getPublicKey())
-                .build()
-                .parseSignedClaims(token);
-
-        Claims claims = claimsJws.getPayload();
-        return claims.getSubject();
+    public long getExpirationInMs() {
+        return jwtExpirationInMs;
     }
 
     /**
-     * Validates a JWT token
-     * @param authToken the token to validate
-     * @return true if the token is valid, false otherwise
+     * Verifies a JWT token once and returns its claims
+     * Recently verified tokens are served from a cache keyed by the token digest until they expire.
+     * @param token the JWT token
+     * @return the verified claims, or empty if the token is invalid or expired
      */
-    public boolean validateToken(String authToken) {
+    public Optional<Claims> parseVerified(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(jwtKeyProvider.getPublicKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return Optional.of(verify(token));
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -95,7 +104,25 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Extracts the user ID from a JWT token
+     * @param token the JWT token
+     * @return the user ID
+     */
+    public String getUserIdFromJWT(String token) {
+        return verify(token).getSubject();
+    }
+
+    /**
+     * Validates a JWT token
+     * @param authToken the token to validate
+     * @return true if the token is valid, false otherwise
+     */
+    public boolean validateToken(String authToken) {
+        return parseVerified(authToken).isPresent();
     }
 
     /**
@@ -104,13 +131,7 @@ public class JwtTokenProvider {
      * @return the email
      */
     public String getEmailFromJWT(String token) {
-        Jws<Claims> claimsJws = Jwts.parser()
-                .verifyWith(jwtKeyProvider.getPublicKey())
-                .build()
-                .parseSignedClaims(token);
-
-        Claims claims = claimsJws.getPayload();
-        return claims.get("email", String.class);
+        return verify(token).get("email", String.class);
     }
 
     /**
@@ -119,12 +140,18 @@ public class JwtTokenProvider {
      * @return the roles as a comma-separated string
      */
     public String getRolesFromJWT(String token) {
-        Jws<Claims> claimsJws = Jwts.parser()
-                .verifyWith(jwtKeyProvider.getPublicKey())
-                .build()
-                .parseSignedClaims(token);
+        return verify(token).get("roles", String.class);
+    }
 
-        Claims claims = claimsJws.getPayload();
-        return claims.get("roles", String.class);
+    private Claims verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        Claims claims = verifiedTokenCache.get(token);
+        if (claims == null) {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+            verifiedTokenCache.put(token, claims);
+        }
+        return claims;
     }
 }
@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -16,6 +17,7 @@ import press.mizhifei.dentist.auth.dto.ApiResponse;
 import press.mizhifei.dentist.auth.dto.AuthResponse;
 import press.mizhifei.dentist.auth.dto.OAuthLoginRequest;
 import press.mizhifei.dentist.auth.service.OAuthUserService;
+import press.mizhifei.dentist.auth.service.RefreshTokenService;
 
 import java.io.IOException;
 import java.util.List;
@@ -35,6 +37,7 @@ import java.util.List;
 public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
 
     private final OAuthUserService oAuthUserService;
+    private final RefreshTokenService refreshTokenService;
 
     @Value("${app.oauth2.authorizedRedirectUris:http://localhost:3000/oauth2/redirect,https://dentist.mizhifei.press/oauth2/redirect}")
     private List<String> authorizedRedirectUris;
@@ -79,15 +82,18 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
                 return;
             }
 
-            String token = authResponseApi.getDataObject().getAccessToken();
+            AuthResponse authResponse = authResponseApi.getDataObject();
             // Use the first configured redirect URI as the target
             // In a real app, you might get this from the 'state' parameter or other means
             String targetUrl = authorizedRedirectUris.get(0);
             String redirectUrl = UriComponentsBuilder.fromUriString(targetUrl)
-                    .queryParam("token", token)
+                    .queryParam("token", authResponse.getAccessToken())
                     .build().toUriString();
+            // The refresh token stays out of the URL, where it would end up in browser history, logs and Referer
+            response.addHeader(HttpHeaders.SET_COOKIE,
+                    refreshTokenService.refreshTokenCookie(authResponse.getRefreshToken()).toString());
 
-            log.info("Redirecting to: {}", redirectUrl);
+            log.info("Redirecting to: {}", targetUrl);
             getRedirectStrategy().sendRedirect(request, response, redirectUrl);
 
         } catch (Exception e) {
@@ -0,0 +1,116 @@
+package press.mizhifei.dentist.auth.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool running password checks and hashes off the servlet request threads
+ * BCrypt is CPU bound, so at most one check per thread runs at a time and only queue-capacity more may wait;
+ * beyond that {@link #execute(Supplier)} fails fast with {@link PasswordHashingRejectedException} instead of
+ * letting a login burst occupy the whole Tomcat pool. Hash latency, queue depth and rejections are published as metrics.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final LongAdder rejections = new LongAdder();
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${app.login.hashing-threads:0}") int threads,
+                                   @Value("${app.login.hashing-queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.password.hashing")
+                .description("Time spent checking or hashing a password, excluding the queue wait")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.queue", executor, pool -> pool.getQueue().size())
+                .description("Password checks waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks currently running")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.password.hashing.rejected", rejections, LongAdder::sum)
+                .description("Password checks rejected because the hashing queue was full")
+                .register(meterRegistry);
+        log.info("Password hashing pool with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Runs a password check or hash on the hashing pool and waits for its result
+     * @param task the check, e.g. an AuthenticationManager call
+     * @return the task's result
+     * @throws PasswordHashingRejectedException if the hashing queue is full
+     */
+    public <T> T execute(Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.record(task));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new PasswordHashingRejectedException();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password check", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Thrown when the hashing queue is full; the caller should answer 503 and let the client retry
+     */
+    public static class PasswordHashingRejectedException extends RuntimeException {
+
+        public PasswordHashingRejectedException() {
+            super("Too many concurrent logins, please try again shortly");
+        }
+    }
+}
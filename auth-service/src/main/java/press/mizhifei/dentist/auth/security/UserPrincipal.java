@@ -1,5 +1,6 @@
 package press.mizhifei.dentist.auth.security;
 
+import io.jsonwebtoken.Claims;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,7 +9,9 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import press.mizhifei.dentist.auth.model.User;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -54,6 +57,32 @@ public class UserPrincipal implements UserDetails {
                 .build();
     }
 
+    /**
+     * Builds the principal from verified token claims alone, without loading the user
+     * Only id, email, roles and clinic id are known; account flags are taken as valid for the token's lifetime.
+     */
+    public static UserPrincipal fromClaims(Claims claims) {
+        String roles = claims.get("roles", String.class);
+        Collection<GrantedAuthority> authorities = roles == null || roles.isBlank()
+                ? List.of()
+                : Arrays.stream(roles.split(","))
+                        .map(String::trim)
+                        .filter(role -> !role.isEmpty())
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+
+        return UserPrincipal.builder()
+                .id(Long.valueOf(claims.getSubject()))
+                .email(claims.get("email", String.class))
+                .authorities(authorities)
+                .clinicId(claims.get("clinicId", Long.class))
+                .enabled(true)
+                .accountNonExpired(true)
+                .credentialsNonExpired(true)
+                .accountNonLocked(true)
+                .build();
+    }
+
     @Override
     public String getUsername() {
         return email;
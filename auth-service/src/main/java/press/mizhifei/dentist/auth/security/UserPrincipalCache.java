@@ -0,0 +1,85 @@
+package press.mizhifei.dentist.auth.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import press.mizhifei.dentist.cache.BoundedTtlCache;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, TTL-expiring cache of user principals by user id, so authenticated requests skip the user and roles query
+ * Services that change a user's roles, enabled flag, credentials or names must call {@link #invalidate(Long)}.
+ * Inside a transaction the entry is dropped again after commit, and a load that raced with an invalidation
+ * is not cached, so a principal read before the change cannot outlive it.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class UserPrincipalCache {
+
+    private final BoundedTtlCache<Long, UserPrincipal> entries;
+    private final long ttlMillis;
+
+    public UserPrincipalCache(@Value("${app.principal.cache-max-size:10000}") int maxSize,
+                              @Value("${app.principal.cache-ttl:5m}") Duration ttl) {
+        this(maxSize, ttl, System::currentTimeMillis);
+    }
+
+    UserPrincipalCache(int maxSize, Duration ttl, LongSupplier clock) {
+        this.entries = new BoundedTtlCache<>(maxSize, clock);
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Returns the cached principal of the user, loading and caching it on a miss or after expiry
+     * @param userId the user id
+     * @param loader loads the principal from the database
+     * @return the principal
+     */
+    public UserPrincipal get(Long userId, Function<Long, UserPrincipal> loader) {
+        if (!entries.isEnabled() || ttlMillis <= 0) {
+            return loader.apply(userId);
+        }
+        UserPrincipal cached = entries.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long now = entries.now();
+        long stamp = entries.invalidationStamp();
+        UserPrincipal principal = loader.apply(userId);
+        entries.put(userId, principal, now + ttlMillis, stamp);
+        return principal;
+    }
+
+    /**
+     * Drops the cached principal of a user whose roles, enabled flag, credentials or names changed
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        entries.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.invalidate(userId);
+                }
+            });
+        }
+        log.debug("Invalidated cached principal of user {}", userId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
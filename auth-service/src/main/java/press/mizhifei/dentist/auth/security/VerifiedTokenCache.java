@@ -0,0 +1,63 @@
+package press.mizhifei.dentist.auth.security;
+
+import io.jsonwebtoken.Claims;
+import press.mizhifei.dentist.cache.BoundedTtlCache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of recently verified tokens, so a token seen again skips the RSA signature check
+ * Entries are keyed by the SHA-256 digest of the token, so raw tokens are never kept in memory,
+ * and are only served until the token's own expiry.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class VerifiedTokenCache {
+
+    private final BoundedTtlCache<ByteBuffer, Claims> entries;
+
+    public VerifiedTokenCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maxSize, LongSupplier clock) {
+        this.entries = new BoundedTtlCache<>(maxSize, clock);
+    }
+
+    /**
+     * @return the claims of the token if it was verified before and has not expired, otherwise null
+     */
+    public Claims get(String token) {
+        return entries.isEnabled() ? entries.get(digest(token)) : null;
+    }
+
+    /**
+     * Remembers the claims of a token whose signature was verified; tokens without expiry are not cached
+     */
+    public void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (!entries.isEnabled() || expiration == null) {
+            return;
+        }
+        entries.put(digest(token), claims, expiration.getTime());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
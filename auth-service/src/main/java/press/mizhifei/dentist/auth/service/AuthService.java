@@ -27,8 +27,10 @@ import press.mizhifei.dentist.auth.model.Role;
 import press.mizhifei.dentist.auth.model.User;
 import press.mizhifei.dentist.auth.repository.ClinicRepository;
 import press.mizhifei.dentist.auth.repository.UserRepository;
-import press.mizhifei.dentist.auth.security.JwtTokenProvider;
+import press.mizhifei.dentist.auth.security.PasswordHashingExecutor;
+import press.mizhifei.dentist.auth.security.PasswordHashingExecutor.PasswordHashingRejectedException;
 import press.mizhifei.dentist.auth.security.UserPrincipal;
+import press.mizhifei.dentist.auth.security.UserPrincipalCache;
 import press.mizhifei.dentist.auth.client.NotificationServiceClient;
 import press.mizhifei.dentist.auth.dto.VerificationEmailRequest;
 
@@ -53,9 +55,12 @@ public class AuthService {
     private final UserRepository userRepository;
     private final ClinicRepository clinicRepository;
     private final PasswordEncoder passwordEncoder;
-    private final JwtTokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
     private final NotificationServiceClient notificationServiceClient;
     private final UserApprovalService userApprovalService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LastLoginWriter lastLoginWriter;
 
     @Value("${app.email-verification.token-expiry-minutes}")
     private long tokenExpiryMinutes;
@@ -80,28 +85,25 @@ public class AuthService {
                 return ApiResponse.error("Your account is not activated, please contact the administrator");
             }
 
-            Authentication authentication = authenticationManager.authenticate(
+            // BCrypt runs on the bounded hashing pool, not the request thread
+            Authentication authentication = passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getEmail(),
-                            loginRequest.getPassword()));
+                            loginRequest.getPassword())));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(authentication);
+            AuthResponse authResponse = refreshTokenService.issueTokens(user, authentication);
 
-            // Update last login timestamp
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
-
-            AuthResponse authResponse = AuthResponse.builder()
-                    .accessToken(jwt)
-                    .tokenType("Bearer")
-                    .user(user.toUserResponse())
-                    .build();
+            // Update last login timestamp, written behind in batches
+            lastLoginWriter.record(user.getId(), LocalDateTime.now());
 
             return ApiResponse.success(authResponse);
         } catch (AuthenticationException ex) {
             // Bad credentials or other authentication problems
             return ApiResponse.error("Your email or password is incorrect");
+        } catch (PasswordHashingRejectedException ex) {
+            // Hashing queue full, answered with 503 by the controller
+            throw ex;
         } catch (Exception ex) {
             // Any unexpected exception
             return ApiResponse.error("Login failed: " + ex.getMessage());
@@ -133,7 +135,7 @@ public class AuthService {
             User user = existingUser.get();
             user.setFirstName(signUpRequest.getFirstName());
             user.setLastName(signUpRequest.getLastName());
-            user.setPassword(passwordEncoder.encode(signUpRequest.getPassword()));
+            user.setPassword(encodePassword(signUpRequest.getPassword()));
             user.setRoles(new HashSet<>(Collections.singleton(Role.fromString(signUpRequest.getRole()))));
             user.setVerificationCode(verificationCode);
             user.setVerificationCodeExpiry(codeExpiry);
@@ -145,7 +147,7 @@ public class AuthService {
                     .firstName(signUpRequest.getFirstName())
                     .lastName(signUpRequest.getLastName())
                     .email(signUpRequest.getEmail())
-                    .password(passwordEncoder.encode(signUpRequest.getPassword()))
+                    .password(encodePassword(signUpRequest.getPassword()))
                     .roles(new HashSet<>(Collections.singleton(Role.fromString(signUpRequest.getRole()))))
                     .provider(AuthProvider.LOCAL)
                     .emailVerified(false)
@@ -192,7 +194,7 @@ public class AuthService {
             User user = existingUser.get();
             user.setFirstName(signUpStaffRequest.getFirstName());
             user.setLastName(signUpStaffRequest.getLastName());
-            user.setPassword(passwordEncoder.encode(signUpStaffRequest.getPassword()));
+            user.setPassword(encodePassword(signUpStaffRequest.getPassword()));
             user.setVerificationCode(verificationCode);
             user.setVerificationCodeExpiry(codeExpiry);
             user.setClinicId(signUpStaffRequest.getClinicId());
@@ -210,7 +212,7 @@ public class AuthService {
                     .firstName(signUpStaffRequest.getFirstName())
                     .lastName(signUpStaffRequest.getLastName())
                     .email(signUpStaffRequest.getEmail())
-                    .password(passwordEncoder.encode(signUpStaffRequest.getPassword()))
+                    .password(encodePassword(signUpStaffRequest.getPassword()))
                     .provider(AuthProvider.LOCAL)
                     .roles(new HashSet<>(Collections.singleton(Role.fromString(signUpStaffRequest.getRole()))))
                     .emailVerified(false)
@@ -262,7 +264,7 @@ public class AuthService {
                     .firstName(signUpClinicAdminRequest.getFirstName())
                     .lastName(signUpClinicAdminRequest.getLastName())
                     .email(signUpClinicAdminRequest.getEmail())
-                    .password(passwordEncoder.encode(signUpClinicAdminRequest.getPassword()))
+                    .password(encodePassword(signUpClinicAdminRequest.getPassword()))
                     .roles(new HashSet<>(Collections.singleton(Role.CLINIC_ADMIN)))
                     .provider(AuthProvider.LOCAL)
                     .emailVerified(false)
@@ -287,7 +289,7 @@ public class AuthService {
             clinicAdmin = existingUser.get();
             clinicAdmin.setFirstName(signUpClinicAdminRequest.getFirstName());
             clinicAdmin.setLastName(signUpClinicAdminRequest.getLastName());
-            clinicAdmin.setPassword(passwordEncoder.encode(signUpClinicAdminRequest.getPassword()));
+            clinicAdmin.setPassword(encodePassword(signUpClinicAdminRequest.getPassword()));
             clinicAdmin.setRoles(new HashSet<>(Collections.singleton(Role.CLINIC_ADMIN)));
             clinicAdmin.setEmailVerified(false);
             clinicAdmin.setVerificationCode(generateVerificationCode());
@@ -295,6 +297,7 @@ public class AuthService {
             clinicAdmin.setEnabled(false);
             clinicAdmin.setUpdatedAt(LocalDateTime.now());
             userRepository.save(clinicAdmin);
+            userPrincipalCache.invalidate(clinicAdmin.getId());
         }
 
         // if the clinic is not exist, create a new clinic
@@ -398,14 +401,14 @@ public class AuthService {
         user.setEmailVerificationTokenExpiry(null);
 
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getId());
 
         return ApiResponse.success(authenticateAndGenerateToken(user));
     }
 
     private AuthResponse authenticateAndGenerateToken(User user) {
-        // Update last login timestamp
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Update last login timestamp, written behind in batches
+        lastLoginWriter.record(user.getId(), LocalDateTime.now());
 
         // Create authentication token with UserPrincipal as principal to avoid
         // ClassCastException
@@ -416,13 +419,7 @@ public class AuthService {
                 principal.getAuthorities());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
-
-        return AuthResponse.builder()
-                .accessToken(jwt)
-                .tokenType("Bearer")
-                .user(user.toUserResponse())
-                .build();
+        return refreshTokenService.issueTokens(user, authentication);
     }
 
     private String generateVerificationCode() {
@@ -433,6 +430,13 @@ public class AuthService {
         return UUID.randomUUID().toString();
     }
 
+    /**
+     * Hashes a password on the bounded hashing pool, like the check at login
+     */
+    private String encodePassword(String rawPassword) {
+        return passwordHashingExecutor.execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
     @Transactional
     public ApiResponse<String> verifyEmailByCode(String email, String code) {
         Optional<User> existingUser = userRepository.findByEmail(email);
@@ -469,6 +473,7 @@ public class AuthService {
         user.setEmailVerified(true);
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getId());
 
         return ApiResponse.successMessage("Email verified successfully");
     }
@@ -495,9 +500,12 @@ public class AuthService {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         User user = userRepository.findByEmail(userPrincipal.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setPassword(passwordEncoder.encode(changePasswordRequest.getNewPassword()));
+        user.setPassword(encodePassword(changePasswordRequest.getNewPassword()));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getId());
+        // Sessions elsewhere end when their current access token expires
+        refreshTokenService.revokeAll(user.getId());
         return ApiResponse.successMessage("Password changed successfully");
     }
 }
@@ -0,0 +1,106 @@
+package press.mizhifei.dentist.auth.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind recorder of users' last login time
+ * Logins only note the time in memory; a scheduled flush writes all pending times as one JDBC batch UPDATE,
+ * coalescing repeated logins of a user into a single row update. A failed flush keeps its entries for the next one.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class LastLoginWriter {
+
+    static final String UPDATE_LAST_LOGIN =
+            "UPDATE users SET last_login_at = ? WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final ConcurrentMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final LongAdder written = new LongAdder();
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public LastLoginWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                           @Value("${app.login.last-login-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        Gauge.builder("auth.last-login.pending", pending, Map::size)
+                .description("Last login times waiting to be written")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.last-login.written", written, LongAdder::sum)
+                .description("Last login times written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Notes a login, to be written by the next flush; only the latest time per user is kept
+     */
+    public void record(Long userId, LocalDateTime loginAt) {
+        if (userId != null) {
+            pending.merge(userId, loginAt, (current, next) -> next.isAfter(current) ? next : current);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the pending login times in batches of app.login.last-login-batch-size
+     */
+    @Scheduled(fixedDelayString = "${app.login.last-login-flush-interval:5s}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        for (Long userId : pending.keySet()) {
+            LocalDateTime loginAt = pending.remove(userId);
+            if (loginAt != null) {
+                Timestamp timestamp = Timestamp.valueOf(loginAt);
+                batch.add(new Object[]{timestamp, userId, timestamp});
+            }
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+            written.add(batch.size());
+            log.debug("Wrote last login time of {} users", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to write last login time of {} users, retrying on next flush: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                record((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+        }
+    }
+}
@@ -14,8 +14,9 @@ import press.mizhifei.dentist.auth.model.AuthProvider;
 import press.mizhifei.dentist.auth.model.Role;
 import press.mizhifei.dentist.auth.model.User;
 import press.mizhifei.dentist.auth.repository.UserRepository;
-import press.mizhifei.dentist.auth.security.JwtTokenProvider;
 import press.mizhifei.dentist.auth.security.UserPrincipal;
+import press.mizhifei.dentist.auth.security.UserPrincipalCache;
+import press.mizhifei.dentist.cache.names.NameChangePublisher;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -36,7 +37,9 @@ import java.util.Optional;
 public class OAuthUserService {
 
     private final UserRepository userRepository;
-    private final JwtTokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final NameChangePublisher nameChangePublisher;
 
     @Transactional
     public ApiResponse<AuthResponse> processOAuthLogin(OAuthLoginRequest oAuthLoginRequest) {
@@ -62,11 +65,14 @@ public class OAuthUserService {
             }
             
             // Update user info if needed
+            String previousName = user.getFirstName() + " " + user.getLastName();
             user.setFirstName(oAuthLoginRequest.getFirstName());
             user.setLastName(oAuthLoginRequest.getLastName());
             user.setLastLoginAt(LocalDateTime.now());
             user.setUpdatedAt(LocalDateTime.now());
             user = userRepository.save(user);
+            userPrincipalCache.invalidate(user.getId());
+            publishIfRenamed(user, previousName);
             
         } else {
             // No user found by provider ID, check by email
@@ -78,6 +84,7 @@ public class OAuthUserService {
                 
                 user.setProvider(AuthProvider.valueOf(oAuthLoginRequest.getProvider().toUpperCase()));
                 user.setProviderId(oAuthLoginRequest.getProviderId());
+                String previousName = user.getFirstName() + " " + user.getLastName();
                 
                 // Update names if they're empty in local but available from OAuth
                 if (user.getFirstName() == null || user.getFirstName().isEmpty()) {
@@ -92,6 +99,8 @@ public class OAuthUserService {
                 user.setLastLoginAt(LocalDateTime.now());
                 user.setUpdatedAt(LocalDateTime.now());
                 user = userRepository.save(user);
+                userPrincipalCache.invalidate(user.getId());
+                publishIfRenamed(user, previousName);
                 
             } else {
                 // New user, create an account
@@ -122,7 +131,7 @@ public class OAuthUserService {
     }
 
     /**
-     * Generate JWT token for OAuth user without using AuthenticationManager
+     * Generate access and refresh tokens for OAuth user without using AuthenticationManager
      * to avoid circular dependency issues.
      */
     private AuthResponse generateTokenForUser(User user) {
@@ -138,12 +147,12 @@ public class OAuthUserService {
                 principal.getAuthorities());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
+        return refreshTokenService.issueTokens(user, authentication);
+    }
 
-        return AuthResponse.builder()
-                .accessToken(jwt)
-                .tokenType("Bearer")
-                .user(user.toUserResponse())
-                .build();
+    private void publishIfRenamed(User user, String previousName) {
+        if (!previousName.equals(user.getFirstName() + " " + user.getLastName())) {
+            nameChangePublisher.userRenamed(user.getId());
+        }
     }
 }
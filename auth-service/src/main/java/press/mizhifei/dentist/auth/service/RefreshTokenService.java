@@ -0,0 +1,184 @@
+package press.mizhifei.dentist.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import press.mizhifei.dentist.auth.dto.ApiResponse;
+import press.mizhifei.dentist.auth.dto.AuthResponse;
+import press.mizhifei.dentist.auth.model.RefreshToken;
+import press.mizhifei.dentist.auth.model.User;
+import press.mizhifei.dentist.auth.repository.RefreshTokenRepository;
+import press.mizhifei.dentist.auth.repository.UserRepository;
+import press.mizhifei.dentist.auth.security.JwtTokenProvider;
+import press.mizhifei.dentist.auth.security.UserPrincipal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Issues access/refresh token pairs and rotates refresh tokens
+ * Access tokens are short-lived and verified without any lookup; the refresh token is an opaque random value stored
+ * only as its digest. Every refresh revokes the token used, so presenting a revoked one means it was copied, and
+ * all refresh tokens of that user are revoked. Browser flows receive the refresh token in an HttpOnly cookie scoped
+ * to the auth endpoints rather than in a URL.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    public static final String REFRESH_TOKEN_COOKIE = "refresh_token";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final Duration refreshTokenExpiry;
+    private final String refreshCookiePath;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtTokenProvider tokenProvider,
+                               TokenRevocationService tokenRevocationService,
+                               @Value("${jwt.refresh-expiration:14d}") Duration refreshTokenExpiry,
+                               @Value("${jwt.refresh-cookie-path:/api/auth}") String refreshCookiePath) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenExpiry = refreshTokenExpiry;
+        this.refreshCookiePath = refreshCookiePath;
+    }
+
+    /**
+     * Issues an access token and a new refresh token for an authenticated user
+     * @param user the user
+     * @param authentication the authentication holding the user's principal
+     * @return the token pair with the user details
+     */
+    public AuthResponse issueTokens(User user, Authentication authentication) {
+        String accessToken = tokenProvider.generateToken(authentication);
+
+        byte[] random = new byte[32];
+        secureRandom.nextBytes(random);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .userId(user.getId())
+                .expiresAt(LocalDateTime.now().plus(refreshTokenExpiry))
+                .build());
+
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .tokenType("Bearer")
+                .expiresIn(tokenProvider.getExpirationInMs() / 1000)
+                .refreshToken(refreshToken)
+                .user(user.toUserResponse())
+                .build();
+    }
+
+    /**
+     * Exchanges a refresh token for a new token pair, revoking the one presented
+     * @param refreshToken the refresh token
+     * @return the new token pair, or an error if the token is unknown, expired or revoked
+     */
+    @Transactional
+    public ApiResponse<AuthResponse> refresh(String refreshToken) {
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(refreshToken));
+        if (stored.isEmpty() || stored.get().getExpiresAt().isBefore(LocalDateTime.now())) {
+            return ApiResponse.error("Invalid or expired refresh token");
+        }
+
+        RefreshToken token = stored.get();
+        if (refreshTokenRepository.revokeIfActive(token.getId(), LocalDateTime.now()) == 0) {
+            log.warn("Revoked refresh token presented for user {}, revoking all of the user's refresh tokens",
+                    token.getUserId());
+            refreshTokenRepository.revokeAllByUserId(token.getUserId(), LocalDateTime.now());
+            return ApiResponse.error("Invalid or expired refresh token");
+        }
+
+        Optional<User> user = userRepository.findById(token.getUserId());
+        if (user.isEmpty() || !user.get().isEnabled()) {
+            return ApiResponse.error("Your account is not activated, please contact the administrator");
+        }
+
+        UserPrincipal principal = UserPrincipal.create(user.get());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
+        return ApiResponse.success(issueTokens(user.get(), authentication));
+    }
+
+    /**
+     * Revokes the refresh token and the access token of a session
+     * @param accessToken the access token, may be null
+     * @param refreshToken the refresh token, may be null
+     */
+    @Transactional
+    public void logout(String accessToken, String refreshToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                    .ifPresent(token -> refreshTokenRepository.revokeIfActive(token.getId(), LocalDateTime.now()));
+        }
+        if (accessToken != null && !accessToken.isBlank()) {
+            tokenProvider.parseVerified(accessToken).ifPresent(tokenRevocationService::revoke);
+        }
+    }
+
+    /**
+     * Revokes every refresh token of a user, e.g. after a password change
+     * @param userId the user id
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+    }
+
+    /**
+     * @param refreshToken the refresh token
+     * @return an HttpOnly, Secure cookie holding the token, sent only to the auth endpoints
+     */
+    public ResponseCookie refreshTokenCookie(String refreshToken) {
+        return refreshCookie(refreshToken, refreshTokenExpiry);
+    }
+
+    /**
+     * @return a cookie that removes the refresh token cookie from the browser
+     */
+    public ResponseCookie clearedRefreshTokenCookie() {
+        return refreshCookie("", Duration.ZERO);
+    }
+
+    private ResponseCookie refreshCookie(String value, Duration maxAge) {
+        return ResponseCookie.from(REFRESH_TOKEN_COOKIE, value)
+                .httpOnly(true)
+                .secure(true)
+                .sameSite("Strict")
+                .path(refreshCookiePath)
+                .maxAge(maxAge)
+                .build();
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package press.mizhifei.dentist.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import press.mizhifei.dentist.auth.model.RevokedAccessToken;
+import press.mizhifei.dentist.auth.repository.RefreshTokenRepository;
+import press.mizhifei.dentist.auth.repository.RevokedAccessTokenRepository;
+import press.mizhifei.dentist.auth.security.RevocationBloomFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revocation of access tokens before their expiry, published to the gateway as a Bloom filter
+ * Revoked token ids are kept until the token expires. The filter over them is rebuilt at most once per rebuild
+ * interval, or straight after a revocation on this instance, and answers "not revoked" from memory; the gateway
+ * asks {@link #isRevoked(String)} only for the ids the filter reports as possibly revoked.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final int MIN_FILTER_ENTRIES = 1000;
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ObjectMapper objectMapper;
+    private final double falsePositiveRate;
+    private final long rebuildIntervalMillis;
+
+    private volatile FilterSnapshot snapshot;
+    private volatile boolean changed;
+
+    public TokenRevocationService(RevokedAccessTokenRepository revokedAccessTokenRepository,
+                                  RefreshTokenRepository refreshTokenRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${jwt.revocation.rebuild-interval:10s}") Duration rebuildInterval) {
+        this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.objectMapper = objectMapper;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildIntervalMillis = rebuildInterval.toMillis();
+    }
+
+    /**
+     * Revokes a verified access token until it expires
+     * @param claims the claims of the token
+     */
+    @Transactional
+    public void revoke(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            // Issued before tokens carried an id, it expires on its own
+            return;
+        }
+        revokedAccessTokenRepository.save(RevokedAccessToken.builder()
+                .jti(claims.getId())
+                .userId(Long.valueOf(claims.getSubject()))
+                .expiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()))
+                .build());
+        changed = true;
+    }
+
+    /**
+     * Exact check behind the Bloom filter
+     * @param jti the token id
+     * @return whether the token is revoked and not yet expired
+     */
+    public boolean isRevoked(String jti) {
+        return revokedAccessTokenRepository.existsByJtiAndExpiresAtAfter(jti, LocalDateTime.now());
+    }
+
+    /**
+     * @return the current filter over the revoked token ids, serialized with its ETag
+     */
+    public FilterSnapshot getFilter() {
+        FilterSnapshot current = snapshot;
+        if (current != null && !changed && System.currentTimeMillis() - current.builtAt() < rebuildIntervalMillis) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || changed || System.currentTimeMillis() - current.builtAt() >= rebuildIntervalMillis) {
+                changed = false;
+                current = buildFilter();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Deletes revoked access tokens and refresh tokens past their expiry
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int accessTokens = revokedAccessTokenRepository.deleteExpired(now);
+        int refreshTokens = refreshTokenRepository.deleteExpired(now);
+        if (accessTokens > 0 || refreshTokens > 0) {
+            log.debug("Purged {} revoked access tokens and {} refresh tokens past expiry", accessTokens, refreshTokens);
+        }
+    }
+
+    private FilterSnapshot buildFilter() {
+        List<String> jtis = revokedAccessTokenRepository.findUnexpiredJtis(LocalDateTime.now());
+        // Headroom for the revocations made until the next rebuild
+        RevocationBloomFilter filter = RevocationBloomFilter.create(
+                Math.max(MIN_FILTER_ENTRIES, jtis.size() * 2), falsePositiveRate);
+        jtis.forEach(filter::put);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("entries", jtis.size());
+        body.put("numBits", filter.getNumBits());
+        body.put("numHashes", filter.getNumHashes());
+        body.put("bits", Base64.getEncoder().encodeToString(filter.toByteArray()));
+        try {
+            String json = objectMapper.writeValueAsString(body);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+            return new FilterSnapshot(json, etag, System.currentTimeMillis());
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to serialize revocation filter", e);
+        }
+    }
+
+    public record FilterSnapshot(String json, String etag, long builtAt) {
+    }
+}
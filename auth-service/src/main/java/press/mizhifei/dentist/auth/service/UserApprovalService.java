@@ -14,6 +14,7 @@ import press.mizhifei.dentist.auth.model.UserApprovalRequest;
 import press.mizhifei.dentist.auth.repository.ClinicRepository;
 import press.mizhifei.dentist.auth.repository.UserApprovalRequestRepository;
 import press.mizhifei.dentist.auth.repository.UserRepository;
+import press.mizhifei.dentist.auth.security.UserPrincipalCache;
 import press.mizhifei.dentist.auth.client.NotificationServiceClient;
 import press.mizhifei.dentist.auth.dto.NotificationEmailRequest;
 
@@ -40,6 +41,7 @@ public class UserApprovalService {
     private final UserRepository userRepository;
     private final ClinicRepository clinicRepository;
     private final NotificationServiceClient notificationServiceClient;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Transactional
     public ApiResponse<ApprovalRequestResponse> createApprovalRequest(Long userId, String requestReason) {
@@ -135,6 +137,7 @@ public class UserApprovalService {
             clinicRepository.save(clinic);
             userRepository.save(user);
         }
+        userPrincipalCache.invalidate(user.getId());
 
         // Send notification to user
         sendApprovalResultNotification(user, reviewRequest.getApproved(), reviewRequest.getReviewNotes());
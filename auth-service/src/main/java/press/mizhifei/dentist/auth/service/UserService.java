@@ -10,8 +10,13 @@ import press.mizhifei.dentist.auth.dto.UserUpdateRequest;
 import press.mizhifei.dentist.auth.model.User;
 import press.mizhifei.dentist.auth.model.Role;
 import press.mizhifei.dentist.auth.repository.UserRepository;
+import press.mizhifei.dentist.auth.security.UserPrincipalCache;
+import press.mizhifei.dentist.cache.names.NameChangePublisher;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +31,8 @@ import java.util.stream.Collectors;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final NameChangePublisher nameChangePublisher;
 
     public List<UserResponse> listAllUsers() {
         return userRepository.findAll().stream()
@@ -46,6 +53,23 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
         return user.getFirstName() + " " + user.getLastName();
     }
+
+    /**
+     * Resolves the full names of many users with a single query; unknown ids are left out
+     * @param userIds user ids
+     * @return full name by user id
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> getUserFullNames(Collection<Long> userIds) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return names;
+        }
+        for (UserRepository.UserName user : userRepository.findNamesByIdIn(userIds)) {
+            names.put(user.getId(), user.getFirstName() + " " + user.getLastName());
+        }
+        return names;
+    }
     
     @Transactional(readOnly = true)
     public ApiResponse<UserDetailsResponse> getUserDetails(Long userId) {
@@ -89,6 +113,7 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
 
         // Update only the allowed fields
+        String previousName = user.getFirstName() + " " + user.getLastName();
         if (updateRequest.getFirstName() != null) {
             user.setFirstName(updateRequest.getFirstName());
         }
@@ -109,6 +134,10 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        userPrincipalCache.invalidate(userId);
+        if (!previousName.equals(savedUser.getFirstName() + " " + savedUser.getLastName())) {
+            nameChangePublisher.userRenamed(userId);
+        }
         return ApiResponse.success(savedUser.toUserResponse());
     }
 
@@ -0,0 +1,147 @@
+package press.mizhifei.dentist.auth.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import press.mizhifei.dentist.auth.annotation.RequireRoles;
+import press.mizhifei.dentist.auth.model.Role;
+import press.mizhifei.dentist.auth.model.User;
+import press.mizhifei.dentist.auth.repository.UserRepository;
+import press.mizhifei.dentist.auth.security.JwtKeyProvider;
+import press.mizhifei.dentist.auth.security.JwtTokenProvider;
+import press.mizhifei.dentist.auth.security.UserPrincipal;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RoleAuthorizationAspect
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class RoleAuthorizationAspectTest {
+
+    private static final JwtTokenProvider TOKEN_PROVIDER = tokenProvider();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleAuthorizationAspect aspect = new RoleAuthorizationAspect(TOKEN_PROVIDER, userRepository);
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRolesClaimAuthorizesWithoutDatabase() throws Throwable {
+        // Given
+        authorize("CLINIC_ADMIN");
+        ProceedingJoinPoint joinPoint = joinPoint("adminOperation");
+
+        // When
+        Object result = aspect.checkRoles(joinPoint, annotation("adminOperation"));
+
+        // Then
+        assertEquals("proceeded", result);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testMissingRoleIsForbidden() throws Throwable {
+        // Given
+        authorize("PATIENT");
+        ProceedingJoinPoint joinPoint = joinPoint("adminOperation");
+
+        // When
+        Object result = aspect.checkRoles(joinPoint, annotation("adminOperation"));
+
+        // Then
+        assertEquals(403, ((ResponseEntity<?>) result).getStatusCode().value());
+        verify(joinPoint, never()).proceed();
+    }
+
+    @Test
+    void testStrictModeUsesCurrentRolesFromDatabase() throws Throwable {
+        // Given
+        authorize("SYSTEM_ADMIN");
+        User user = User.builder().email("user@example.com").roles(new HashSet<>(Set.of(Role.PATIENT))).build();
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        ProceedingJoinPoint joinPoint = joinPoint("strictOperation");
+
+        // When
+        Object result = aspect.checkRoles(joinPoint, annotation("strictOperation"));
+
+        // Then
+        assertEquals(403, ((ResponseEntity<?>) result).getStatusCode().value());
+        verify(userRepository).findByEmail("user@example.com");
+    }
+
+    private void authorize(String role) {
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(42L)
+                .email("user@example.com")
+                .authorities(List.of(new SimpleGrantedAuthority(role)))
+                .enabled(true)
+                .build();
+        String token = TOKEN_PROVIDER.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    private static ProceedingJoinPoint joinPoint(String methodName) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method(methodName));
+        when(signature.getName()).thenReturn(methodName);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn("proceeded");
+        return joinPoint;
+    }
+
+    private static RequireRoles annotation(String methodName) throws NoSuchMethodException {
+        return method(methodName).getAnnotation(RequireRoles.class);
+    }
+
+    private static Method method(String methodName) throws NoSuchMethodException {
+        return ProtectedOperations.class.getDeclaredMethod(methodName);
+    }
+
+    private static JwtTokenProvider tokenProvider() {
+        JwtTokenProvider provider = new JwtTokenProvider(new JwtKeyProvider("", "", "dentistdss"), 100);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000L);
+        return provider;
+    }
+
+    static class ProtectedOperations {
+
+        @RequireRoles({Role.SYSTEM_ADMIN, Role.CLINIC_ADMIN})
+        void adminOperation() {
+        }
+
+        @RequireRoles(value = Role.SYSTEM_ADMIN, strict = true)
+        void strictOperation() {
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package press.mizhifei.dentist.auth.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import press.mizhifei.dentist.auth.security.JwtAlgorithm;
+import press.mizhifei.dentist.auth.security.JwtKeyProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for JwkController
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class JwkControllerTest {
+
+    private JwtKeyProvider keyProvider;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        keyProvider = new JwtKeyProvider("", "", "dentistdss");
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new JwkController(keyProvider, new ObjectMapper(), Duration.ofMinutes(5))).build();
+    }
+
+    @Test
+    void testJwksIsServedWithCachingHeaders() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/auth/oauth2/jwks"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.keys[0].kid").value("dentistdss"))
+                .andExpect(jsonPath("$.keys[0].kty").value("RSA"));
+    }
+
+    @Test
+    void testEcAndEd25519KeysArePublishedAsStandardJwks() throws Exception {
+        // Given
+        JwtKeyProvider ecProvider = new JwtKeyProvider("", "", "ec", JwtAlgorithm.ES256);
+        JwtKeyProvider edProvider = new JwtKeyProvider("", "", "ed", JwtAlgorithm.EdDSA);
+
+        // When
+        JWK ec = JWKSet.parse(jwks(ecProvider)).getKeyByKeyId("ec");
+        JWK ed = JWKSet.parse(jwks(edProvider)).getKeyByKeyId("ed");
+
+        // Then
+        assertEquals(JWSAlgorithm.ES256, ec.getAlgorithm());
+        assertEquals(ecProvider.getPublicKey(), ec.toECKey().toECPublicKey());
+        assertEquals(JWSAlgorithm.EdDSA, ed.getAlgorithm());
+        assertEquals(Curve.Ed25519, ed.toOctetKeyPair().getCurve());
+        byte[] encoded = edProvider.getPublicKey().getEncoded();
+        assertArrayEquals(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length),
+                ed.toOctetKeyPair().getDecodedX());
+    }
+
+    @Test
+    void testMatchingETagIsNotModified() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/auth/oauth2/jwks")).andReturn().getResponse().getHeader("ETag");
+
+        // When / Then
+        mockMvc.perform(get("/auth/oauth2/jwks").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testKeySetChangesWithRotation() throws Exception {
+        // Given
+        MvcResult before = mockMvc.perform(get("/auth/oauth2/jwks")).andReturn();
+
+        // When
+        keyProvider.rotateIfDue();
+        MvcResult unchanged = mockMvc.perform(get("/auth/oauth2/jwks")).andReturn();
+        ReflectionTestUtils.invokeMethod(keyProvider, "rotate");
+        MvcResult after = mockMvc.perform(get("/auth/oauth2/jwks")).andReturn();
+
+        // Then
+        assertEquals(before.getResponse().getHeader("ETag"), unchanged.getResponse().getHeader("ETag"));
+        assertNotEquals(before.getResponse().getHeader("ETag"), after.getResponse().getHeader("ETag"));
+        assertTrue(after.getResponse().getContentAsString().contains("\"kid\":\"dentistdss\""));
+        assertTrue(after.getResponse().getContentAsString().contains("\"kid\":\"" + keyProvider.getKeyId() + "\""));
+    }
+
+    private static String jwks(JwtKeyProvider keyProvider) throws Exception {
+        return MockMvcBuilders.standaloneSetup(new JwkController(keyProvider, new ObjectMapper(), Duration.ofMinutes(5)))
+                .build()
+                .perform(get("/auth/oauth2/jwks"))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,165 @@
+package press.mizhifei.dentist.auth.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JwtKeyProvider
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class JwtKeyProviderTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    void testRotationSignsWithNewKeyAndKeepsPreviousForRetention() {
+        // Given
+        JwtKeyProvider keyProvider = new JwtKeyProvider("", "", "dentistdss", JwtAlgorithm.RS256, List.of(), "", "", "",
+                Duration.ofHours(12), Duration.ofHours(24), clock);
+        JwtTokenProvider tokenProvider = tokenProvider(keyProvider);
+        String before = tokenProvider.generateToken(authentication());
+
+        // When
+        clock.advance(Duration.ofHours(11));
+        keyProvider.rotateIfDue();
+        String notYetRotatedKey = keyProvider.getKeyId();
+        clock.advance(Duration.ofHours(1));
+        keyProvider.rotateIfDue();
+        String after = tokenProvider.generateToken(authentication());
+
+        // Then
+        assertEquals("dentistdss", notYetRotatedKey);
+        assertNotEquals("dentistdss", keyProvider.getKeyId());
+        assertEquals(2, keyProvider.getKeyRing().keys().size());
+        assertTrue(tokenProvider.parseVerified(before).isPresent());
+        assertTrue(tokenProvider.parseVerified(after).isPresent());
+    }
+
+    @Test
+    void testRetiredKeyIsDroppedAfterRetention() {
+        // Given
+        JwtKeyProvider keyProvider = new JwtKeyProvider("", "", "dentistdss", JwtAlgorithm.RS256, List.of(), "", "", "",
+                Duration.ofHours(12), Duration.ofHours(24), clock);
+        keyProvider.rotate();
+
+        // When
+        clock.advance(Duration.ofHours(24));
+
+        // Then
+        assertNull(keyProvider.findVerificationKey("dentistdss"));
+        assertNotNull(keyProvider.findVerificationKey(keyProvider.getKeyId()));
+        assertNotNull(keyProvider.findVerificationKey(null));
+    }
+
+    @Test
+    void testTokensNameTheirSigningKey() {
+        // Given
+        JwtKeyProvider keyProvider = new JwtKeyProvider("", "", "dentistdss");
+        JwtTokenProvider tokenProvider = tokenProvider(keyProvider);
+        String token = tokenProvider.generateToken(authentication());
+
+        // When
+        JwtKeyProvider otherKey = new JwtKeyProvider("", "", "dentistdss");
+
+        // Then
+        assertTrue(new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))))
+                .contains("\"kid\":\"dentistdss\""));
+        assertTrue(tokenProvider(otherKey).parseVerified(token).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(JwtAlgorithm.class)
+    void testEveryAlgorithmSignsAndVerifies(JwtAlgorithm algorithm) {
+        // Given
+        JwtKeyProvider keyProvider = new JwtKeyProvider("", "", "dentistdss", algorithm);
+        JwtTokenProvider tokenProvider = tokenProvider(keyProvider);
+
+        // When
+        String token = tokenProvider.generateToken(authentication());
+
+        // Then
+        assertEquals(algorithm, keyProvider.getKeyRing().active().algorithm());
+        assertTrue(new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))))
+                .contains("\"alg\":\"" + algorithm.name() + "\""));
+        assertEquals("42", tokenProvider.parseVerified(token).orElseThrow().getSubject());
+    }
+
+    @Test
+    void testConfiguredKeyPairTypeIsDetected() {
+        // Given
+        KeyPair keyPair = JwtAlgorithm.ES256.generateKeyPair();
+
+        // When
+        JwtKeyProvider keyProvider = new JwtKeyProvider(
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                "dentistdss");
+
+        // Then
+        assertEquals(JwtAlgorithm.ES256, keyProvider.getKeyRing().active().algorithm());
+        assertTrue(tokenProvider(keyProvider).parseVerified(tokenProvider(keyProvider).generateToken(authentication()))
+                .isPresent());
+    }
+
+    private static JwtTokenProvider tokenProvider(JwtKeyProvider keyProvider) {
+        JwtTokenProvider provider = new JwtTokenProvider(keyProvider, 0);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", Duration.ofDays(365).toMillis());
+        return provider;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication() {
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(42L)
+                .email("dentist@example.com")
+                .authorities(List.of(new SimpleGrantedAuthority("DENTIST")))
+                .enabled(true)
+                .build();
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
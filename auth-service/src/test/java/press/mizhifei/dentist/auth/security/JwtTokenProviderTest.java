@@ -0,0 +1,93 @@
+package press.mizhifei.dentist.auth.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JwtTokenProvider
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = provider(new JwtKeyProvider("", "", "dentistdss"));
+    }
+
+    @Test
+    void testParseVerifiedReturnsAllClaimsAtOnce() {
+        // Given
+        String token = tokenProvider.generateToken(authentication());
+
+        // When
+        Optional<Claims> claims = tokenProvider.parseVerified(token);
+
+        // Then
+        assertTrue(claims.isPresent());
+        assertEquals("42", claims.get().getSubject());
+        assertEquals("dentist@example.com", claims.get().get("email", String.class));
+        assertEquals("DENTIST,CLINIC_ADMIN", claims.get().get("roles", String.class));
+        assertEquals(7L, claims.get().get("clinicId", Long.class));
+    }
+
+    @Test
+    void testRepeatedParsingReturnsSameClaims() {
+        // Given
+        String token = tokenProvider.generateToken(authentication());
+        Claims first = tokenProvider.parseVerified(token).orElseThrow();
+
+        // When
+        Claims second = tokenProvider.parseVerified(token).orElseThrow();
+
+        // Then
+        assertSame(first, second);
+        assertEquals("42", tokenProvider.getUserIdFromJWT(token));
+        assertEquals("dentist@example.com", tokenProvider.getEmailFromJWT(token));
+    }
+
+    @Test
+    void testTamperedOrForeignTokensAreRejected() {
+        // Given
+        String token = tokenProvider.generateToken(authentication());
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+        String foreign = provider(new JwtKeyProvider("", "", "other")).generateToken(authentication());
+
+        // When / Then
+        assertTrue(tokenProvider.parseVerified(tampered).isEmpty());
+        assertTrue(tokenProvider.parseVerified(foreign).isEmpty());
+        assertTrue(tokenProvider.parseVerified("").isEmpty());
+        assertFalse(tokenProvider.validateToken("not-a-jwt"));
+        assertTrue(tokenProvider.validateToken(token));
+    }
+
+    private static JwtTokenProvider provider(JwtKeyProvider keyProvider) {
+        JwtTokenProvider provider = new JwtTokenProvider(keyProvider, 100);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000L);
+        return provider;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication() {
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(42L)
+                .email("dentist@example.com")
+                .authorities(List.of(new SimpleGrantedAuthority("DENTIST"), new SimpleGrantedAuthority("CLINIC_ADMIN")))
+                .clinicId(7L)
+                .enabled(true)
+                .build();
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
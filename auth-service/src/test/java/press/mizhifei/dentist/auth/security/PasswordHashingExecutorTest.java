@@ -0,0 +1,89 @@
+package press.mizhifei.dentist.auth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import press.mizhifei.dentist.auth.security.PasswordHashingExecutor.PasswordHashingRejectedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PasswordHashingExecutor
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(meterRegistry, 1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.destroy();
+    }
+
+    @Test
+    void testResultIsReturnedAndLatencyRecorded() {
+        // When
+        String result = executor.execute(() -> "hashed");
+
+        // Then
+        assertEquals("hashed", result);
+        assertEquals(1, meterRegistry.get("auth.password.hashing").timer().count());
+    }
+
+    @Test
+    void testTaskExceptionIsRethrownUnwrapped() {
+        // When / Then
+        assertThrows(BadCredentialsException.class,
+                () -> executor.execute(() -> { throw new BadCredentialsException("bad"); }));
+    }
+
+    @Test
+    void testFullQueueRejectsFast() throws Exception {
+        // Given one running and one queued check
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> "second"));
+        waitForQueueDepth(1);
+
+        // When / Then
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute(() -> "third"));
+        assertEquals(1.0, meterRegistry.get("auth.password.hashing.rejected").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("auth.password.hashing.queue").gauge().value());
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getQueueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, executor.getQueueDepth());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package press.mizhifei.dentist.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RevocationBloomFilter
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class RevocationBloomFilterTest {
+
+    @Test
+    void testRevokedIdsAreAlwaysReported() {
+        // Given
+        RevocationBloomFilter filter = RevocationBloomFilter.create(1000, 0.01);
+        List<String> revoked = IntStream.range(0, 1000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+        // When
+        revoked.forEach(filter::put);
+
+        // Then
+        assertTrue(revoked.stream().allMatch(filter::mightContain));
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        // Given
+        RevocationBloomFilter filter = RevocationBloomFilter.create(1000, 0.01);
+        IntStream.range(0, 1000).forEach(i -> filter.put(UUID.randomUUID().toString()));
+
+        // When
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+
+        // Then
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+        assertTrue(filter.getNumBits() < 16 * 1024);
+    }
+
+    @Test
+    void testSerializedFilterAnswersTheSame() {
+        // Given
+        RevocationBloomFilter filter = RevocationBloomFilter.create(100, 0.01);
+        filter.put("revoked-jti");
+
+        // When
+        RevocationBloomFilter copy = RevocationBloomFilter.fromByteArray(filter.toByteArray(), filter.getNumHashes());
+
+        // Then
+        assertEquals(filter.getNumBits(), copy.getNumBits());
+        assertTrue(copy.mightContain("revoked-jti"));
+        assertFalse(RevocationBloomFilter.create(100, 0.01).mightContain("revoked-jti"));
+    }
+}
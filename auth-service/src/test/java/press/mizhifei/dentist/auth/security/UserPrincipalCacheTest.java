@@ -0,0 +1,113 @@
+package press.mizhifei.dentist.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserPrincipalCache
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class UserPrincipalCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, UserPrincipal> loader = id -> {
+        loads.incrementAndGet();
+        return UserPrincipal.builder().id(id).email("user" + id + "@example.com").enabled(true).build();
+    };
+
+    @Test
+    void testPrincipalIsLoadedOnceUntilTtlExpires() {
+        // Given
+        UserPrincipalCache cache = new UserPrincipalCache(10, Duration.ofMinutes(5), clock::get);
+
+        // When
+        UserPrincipal first = cache.get(42L, loader);
+        UserPrincipal second = cache.get(42L, loader);
+        clock.addAndGet(Duration.ofMinutes(5).toMillis());
+        UserPrincipal afterExpiry = cache.get(42L, loader);
+
+        // Then
+        assertSame(first, second);
+        assertNotSame(first, afterExpiry);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidateForcesReload() {
+        // Given
+        UserPrincipalCache cache = new UserPrincipalCache(10, Duration.ofMinutes(5), clock::get);
+        cache.get(42L, loader);
+
+        // When
+        cache.invalidate(42L);
+        cache.get(42L, loader);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadRacingWithInvalidationIsNotCached() {
+        // Given
+        UserPrincipalCache cache = new UserPrincipalCache(10, Duration.ofMinutes(5), clock::get);
+        Function<Long, UserPrincipal> racingLoader = id -> {
+            UserPrincipal stale = loader.apply(id);
+            cache.invalidate(id);
+            return stale;
+        };
+
+        // When
+        cache.get(42L, racingLoader);
+
+        // Then
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testSizeStaysBounded() {
+        // Given
+        UserPrincipalCache cache = new UserPrincipalCache(100, Duration.ofMinutes(5), clock::get);
+
+        // When
+        LongStream.range(0, 1000).forEach(id -> cache.get(id, loader));
+
+        // Then
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    void testPrincipalFromClaims() {
+        // Given
+        Claims claims = Jwts.claims()
+                .subject("42")
+                .add("email", "dentist@example.com")
+                .add("roles", "DENTIST,CLINIC_ADMIN")
+                .add("clinicId", 7)
+                .build();
+
+        // When
+        UserPrincipal principal = UserPrincipal.fromClaims(claims);
+
+        // Then
+        assertEquals(42L, principal.getId());
+        assertEquals("dentist@example.com", principal.getEmail());
+        assertEquals(7L, principal.getClinicId());
+        assertEquals(2, principal.getAuthorities().size());
+        assertTrue(principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("DENTIST"::equals));
+        assertTrue(principal.isEnabled());
+    }
+}
@@ -0,0 +1,76 @@
+package press.mizhifei.dentist.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VerifiedTokenCache
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @Test
+    void testEntryIsServedUntilTokenExpiry() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, clock::get);
+        Claims claims = claims(60_000);
+        cache.put("token", claims);
+
+        // When
+        Claims beforeExpiry = cache.get("token");
+        clock.addAndGet(60_000);
+        Claims atExpiry = cache.get("token");
+
+        // Then
+        assertSame(claims, beforeExpiry);
+        assertNull(atExpiry);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testSizeStaysBounded() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, clock::get);
+
+        // When
+        IntStream.range(0, 1000).forEach(i -> cache.put("token-" + i, claims(60_000)));
+
+        // Then
+        assertTrue(cache.size() <= 100);
+        assertNotNull(cache.get("token-999"));
+    }
+
+    @Test
+    void testTokensWithoutExpiryOrZeroCapacityAreNotCached() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, clock::get);
+        VerifiedTokenCache disabled = new VerifiedTokenCache(0, clock::get);
+
+        // When
+        cache.put("token", Jwts.claims().subject("42").build());
+        disabled.put("token", claims(60_000));
+
+        // Then
+        assertNull(cache.get("token"));
+        assertNull(disabled.get("token"));
+    }
+
+    private Claims claims(long ttlMillis) {
+        return Jwts.claims()
+                .subject("42")
+                .expiration(new Date(clock.get() + ttlMillis))
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package press.mizhifei.dentist.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LastLoginWriter
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class LastLoginWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 2, 8, 30);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRepeatedLoginsAreCoalescedIntoOneBatch() {
+        // Given
+        LastLoginWriter writer = new LastLoginWriter(jdbcTemplate, meterRegistry, 500);
+        writer.record(1L, NOW);
+        writer.record(1L, NOW.plusSeconds(3));
+        writer.record(1L, NOW.plusSeconds(1));
+        writer.record(2L, NOW);
+
+        // When
+        writer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(LastLoginWriter.UPDATE_LAST_LOGIN), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        Object[] user1 = batch.getValue().stream().filter(row -> row[1].equals(1L)).findFirst().orElseThrow();
+        assertEquals(Timestamp.valueOf(NOW.plusSeconds(3)), user1[0]);
+        assertEquals(0, writer.getPendingCount());
+        assertEquals(2.0, meterRegistry.get("auth.last-login.written").functionCounter().count());
+    }
+
+    @Test
+    void testPendingTimesAreSplitIntoBatches() {
+        // Given
+        LastLoginWriter writer = new LastLoginWriter(jdbcTemplate, meterRegistry, 2);
+        for (long id = 1; id <= 5; id++) {
+            writer.record(id, NOW);
+        }
+
+        // When
+        writer.flush();
+
+        // Then
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(LastLoginWriter.UPDATE_LAST_LOGIN), anyList());
+    }
+
+    @Test
+    void testFailedFlushKeepsEntriesForNextFlush() {
+        // Given
+        LastLoginWriter writer = new LastLoginWriter(jdbcTemplate, meterRegistry, 500);
+        writer.record(1L, NOW);
+        when(jdbcTemplate.batchUpdate(eq(LastLoginWriter.UPDATE_LAST_LOGIN), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[]{1});
+
+        // When
+        writer.flush();
+        int pendingAfterFailure = writer.getPendingCount();
+        writer.flush();
+
+        // Then
+        assertEquals(1, pendingAfterFailure);
+        assertEquals(0, writer.getPendingCount());
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(LastLoginWriter.UPDATE_LAST_LOGIN), anyList());
+    }
+}
@@ -0,0 +1,151 @@
+package press.mizhifei.dentist.auth.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.Authentication;
+import press.mizhifei.dentist.auth.dto.ApiResponse;
+import press.mizhifei.dentist.auth.dto.AuthResponse;
+import press.mizhifei.dentist.auth.model.RefreshToken;
+import press.mizhifei.dentist.auth.model.Role;
+import press.mizhifei.dentist.auth.model.User;
+import press.mizhifei.dentist.auth.repository.RefreshTokenRepository;
+import press.mizhifei.dentist.auth.repository.UserRepository;
+import press.mizhifei.dentist.auth.security.JwtTokenProvider;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RefreshTokenService
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class RefreshTokenServiceTest {
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+    private final RefreshTokenService service = new RefreshTokenService(refreshTokenRepository, userRepository,
+            tokenProvider, tokenRevocationService, Duration.ofDays(14), "/api/auth");
+
+    @Test
+    void testIssuedRefreshTokenIsStoredOnlyAsDigest() {
+        // Given
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("access-token");
+        when(tokenProvider.getExpirationInMs()).thenReturn(900_000L);
+
+        // When
+        AuthResponse response = service.issueTokens(user(true), mock(Authentication.class));
+
+        // Then
+        ArgumentCaptor<RefreshToken> stored = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(stored.capture());
+        assertEquals("access-token", response.getAccessToken());
+        assertEquals(900L, response.getExpiresIn());
+        assertNotNull(response.getRefreshToken());
+        assertNotEquals(response.getRefreshToken(), stored.getValue().getTokenHash());
+        assertEquals(64, stored.getValue().getTokenHash().length());
+        assertEquals(7L, stored.getValue().getUserId());
+    }
+
+    @Test
+    void testRefreshRotatesTheToken() {
+        // Given
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("access-token");
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(storedToken()));
+        when(refreshTokenRepository.revokeIfActive(eq(1L), any())).thenReturn(1);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(true)));
+
+        // When
+        ApiResponse<AuthResponse> response = service.refresh("refresh-token");
+
+        // Then
+        assertTrue(response.isSuccess());
+        assertNotEquals("refresh-token", response.getDataObject().getRefreshToken());
+        verify(refreshTokenRepository).revokeIfActive(eq(1L), any());
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+        verify(refreshTokenRepository, never()).revokeAllByUserId(anyLong(), any());
+    }
+
+    @Test
+    void testReusedRefreshTokenRevokesAllOfTheUsersTokens() {
+        // Given
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(storedToken()));
+        when(refreshTokenRepository.revokeIfActive(eq(1L), any())).thenReturn(0);
+
+        // When
+        ApiResponse<AuthResponse> response = service.refresh("refresh-token");
+
+        // Then
+        assertFalse(response.isSuccess());
+        verify(refreshTokenRepository).revokeAllByUserId(eq(7L), any());
+        verify(tokenProvider, never()).generateToken(any());
+    }
+
+    @Test
+    void testLogoutRevokesBothTokens() {
+        // Given
+        Claims claims = Jwts.claims().id("jti-1").subject("7").build();
+        when(tokenProvider.parseVerified("access-token")).thenReturn(Optional.of(claims));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(storedToken()));
+
+        // When
+        service.logout("access-token", "refresh-token");
+
+        // Then
+        verify(refreshTokenRepository).revokeIfActive(eq(1L), any());
+        verify(tokenRevocationService).revoke(claims);
+    }
+
+    @Test
+    void testRefreshTokenCookieIsHttpOnlyAndScopedToAuthEndpoints() {
+        // When
+        ResponseCookie cookie = service.refreshTokenCookie("refresh-token");
+        ResponseCookie cleared = service.clearedRefreshTokenCookie();
+
+        // Then
+        assertEquals("refresh-token", cookie.getValue());
+        assertTrue(cookie.isHttpOnly());
+        assertTrue(cookie.isSecure());
+        assertEquals("Strict", cookie.getSameSite());
+        assertEquals("/api/auth", cookie.getPath());
+        assertEquals(Duration.ofDays(14), cookie.getMaxAge());
+        assertEquals(Duration.ZERO, cleared.getMaxAge());
+        assertEquals("/api/auth", cleared.getPath());
+    }
+
+    private static RefreshToken storedToken() {
+        return RefreshToken.builder()
+                .id(1L)
+                .tokenHash("digest")
+                .userId(7L)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+
+    private static User user(boolean enabled) {
+        return User.builder()
+                .id(7L)
+                .email("patient@example.com")
+                .firstName("Pat")
+                .lastName("Ient")
+                .roles(Set.of(Role.PATIENT))
+                .enabled(enabled)
+                .build();
+    }
+}
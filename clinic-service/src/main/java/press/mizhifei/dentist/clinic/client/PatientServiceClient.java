@@ -3,10 +3,11 @@ package press.mizhifei.dentist.clinic.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import press.mizhifei.dentist.clinic.dto.ApiResponse;
+import press.mizhifei.dentist.clinic.dto.CursorPage;
 import press.mizhifei.dentist.clinic.dto.PatientResponse;
 
-import java.util.List;
-
 /**
  * Feign client for user-profile-service (patient endpoints)
  *
@@ -18,8 +19,12 @@ import java.util.List;
 @FeignClient(name = "user-profile-service", path = "/patient")
 public interface PatientServiceClient {
     
+    /**
+     * One keyset page of patients in id order; pass the returned nextCursor to get the next page, until it is null
+     */
     @GetMapping("/list/all")
-    List<PatientResponse> getAllPatients();
+    ApiResponse<CursorPage<PatientResponse>> getPatients(@RequestParam(value = "cursor", required = false) Long cursor,
+                                                         @RequestParam("size") int size);
     
     @GetMapping("/{id}")
     PatientResponse getPatientById(@PathVariable("id") Long patientId);
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import press.mizhifei.dentist.cache.names.NameChangePublisher;
 import press.mizhifei.dentist.clinic.client.AppointmentServiceClient;
 import press.mizhifei.dentist.clinic.client.AuthServiceClient;
 import press.mizhifei.dentist.clinic.client.PatientServiceClient;
@@ -42,6 +43,7 @@ public class ClinicService {
     private final AppointmentServiceClient appointmentServiceClient;
     private final PatientServiceClient patientServiceClient;
     private final AuthServiceClient authServiceClient;
+    private final NameChangePublisher nameChangePublisher;
 
     @Transactional(readOnly = true)
     public List<ClinicResponse> listAllEnabledClinics() {
@@ -110,6 +112,7 @@ public class ClinicService {
                 .orElseThrow(() -> new IllegalArgumentException("Clinic not found with id: " + id));
 
         // Update only non-null fields
+        boolean renamed = request.getName() != null && !request.getName().equals(clinic.getName());
         if (request.getName() != null) {
             clinic.setName(request.getName());
         }
@@ -137,6 +140,9 @@ public class ClinicService {
 
         Clinic saved = clinicRepository.save(clinic);
         log.info("Updated clinic {} with id {}", saved.getName(), id);
+        if (renamed) {
+            nameChangePublisher.clinicRenamed(id);
+        }
         return convertToDto(saved);
     }
 
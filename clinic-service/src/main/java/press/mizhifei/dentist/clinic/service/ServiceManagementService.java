@@ -4,12 +4,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import press.mizhifei.dentist.cache.names.NameChangePublisher;
 import press.mizhifei.dentist.clinic.dto.ServiceRequest;
 import press.mizhifei.dentist.clinic.dto.ServiceResponse;
 import press.mizhifei.dentist.clinic.repository.ClinicRepository;
 import press.mizhifei.dentist.clinic.repository.ServiceRepository;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +28,7 @@ public class ServiceManagementService {
     
     private final ServiceRepository serviceRepository;
     private final ClinicRepository clinicRepository;
+    private final NameChangePublisher nameChangePublisher;
     
     @Transactional
     public ServiceResponse createService(ServiceRequest request) {
@@ -54,6 +57,7 @@ public class ServiceManagementService {
         press.mizhifei.dentist.clinic.model.Service service = serviceRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Service not found"));
         
+        boolean renamed = !Objects.equals(service.getName(), request.getName());
         service.setName(request.getName());
         service.setDescription(request.getDescription());
         service.setDurationMinutes(request.getDurationMinutes());
@@ -63,6 +67,9 @@ public class ServiceManagementService {
         
         press.mizhifei.dentist.clinic.model.Service saved = serviceRepository.save(service);
         log.info("Updated service {}", id);
+        if (renamed) {
+            nameChangePublisher.serviceRenamed(id);
+        }
         
         return toResponse(saved);
     }
@@ -0,0 +1,51 @@
+package press.mizhifei.dentist.clinicalrecords.client;
+
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import press.mizhifei.dentist.cache.names.NameCaches;
+
+/**
+ * Resolves clinic and service names through the near-cache, falling back to clinic-service on a miss
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+@RequiredArgsConstructor
+public class ClinicNameResolver {
+
+    private final ClinicServiceClient clinicServiceClient;
+    private final NameCaches nameCaches;
+
+    /**
+     * @return the clinic's name, or null if clinic-service does not know the clinic
+     * @throws FeignException if clinic-service could not be reached
+     */
+    public String getClinicName(Long clinicId) {
+        return nameCaches.clinics().get(clinicId, id -> {
+            try {
+                ClinicResponse clinic = clinicServiceClient.getClinic(id);
+                return clinic != null ? clinic.getName() : null;
+            } catch (FeignException.NotFound e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * @return the service's name, or null if clinic-service does not know the service
+     * @throws FeignException if clinic-service could not be reached
+     */
+    public String getServiceName(Integer serviceId) {
+        return nameCaches.services().get(serviceId, id -> {
+            try {
+                ServiceResponse service = clinicServiceClient.getService(id);
+                return service != null ? service.getName() : null;
+            } catch (FeignException.NotFound e) {
+                return null;
+            }
+        });
+    }
+}
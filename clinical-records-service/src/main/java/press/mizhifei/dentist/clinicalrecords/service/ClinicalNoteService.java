@@ -4,8 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import press.mizhifei.dentist.clinicalrecords.client.AuthServiceClient;
-import press.mizhifei.dentist.clinicalrecords.client.ClinicServiceClient;
+import press.mizhifei.dentist.cache.names.UserNameResolver;
+import press.mizhifei.dentist.clinicalrecords.client.ClinicNameResolver;
 import press.mizhifei.dentist.clinicalrecords.dto.ClinicalNoteRequest;
 import press.mizhifei.dentist.clinicalrecords.dto.ClinicalNoteResponse;
 import press.mizhifei.dentist.clinicalrecords.model.ClinicalNote;
@@ -13,6 +13,7 @@ import press.mizhifei.dentist.clinicalrecords.repository.ClinicalNoteRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -28,8 +29,8 @@ import java.util.stream.Collectors;
 public class ClinicalNoteService {
     
     private final ClinicalNoteRepository clinicalNoteRepository;
-    private final AuthServiceClient authServiceClient;
-    private final ClinicServiceClient clinicServiceClient;
+    private final UserNameResolver userNameResolver;
+    private final ClinicNameResolver clinicNameResolver;
     
     @Transactional
     public ClinicalNoteResponse createClinicalNote(ClinicalNoteRequest request) {
@@ -129,7 +130,7 @@ public class ClinicalNoteService {
     @Transactional(readOnly = true)
     public List<ClinicalNoteResponse> getClinicClinicalNotes(Long clinicId) {
         List<ClinicalNote> notes = clinicalNoteRepository.findByClinicIdOrderByCreatedAtDesc(clinicId);
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
     }
     
     @Transactional(readOnly = true)
@@ -141,19 +142,19 @@ public class ClinicalNoteService {
             notes = clinicalNoteRepository.findSignedNotesByPatientId(patientId);
         }
         
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
     }
 
     @Transactional(readOnly = true)
     public List<ClinicalNoteResponse> getDentistClinicalNotes(Long dentistId) {
         List<ClinicalNote> notes = clinicalNoteRepository.findByDentistIdOrderByCreatedAtDesc(dentistId);
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
     }
     
     @Transactional(readOnly = true)
     public List<ClinicalNoteResponse> getDentistDraftNotes(Long dentistId) {
         List<ClinicalNote> notes = clinicalNoteRepository.findDraftNotesByDentistId(dentistId);
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
     }
     
     @Transactional(readOnly = true)
@@ -167,28 +168,41 @@ public class ClinicalNoteService {
     @Transactional(readOnly = true)
     public List<ClinicalNoteResponse> getVisitClinicalNotes(Long visitId) {
         List<ClinicalNote> notes = clinicalNoteRepository.findByVisitIdOrderByCreatedAtDesc(visitId);
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
     }
     
     @Transactional(readOnly = true)
     public List<ClinicalNoteResponse> getNoteVersions(Long parentNoteId) {
         List<ClinicalNote> notes = clinicalNoteRepository.findNoteVersions(parentNoteId);
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
     }
     
     @Transactional(readOnly = true)
     public List<ClinicalNoteResponse> searchPatientNotes(Long patientId, String searchTerm) {
         List<ClinicalNote> notes = clinicalNoteRepository.searchNotesByPatient(patientId, searchTerm);
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
     }
 
     @Transactional(readOnly = true)
     public List<ClinicalNoteResponse> getPatientNotesByCategory(Long patientId, String category) {
         List<ClinicalNote> notes = clinicalNoteRepository.findByPatientIdAndCategory(patientId, category);
-        return notes.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(notes);
+    }
+
+    private List<ClinicalNoteResponse> toResponses(List<ClinicalNote> notes) {
+        Map<Long, String> userNames = userNameResolver.resolve(notes,
+                ClinicalNote::getPatientId, ClinicalNote::getDentistId, ClinicalNote::getSignedBy);
+        return notes.stream()
+                .map(clinicalNote -> toResponse(clinicalNote, userNames))
+                .collect(Collectors.toList());
     }
 
     private ClinicalNoteResponse toResponse(ClinicalNote clinicalNote) {
+        return toResponse(clinicalNote, userNameResolver.resolve(List.of(clinicalNote),
+                ClinicalNote::getPatientId, ClinicalNote::getDentistId, ClinicalNote::getSignedBy));
+    }
+
+    private ClinicalNoteResponse toResponse(ClinicalNote clinicalNote, Map<Long, String> userNames) {
         ClinicalNoteResponse response = ClinicalNoteResponse.builder()
                 .id(clinicalNote.getId())
                 .appointmentId(clinicalNote.getAppointmentId())
@@ -215,30 +229,17 @@ public class ClinicalNoteService {
                 .signedBy(clinicalNote.getSignedBy())
                 .build();
         
-        // Fetch names from services
-        try {
-            response.setPatientName(authServiceClient.getUserFullName(clinicalNote.getPatientId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch patient name for id {}: {}", clinicalNote.getPatientId(), e.getMessage());
-        }
-        
-        try {
-            response.setDentistName(authServiceClient.getUserFullName(clinicalNote.getDentistId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch dentist name for id {}: {}", clinicalNote.getDentistId(), e.getMessage());
-        }
+        // User names resolved in one bulk call for the whole page
+        response.setPatientName(userNames.get(clinicalNote.getPatientId()));
+        response.setDentistName(userNames.get(clinicalNote.getDentistId()));
         
         if (clinicalNote.getSignedBy() != null) {
-            try {
-                response.setSignedByName(authServiceClient.getUserFullName(clinicalNote.getSignedBy()));
-            } catch (Exception e) {
-                log.warn("Failed to fetch signer name for id {}: {}", clinicalNote.getSignedBy(), e.getMessage());
-            }
+            response.setSignedByName(userNames.get(clinicalNote.getSignedBy()));
         }
         
         // Fetch clinic name
         try {
-            response.setClinicName(clinicServiceClient.getClinic(clinicalNote.getClinicId()).getName());
+            response.setClinicName(clinicNameResolver.getClinicName(clinicalNote.getClinicId()));
         } catch (Exception e) {
             log.warn("Failed to fetch clinic name for id {}: {}", clinicalNote.getClinicId(), e.getMessage());
         }
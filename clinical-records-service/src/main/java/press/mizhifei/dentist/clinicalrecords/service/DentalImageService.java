@@ -12,8 +12,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import press.mizhifei.dentist.clinicalrecords.client.AuthServiceClient;
-import press.mizhifei.dentist.clinicalrecords.client.ClinicServiceClient;
+import press.mizhifei.dentist.cache.names.UserNameResolver;
+import press.mizhifei.dentist.clinicalrecords.client.ClinicNameResolver;
 import press.mizhifei.dentist.clinicalrecords.config.FileUploadConfig;
 import press.mizhifei.dentist.clinicalrecords.dto.DentalImageResponse;
 import press.mizhifei.dentist.clinicalrecords.model.DentalImage;
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -40,8 +41,8 @@ import java.util.stream.Collectors;
 public class DentalImageService {
     
     private final DentalImageRepository dentalImageRepository;
-    private final AuthServiceClient authServiceClient;
-    private final ClinicServiceClient clinicServiceClient;
+    private final UserNameResolver userNameResolver;
+    private final ClinicNameResolver clinicNameResolver;
     private final GridFSBucket gridFSBucket;
     @Qualifier("thumbnailGridFSBucket")
     private final GridFSBucket thumbnailGridFSBucket;
@@ -190,37 +191,37 @@ public class DentalImageService {
     @Transactional(readOnly = true)
     public List<DentalImageResponse> getPatientImages(Long patientId) {
         List<DentalImage> images = dentalImageRepository.findByPatientIdOrderByCreatedAtDesc(patientId);
-        return images.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(images);
     }
     
     @Transactional(readOnly = true)
     public List<DentalImageResponse> getClinicalNoteImages(Long clinicalNoteId) {
         List<DentalImage> images = dentalImageRepository.findByClinicalNoteIdOrderByCreatedAtDesc(clinicalNoteId);
-        return images.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(images);
     }
     
     @Transactional(readOnly = true)
     public List<DentalImageResponse> getVisitImages(Long visitId) {
         List<DentalImage> images = dentalImageRepository.findByVisitIdOrderByCreatedAtDesc(visitId);
-        return images.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(images);
     }
     
     @Transactional(readOnly = true)
     public List<DentalImageResponse> getPatientImagesByType(Long patientId, String imageType) {
         List<DentalImage> images = dentalImageRepository.findByPatientIdAndImageType(patientId, imageType);
-        return images.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(images);
     }
     
     @Transactional(readOnly = true)
     public List<DentalImageResponse> getPatientImagesByTooth(Long patientId, String toothNumber) {
         List<DentalImage> images = dentalImageRepository.findByPatientIdAndToothNumber(patientId, toothNumber);
-        return images.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(images);
     }
     
     @Transactional(readOnly = true)
     public List<DentalImageResponse> searchPatientImagesByTag(Long patientId, String tag) {
         List<DentalImage> images = dentalImageRepository.findByPatientIdAndTag(patientId, tag);
-        return images.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(images);
     }
     
     private void validateImageFile(MultipartFile file) {
@@ -250,7 +251,18 @@ public class DentalImageService {
         }
     }
     
+    private List<DentalImageResponse> toResponses(List<DentalImage> images) {
+        Map<Long, String> userNames = userNameResolver.resolve(images, DentalImage::getPatientId, DentalImage::getDentistId);
+        return images.stream()
+                .map(dentalImage -> toResponse(dentalImage, userNames))
+                .collect(Collectors.toList());
+    }
+
     private DentalImageResponse toResponse(DentalImage dentalImage) {
+        return toResponse(dentalImage, userNameResolver.resolve(List.of(dentalImage), DentalImage::getPatientId, DentalImage::getDentistId));
+    }
+
+    private DentalImageResponse toResponse(DentalImage dentalImage, Map<Long, String> userNames) {
         DentalImageResponse response = DentalImageResponse.builder()
                 .id(dentalImage.getId())
                 .patientId(dentalImage.getPatientId())
@@ -275,21 +287,12 @@ public class DentalImageService {
                         "/clinical-records/image/" + dentalImage.getId() + "/thumbnail" : null)
                 .build();
         
-        // Fetch names from services
-        try {
-            response.setPatientName(authServiceClient.getUserFullName(dentalImage.getPatientId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch patient name for id {}: {}", dentalImage.getPatientId(), e.getMessage());
-        }
-        
-        try {
-            response.setDentistName(authServiceClient.getUserFullName(dentalImage.getDentistId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch dentist name for id {}: {}", dentalImage.getDentistId(), e.getMessage());
-        }
+        // User names resolved in one bulk call for the whole page
+        response.setPatientName(userNames.get(dentalImage.getPatientId()));
+        response.setDentistName(userNames.get(dentalImage.getDentistId()));
         
         try {
-            response.setClinicName(clinicServiceClient.getClinic(dentalImage.getClinicId()).getName());
+            response.setClinicName(clinicNameResolver.getClinicName(dentalImage.getClinicId()));
         } catch (Exception e) {
             log.warn("Failed to fetch clinic name for id {}: {}", dentalImage.getClinicId(), e.getMessage());
         }
@@ -4,8 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import press.mizhifei.dentist.clinicalrecords.client.AuthServiceClient;
-import press.mizhifei.dentist.clinicalrecords.client.ClinicServiceClient;
+import press.mizhifei.dentist.cache.names.UserNameResolver;
+import press.mizhifei.dentist.clinicalrecords.client.ClinicNameResolver;
 import press.mizhifei.dentist.clinicalrecords.dto.ServiceVisitRequest;
 import press.mizhifei.dentist.clinicalrecords.dto.ServiceVisitResponse;
 import press.mizhifei.dentist.clinicalrecords.model.ServiceVisit;
@@ -14,6 +14,7 @@ import press.mizhifei.dentist.clinicalrecords.repository.ServiceVisitRepository;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -29,8 +30,8 @@ import java.util.stream.Collectors;
 public class ServiceVisitService {
     
     private final ServiceVisitRepository serviceVisitRepository;
-    private final AuthServiceClient authServiceClient;
-    private final ClinicServiceClient clinicServiceClient;
+    private final UserNameResolver userNameResolver;
+    private final ClinicNameResolver clinicNameResolver;
     
     @Transactional
     public ServiceVisitResponse createServiceVisit(ServiceVisitRequest request) {
@@ -144,19 +145,19 @@ public class ServiceVisitService {
     @Transactional(readOnly = true)
     public List<ServiceVisitResponse> getPatientVisits(Long patientId) {
         List<ServiceVisit> visits = serviceVisitRepository.findByPatientIdOrderByVisitDateDesc(patientId);
-        return visits.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(visits);
     }
     
     @Transactional(readOnly = true)
     public List<ServiceVisitResponse> getDentistVisits(Long dentistId) {
         List<ServiceVisit> visits = serviceVisitRepository.findByDentistIdOrderByVisitDateDesc(dentistId);
-        return visits.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(visits);
     }
     
     @Transactional(readOnly = true)
     public List<ServiceVisitResponse> getClinicVisits(Long clinicId) {
         List<ServiceVisit> visits = serviceVisitRepository.findByClinicIdOrderByVisitDateDesc(clinicId);
-        return visits.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(visits);
     }
     
     @Transactional(readOnly = true)
@@ -172,16 +173,27 @@ public class ServiceVisitService {
                                                                  LocalDateTime startDate, 
                                                                  LocalDateTime endDate) {
         List<ServiceVisit> visits = serviceVisitRepository.findByPatientIdAndDateRange(patientId, startDate, endDate);
-        return visits.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(visits);
     }
     
     @Transactional(readOnly = true)
     public List<ServiceVisitResponse> getClinicVisitsByStatus(Long clinicId, String status) {
         List<ServiceVisit> visits = serviceVisitRepository.findByClinicIdAndStatus(clinicId, status);
-        return visits.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(visits);
     }
     
+    private List<ServiceVisitResponse> toResponses(List<ServiceVisit> visits) {
+        Map<Long, String> userNames = userNameResolver.resolve(visits, ServiceVisit::getPatientId, ServiceVisit::getDentistId);
+        return visits.stream()
+                .map(visit -> toResponse(visit, userNames))
+                .collect(Collectors.toList());
+    }
+
     private ServiceVisitResponse toResponse(ServiceVisit visit) {
+        return toResponse(visit, userNameResolver.resolve(List.of(visit), ServiceVisit::getPatientId, ServiceVisit::getDentistId));
+    }
+
+    private ServiceVisitResponse toResponse(ServiceVisit visit, Map<Long, String> userNames) {
         ServiceVisitResponse response = ServiceVisitResponse.builder()
                 .id(visit.getId())
                 .patientId(visit.getPatientId())
@@ -199,21 +211,12 @@ public class ServiceVisitService {
                 .updatedAt(visit.getUpdatedAt())
                 .build();
         
-        // Fetch names from services
-        try {
-            response.setPatientName(authServiceClient.getUserFullName(visit.getPatientId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch patient name for id {}: {}", visit.getPatientId(), e.getMessage());
-        }
-        
-        try {
-            response.setDentistName(authServiceClient.getUserFullName(visit.getDentistId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch dentist name for id {}: {}", visit.getDentistId(), e.getMessage());
-        }
+        // User names resolved in one bulk call for the whole page
+        response.setPatientName(userNames.get(visit.getPatientId()));
+        response.setDentistName(userNames.get(visit.getDentistId()));
         
         try {
-            response.setClinicName(clinicServiceClient.getClinic(visit.getClinicId()).getName());
+            response.setClinicName(clinicNameResolver.getClinicName(visit.getClinicId()));
         } catch (Exception e) {
             log.warn("Failed to fetch clinic name for id {}: {}", visit.getClinicId(), e.getMessage());
         }
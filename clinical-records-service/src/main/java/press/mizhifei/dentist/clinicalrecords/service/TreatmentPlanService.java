@@ -4,8 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import press.mizhifei.dentist.clinicalrecords.client.AuthServiceClient;
-import press.mizhifei.dentist.clinicalrecords.client.ClinicServiceClient;
+import press.mizhifei.dentist.cache.names.UserNameResolver;
+import press.mizhifei.dentist.clinicalrecords.client.ClinicNameResolver;
 import press.mizhifei.dentist.clinicalrecords.client.NotificationClient;
 import press.mizhifei.dentist.clinicalrecords.dto.TreatmentPlanRequest;
 import press.mizhifei.dentist.clinicalrecords.dto.TreatmentPlanResponse;
@@ -35,8 +35,8 @@ public class TreatmentPlanService {
     
     private final TreatmentPlanRepository treatmentPlanRepository;
     private final TreatmentPlanItemRepository treatmentPlanItemRepository;
-    private final AuthServiceClient authServiceClient;
-    private final ClinicServiceClient clinicServiceClient;
+    private final UserNameResolver userNameResolver;
+    private final ClinicNameResolver clinicNameResolver;
     private final NotificationClient notificationClient;
     
     @Transactional
@@ -206,19 +206,19 @@ public class TreatmentPlanService {
     @Transactional(readOnly = true)
     public List<TreatmentPlanResponse> getPatientTreatmentPlans(Long patientId) {
         List<TreatmentPlan> plans = treatmentPlanRepository.findByPatientIdOrderByCreatedAtDesc(patientId);
-        return plans.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(plans);
     }
     
     @Transactional(readOnly = true)
     public List<TreatmentPlanResponse> getDentistTreatmentPlans(Long dentistId) {
         List<TreatmentPlan> plans = treatmentPlanRepository.findByDentistIdOrderByCreatedAtDesc(dentistId);
-        return plans.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(plans);
     }
     
     @Transactional(readOnly = true)
     public List<TreatmentPlanResponse> getPlanVersions(Integer parentPlanId) {
         List<TreatmentPlan> plans = treatmentPlanRepository.findPlanVersions(parentPlanId);
-        return plans.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(plans);
     }
     
     private void sendTreatmentPlanNotification(TreatmentPlan plan, String action) {
@@ -232,7 +232,18 @@ public class TreatmentPlanService {
         notificationClient.sendNotification(notification);
     }
     
+    private List<TreatmentPlanResponse> toResponses(List<TreatmentPlan> plans) {
+        Map<Long, String> userNames = userNameResolver.resolve(plans, TreatmentPlan::getPatientId, TreatmentPlan::getDentistId);
+        return plans.stream()
+                .map(treatmentPlan -> toResponse(treatmentPlan, userNames))
+                .collect(Collectors.toList());
+    }
+
     private TreatmentPlanResponse toResponse(TreatmentPlan treatmentPlan) {
+        return toResponse(treatmentPlan, userNameResolver.resolve(List.of(treatmentPlan), TreatmentPlan::getPatientId, TreatmentPlan::getDentistId));
+    }
+
+    private TreatmentPlanResponse toResponse(TreatmentPlan treatmentPlan, Map<Long, String> userNames) {
         // Get treatment plan items
         List<TreatmentPlanItem> items = treatmentPlanItemRepository
                 .findByTreatmentPlanIdOrderBySequenceOrder(treatmentPlan.getId());
@@ -260,21 +271,12 @@ public class TreatmentPlanService {
                 .items(itemResponses)
                 .build();
         
-        // Fetch names from services
-        try {
-            response.setPatientName(authServiceClient.getUserFullName(treatmentPlan.getPatientId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch patient name for id {}: {}", treatmentPlan.getPatientId(), e.getMessage());
-        }
-        
-        try {
-            response.setDentistName(authServiceClient.getUserFullName(treatmentPlan.getDentistId()));
-        } catch (Exception e) {
-            log.warn("Failed to fetch dentist name for id {}: {}", treatmentPlan.getDentistId(), e.getMessage());
-        }
+        // User names resolved in one bulk call for the whole page
+        response.setPatientName(userNames.get(treatmentPlan.getPatientId()));
+        response.setDentistName(userNames.get(treatmentPlan.getDentistId()));
         
         try {
-            response.setClinicName(clinicServiceClient.getClinic(treatmentPlan.getClinicId()).getName());
+            response.setClinicName(clinicNameResolver.getClinicName(treatmentPlan.getClinicId()));
         } catch (Exception e) {
             log.warn("Failed to fetch clinic name for id {}: {}", treatmentPlan.getClinicId(), e.getMessage());
         }
@@ -297,7 +299,7 @@ public class TreatmentPlanService {
         // Fetch service name
         if (item.getServiceId() != null) {
             try {
-                response.setServiceName(clinicServiceClient.getService(item.getServiceId()).getName());
+                response.setServiceName(clinicNameResolver.getServiceName(item.getServiceId()));
             } catch (Exception e) {
                 log.warn("Failed to fetch service name for id {}: {}", item.getServiceId(), e.getMessage());
             }
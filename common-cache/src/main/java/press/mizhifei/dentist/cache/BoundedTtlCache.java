@@ -0,0 +1,127 @@
+package press.mizhifei.dentist.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded concurrent map whose entries expire at a time given per entry
+ * Reads are lock-free. An insert into a full cache first drops the expired entries, then arbitrary ones until a
+ * tenth of the capacity is free again, trading recency for cheap eviction. A value loaded while an invalidation
+ * happened can be discarded through {@link #invalidationStamp()}. With a max size of zero nothing is kept.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    /**
+     * @param maxSize maximum number of entries, zero or less disables the cache
+     * @param clock current time in milliseconds, the time base of all expiry times
+     */
+    public BoundedTtlCache(int maxSize, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * @return the current time of the cache's clock, in milliseconds
+     */
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * @return the entry of the key if it has not expired, otherwise null; its value may be null for a cached absence
+     */
+    public Entry<V> getEntry(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * @return the value of the key if present and not expired, otherwise null
+     */
+    public V get(K key) {
+        Entry<V> entry = getEntry(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * @param expiresAt time at which the entry expires, on the cache's clock
+     */
+    public void put(K key, V value, long expiresAt) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Caches a loaded value unless an invalidation happened since the stamp was taken
+     * @param stamp {@link #invalidationStamp()} taken before the value was loaded
+     */
+    public void put(K key, V value, long expiresAt, long stamp) {
+        put(key, value, expiresAt);
+        if (invalidations.get() != stamp) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * @return a stamp to take before loading a value, see {@link #put(Object, Object, long, long)}
+     */
+    public long invalidationStamp() {
+        return invalidations.get();
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        Iterator<K> keys = entries.keySet().iterator();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    public record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,166 @@
+package press.mizhifei.dentist.cache.names;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import press.mizhifei.dentist.cache.BoundedTtlCache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded, TTL-expiring near-cache of display names fetched from another service
+ * Ids the owning service does not know are cached as absent for the shorter negative TTL, so they are not
+ * refetched on every read; failed lookups are not cached at all. {@link #invalidate(Object)} drops a renamed entry,
+ * and a load that raced with an invalidation is not cached. Lookups, hit ratio and load latency are exported
+ * as names.cache.* metrics tagged with the cache name.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+public class NameCache<K> {
+
+    private final String name;
+    private final BoundedTtlCache<K, String> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final Timer loadTimer;
+
+    public NameCache(String name, int maxSize, Duration ttl, Duration negativeTtl, MeterRegistry meterRegistry) {
+        this(name, maxSize, ttl, negativeTtl, meterRegistry, System::currentTimeMillis);
+    }
+
+    NameCache(String name, int maxSize, Duration ttl, Duration negativeTtl, MeterRegistry meterRegistry,
+              LongSupplier clock) {
+        this.name = name;
+        this.entries = new BoundedTtlCache<>(maxSize, clock);
+        this.ttlMillis = ttl.toMillis();
+        this.negativeTtlMillis = negativeTtl.toMillis();
+
+        this.loadTimer = Timer.builder("names.cache.load")
+                .description("Time spent fetching names missing from the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("names.cache.requests", hits, LongAdder::sum)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("names.cache.requests", misses, LongAdder::sum)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("names.cache.hit.ratio", this, NameCache::hitRatio)
+                .description("Share of name lookups answered from the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("names.cache.size", entries, BoundedTtlCache::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached name, loading it on a miss or after expiry
+     * @param id the id to resolve
+     * @param loader fetches the name; returns null if the id does not exist, throws if the lookup failed
+     * @return the name, or null if the id does not exist
+     */
+    public String get(K id, Function<K, String> loader) {
+        BoundedTtlCache.Entry<String> entry = entries.getEntry(id);
+        if (entry != null) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+
+        long now = entries.now();
+        long stamp = entries.invalidationStamp();
+        String loaded = loadTimer.record(() -> loader.apply(id));
+        put(id, loaded, now, stamp);
+        return loaded;
+    }
+
+    /**
+     * Returns the names of all given ids, fetching the missing ones with a single call of the loader
+     * @param ids the ids to resolve
+     * @param loader fetches the names of the ids it is given; ids left out of its result do not exist
+     * @return name by id, without the ids that do not exist or could not be fetched
+     */
+    public Map<K, String> getAll(Collection<K> ids, Function<Set<K>, Map<K, String>> loader) {
+        Map<K, String> names = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        for (K id : ids) {
+            BoundedTtlCache.Entry<String> entry = entries.getEntry(id);
+            if (entry != null) {
+                if (entry.value() != null) {
+                    names.put(id, entry.value());
+                }
+            } else {
+                missing.add(id);
+            }
+        }
+        hits.add(ids.size() - missing.size());
+        misses.add(missing.size());
+        if (missing.isEmpty()) {
+            return names;
+        }
+
+        long now = entries.now();
+        long stamp = entries.invalidationStamp();
+        Map<K, String> loaded;
+        try {
+            loaded = loadTimer.record(() -> loader.apply(missing));
+        } catch (RuntimeException e) {
+            log.warn("Failed to fetch {} {} names: {}", missing.size(), name, e.getMessage());
+            return names;
+        }
+        for (K id : missing) {
+            String loadedName = loaded.get(id);
+            put(id, loadedName, now, stamp);
+            if (loadedName != null) {
+                names.put(id, loadedName);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Drops the cached name of a renamed or deleted id
+     */
+    public void invalidate(K id) {
+        entries.invalidate(id);
+        log.debug("Invalidated cached {} name of {}", name, id);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+        log.debug("Invalidated all cached {} names", name);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private void put(K id, String loadedName, long now, long stamp) {
+        long ttl = loadedName != null ? ttlMillis : negativeTtlMillis;
+        entries.put(id, loadedName, now + ttl, stamp);
+    }
+}
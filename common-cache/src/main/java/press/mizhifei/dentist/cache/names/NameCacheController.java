@@ -0,0 +1,30 @@
+package press.mizhifei.dentist.cache.names;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives rename events for the name near-caches
+ * Called on every instance directly by {@link NameChangePublisher}; under /internal, so not routed by the gateway.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@RestController
+@RequiredArgsConstructor
+public class NameCacheController {
+
+    public static final String INVALIDATION_PATH = "/internal/name-cache/invalidations";
+
+    private final NameCaches nameCaches;
+
+    @PostMapping(INVALIDATION_PATH)
+    public ResponseEntity<Void> invalidate(@RequestBody NameChangedEvent event) {
+        nameCaches.invalidate(event);
+        return ResponseEntity.noContent().build();
+    }
+}
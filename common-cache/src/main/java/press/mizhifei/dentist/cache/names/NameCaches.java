@@ -0,0 +1,63 @@
+package press.mizhifei.dentist.cache.names;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Near-caches of the user, clinic and service names shown on appointments and clinical records
+ * Entries expire after app.name-cache.ttl even if a rename event is lost.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+public class NameCaches {
+
+    private final NameCache<Long> users;
+    private final NameCache<Long> clinics;
+    private final NameCache<Integer> services;
+
+    public NameCaches(MeterRegistry meterRegistry,
+                      @Value("${app.name-cache.max-size:10000}") int maxSize,
+                      @Value("${app.name-cache.ttl:10m}") Duration ttl,
+                      @Value("${app.name-cache.negative-ttl:1m}") Duration negativeTtl) {
+        this.users = new NameCache<>("user", maxSize, ttl, negativeTtl, meterRegistry);
+        this.clinics = new NameCache<>("clinic", maxSize, ttl, negativeTtl, meterRegistry);
+        this.services = new NameCache<>("service", maxSize, ttl, negativeTtl, meterRegistry);
+    }
+
+    public NameCache<Long> users() {
+        return users;
+    }
+
+    public NameCache<Long> clinics() {
+        return clinics;
+    }
+
+    public NameCache<Integer> services() {
+        return services;
+    }
+
+    /**
+     * Drops the cached name a rename event refers to
+     */
+    public void invalidate(NameChangedEvent event) {
+        switch (event.type()) {
+            case USER -> invalidate(users, event.id());
+            case CLINIC -> invalidate(clinics, event.id());
+            case SERVICE -> invalidate(services, event.id() != null ? event.id().intValue() : null);
+        }
+    }
+
+    private static <K> void invalidate(NameCache<K> cache, K id) {
+        if (id == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(id);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package press.mizhifei.dentist.cache.names;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tells every instance of the services caching names that a user, clinic or service was renamed
+ * Events go out after the transaction commits, on a background thread, directly to each instance found in
+ * discovery; an instance that misses one serves the old name until its cache entry expires.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Slf4j
+@Component
+public class NameChangePublisher implements DisposableBean {
+
+    private final DiscoveryClient discoveryClient;
+    private final List<String> subscribers;
+    private final RestClient restClient;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "name-change-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NameChangePublisher(DiscoveryClient discoveryClient,
+                               @Value("${app.name-cache.subscribers:appointment-service,clinical-records-service}") String subscribers,
+                               @Value("${app.name-cache.publish-timeout:2s}") Duration timeout) {
+        this.discoveryClient = discoveryClient;
+        this.subscribers = Arrays.stream(subscribers.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    public void userRenamed(Long userId) {
+        publish(new NameChangedEvent(NameChangedEvent.Type.USER, userId));
+    }
+
+    public void clinicRenamed(Long clinicId) {
+        publish(new NameChangedEvent(NameChangedEvent.Type.CLINIC, clinicId));
+    }
+
+    public void serviceRenamed(Integer serviceId) {
+        publish(new NameChangedEvent(NameChangedEvent.Type.SERVICE, serviceId.longValue()));
+    }
+
+    private void publish(NameChangedEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(() -> send(event));
+                }
+            });
+        } else {
+            executor.execute(() -> send(event));
+        }
+    }
+
+    private void send(NameChangedEvent event) {
+        for (String serviceId : subscribers) {
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                try {
+                    restClient.post()
+                            .uri(instance.getUri().resolve(NameCacheController.INVALIDATION_PATH))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(event)
+                            .retrieve()
+                            .toBodilessEntity();
+                } catch (Exception e) {
+                    log.warn("Failed to send {} name change of {} to {} at {}: {}",
+                            event.type(), event.id(), serviceId, instance.getUri(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
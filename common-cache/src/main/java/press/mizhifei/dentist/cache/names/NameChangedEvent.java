@@ -0,0 +1,18 @@
+package press.mizhifei.dentist.cache.names;
+
+/**
+ * Published by auth-service, user-profile-service and clinic-service when a user, clinic or service is renamed
+ * A null id invalidates every cached name of the type.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public record NameChangedEvent(Type type, Long id) {
+
+    public enum Type {
+        USER,
+        CLINIC,
+        SERVICE
+    }
+}
@@ -0,0 +1,26 @@
+package press.mizhifei.dentist.cache.names;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Bulk user names lookup served by auth-service and user-profile-service
+ * Extended by the Feign client of a consuming service; the path is not routed by the gateway.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public interface UserDirectoryClient {
+
+    /**
+     * Most ids one call may ask for; the endpoints reject larger requests
+     */
+    int MAX_IDS_PER_CALL = 200;
+
+    @GetMapping("/internal/user/names")
+    Map<Long, String> getUserFullNames(@RequestParam("ids") Collection<Long> userIds);
+}
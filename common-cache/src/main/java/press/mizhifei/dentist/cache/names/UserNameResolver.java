@@ -0,0 +1,70 @@
+package press.mizhifei.dentist.cache.names;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resolves the display names of all users referenced by a page of records with one directory call
+ * Ids are collected from every row, deduplicated, looked up in the near-cache and only the missing ones fetched
+ * through the bulk names endpoint, instead of a Feign round trip per id. Names that cannot be fetched are simply
+ * absent from the result.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Component
+@RequiredArgsConstructor
+public class UserNameResolver {
+
+    private final UserDirectoryClient userDirectoryClient;
+    private final NameCaches nameCaches;
+
+    /**
+     * Resolves the names of the users referenced by the given rows
+     * @param rows records of one response page
+     * @param userIdGetters extract the user ids to resolve from a row; null ids are skipped
+     * @return full name by user id
+     */
+    @SafeVarargs
+    public final <T> Map<Long, String> resolve(Collection<T> rows, Function<T, Long>... userIdGetters) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (T row : rows) {
+            for (Function<T, Long> getter : userIdGetters) {
+                Long userId = getter.apply(row);
+                if (userId != null) {
+                    userIds.add(userId);
+                }
+            }
+        }
+        return resolve(userIds);
+    }
+
+    /**
+     * Resolves the names of the given users, from the near-cache where possible
+     * @param userIds user ids, deduplicated here
+     * @return full name by user id
+     */
+    public Map<Long, String> resolve(Set<Long> userIds) {
+        return nameCaches.users().getAll(userIds, this::fetch);
+    }
+
+    private Map<Long, String> fetch(Set<Long> userIds) {
+        Map<Long, String> names = new HashMap<>();
+        List<Long> ids = new ArrayList<>(userIds);
+        int chunk = UserDirectoryClient.MAX_IDS_PER_CALL;
+        for (int from = 0; from < ids.size(); from += chunk) {
+            names.putAll(userDirectoryClient.getUserFullNames(ids.subList(from, Math.min(ids.size(), from + chunk))));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,114 @@
+package press.mizhifei.dentist.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedTtlCache
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class BoundedTtlCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    void testEntriesExpireAtTheirOwnTime() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, clock::get);
+        cache.put("short", "a", 1_100);
+        cache.put("long", "b", 2_000);
+
+        // When
+        clock.set(1_100);
+
+        // Then
+        assertNull(cache.get("short"));
+        assertEquals("b", cache.get("long"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testAbsentValueIsCachedAsAnEntry() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, clock::get);
+
+        // When
+        cache.put("unknown", null, 2_000);
+
+        // Then
+        assertNotNull(cache.getEntry("unknown"));
+        assertNull(cache.getEntry("unknown").value());
+        assertNull(cache.getEntry("other"));
+    }
+
+    @Test
+    void testFullCacheDropsExpiredEntriesFirst() {
+        // Given
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>(10, clock::get);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "v" + i, i < 5 ? 1_100 : 5_000);
+        }
+        clock.set(1_200);
+
+        // When
+        cache.put(10, "v10", 5_000);
+
+        // Then
+        assertEquals(6, cache.size());
+        for (int i = 5; i <= 10; i++) {
+            assertEquals("v" + i, cache.get(i));
+        }
+    }
+
+    @Test
+    void testFullCacheFreesATenthOfItsCapacity() {
+        // Given
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>(100, clock::get);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "v" + i, 5_000);
+        }
+
+        // When
+        cache.put(100, "v100", 5_000);
+
+        // Then
+        assertEquals(91, cache.size());
+        assertEquals("v100", cache.get(100));
+    }
+
+    @Test
+    void testValueLoadedAcrossAnInvalidationIsNotKept() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, clock::get);
+        long stamp = cache.invalidationStamp();
+
+        // When
+        cache.invalidate("other");
+        cache.put("key", "stale", 2_000, stamp);
+        cache.put("fresh", "value", 2_000, cache.invalidationStamp());
+
+        // Then
+        assertNull(cache.get("key"));
+        assertEquals("value", cache.get("fresh"));
+    }
+
+    @Test
+    void testZeroMaxSizeKeepsNothing() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(0, clock::get);
+
+        // When
+        cache.put("key", "value", 2_000);
+
+        // Then
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,55 @@
+package press.mizhifei.dentist.cache.names;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NameCacheController
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class NameCacheControllerTest {
+
+    private final NameCaches nameCaches = new NameCaches(new SimpleMeterRegistry(), 100,
+            Duration.ofMinutes(10), Duration.ofMinutes(1));
+    private final NameCacheController controller = new NameCacheController(nameCaches);
+
+    @Test
+    void testRenameEventDropsOnlyTheRenamedId() {
+        // Given
+        nameCaches.users().getAll(List.of(1L, 2L), ids -> Map.of(1L, "Old Name", 2L, "Other User"));
+        nameCaches.clinics().get(1L, id -> "Clinic");
+
+        // When
+        ResponseEntity<Void> response = controller.invalidate(new NameChangedEvent(NameChangedEvent.Type.USER, 1L));
+
+        // Then
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("New Name", nameCaches.users().get(1L, id -> "New Name"));
+        assertEquals("Other User", nameCaches.users().get(2L, id -> fail("unrelated user was invalidated")));
+        assertEquals("Clinic", nameCaches.clinics().get(1L, id -> fail("clinic cache was invalidated")));
+    }
+
+    @Test
+    void testEventWithoutIdDropsEveryNameOfItsType() {
+        // Given
+        nameCaches.services().get(1, id -> "Cleaning");
+        nameCaches.services().get(2, id -> "Filling");
+
+        // When
+        controller.invalidate(new NameChangedEvent(NameChangedEvent.Type.SERVICE, null));
+
+        // Then
+        assertEquals(0, nameCaches.services().size());
+    }
+}
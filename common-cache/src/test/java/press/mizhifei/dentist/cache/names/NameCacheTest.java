@@ -0,0 +1,172 @@
+package press.mizhifei.dentist.cache.names;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NameCache
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class NameCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final NameCache<Long> cache = new NameCache<>("user", 10, Duration.ofMinutes(10),
+            Duration.ofMinutes(1), new SimpleMeterRegistry(), now::get);
+
+    @Test
+    void testNameIsServedFromCacheUntilTtlExpires() {
+        // When
+        String first = cache.get(1L, this::load);
+        now.addAndGet(Duration.ofMinutes(9).toMillis());
+        String cached = cache.get(1L, this::load);
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        String reloaded = cache.get(1L, this::load);
+
+        // Then
+        assertEquals("User 1", first);
+        assertEquals("User 1", cached);
+        assertEquals("User 1", reloaded);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testUnknownIdIsCachedForTheNegativeTtlOnly() {
+        // When
+        String first = cache.get(404L, this::load);
+        String cached = cache.get(404L, this::load);
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        String reloaded = cache.get(404L, this::load);
+
+        // Then
+        assertNull(first);
+        assertNull(cached);
+        assertNull(reloaded);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testBulkLoadFetchesOnlyMissingIdsAndCachesAbsentOnes() {
+        // Given
+        cache.get(1L, this::load);
+
+        // When
+        Map<Long, String> first = cache.getAll(List.of(1L, 2L, 404L), this::loadAll);
+        Map<Long, String> second = cache.getAll(List.of(1L, 2L, 404L), this::loadAll);
+
+        // Then
+        assertEquals(Map.of(1L, "User 1", 2L, "User 2"), first);
+        assertEquals(first, second);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testFailedBulkLoadIsNotCached() {
+        // When
+        Map<Long, String> failed = cache.getAll(List.of(1L, 2L), ids -> {
+            throw new IllegalStateException("auth-service unavailable");
+        });
+        Map<Long, String> retried = cache.getAll(List.of(1L, 2L), this::loadAll);
+
+        // Then
+        assertTrue(failed.isEmpty());
+        assertEquals(Map.of(1L, "User 1", 2L, "User 2"), retried);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadRacingWithInvalidationIsNotCached() {
+        // Given
+        cache.get(1L, this::load);
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        // When
+        String stale = cache.get(1L, id -> {
+            // The rename commits while the old name is on its way back
+            cache.invalidate(id);
+            return "Old Name";
+        });
+        String fresh = cache.get(1L, this::load);
+
+        // Then
+        assertEquals("Old Name", stale);
+        assertEquals("User 1", fresh);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidatedNameIsReloaded() {
+        // Given
+        cache.get(1L, this::load);
+
+        // When
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testFullCacheDropsExpiredEntriesFirst() {
+        // Given
+        for (long id = 1; id <= 5; id++) {
+            cache.get(id, this::load);
+        }
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        for (long id = 6; id <= 10; id++) {
+            cache.get(id, this::load);
+        }
+        now.addAndGet(Duration.ofMinutes(6).toMillis());
+
+        // When
+        cache.get(11L, this::load);
+
+        // Then
+        assertEquals(6, cache.size());
+        loads.set(0);
+        cache.getAll(List.of(6L, 7L, 8L, 9L, 10L, 11L), this::loadAll);
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testFullCacheWithoutExpiredEntriesStaysWithinItsBound() {
+        // When
+        for (long id = 1; id <= 25; id++) {
+            cache.get(id, this::load);
+        }
+
+        // Then
+        assertTrue(cache.size() <= 10);
+        assertEquals("User 25", cache.get(25L, id -> fail("most recent entry was evicted")));
+    }
+
+    private String load(Long id) {
+        loads.incrementAndGet();
+        return id == 404L ? null : "User " + id;
+    }
+
+    private Map<Long, String> loadAll(Set<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        for (Long id : ids) {
+            String name = load(id);
+            if (name != null) {
+                names.put(id, name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,109 @@
+package press.mizhifei.dentist.cache.names;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NameChangePublisher
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class NameChangePublisherTest {
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+    private CountDownLatch delivered;
+    private HttpServer server;
+    private NameChangePublisher publisher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(NameCacheController.INVALIDATION_PATH, exchange -> {
+            received.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            delivered.countDown();
+        });
+        server.start();
+
+        when(discoveryClient.getInstances("appointment-service"))
+                .thenReturn(List.of(instance("appointment-service", unusedPort()),
+                        instance("appointment-service", server.getAddress().getPort())));
+        when(discoveryClient.getInstances("clinical-records-service"))
+                .thenReturn(List.of(instance("clinical-records-service", server.getAddress().getPort())));
+        publisher = new NameChangePublisher(discoveryClient, "appointment-service, clinical-records-service",
+                Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void testRenameReachesEveryInstanceDespiteAnUnreachableOne() throws InterruptedException {
+        // Given
+        delivered = new CountDownLatch(2);
+
+        // When
+        publisher.userRenamed(7L);
+
+        // Then
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("{\"type\":\"USER\",\"id\":7}", "{\"type\":\"USER\",\"id\":7}"), received);
+    }
+
+    @Test
+    void testRenameInsideTransactionIsSentOnlyAfterCommit() throws InterruptedException {
+        // Given
+        delivered = new CountDownLatch(2);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            publisher.serviceRenamed(5);
+
+            // Then
+            verify(discoveryClient, never()).getInstances(anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("{\"type\":\"SERVICE\",\"id\":5}", "{\"type\":\"SERVICE\",\"id\":5}"), received);
+    }
+
+    private static ServiceInstance instance(String serviceId, int port) {
+        return new DefaultServiceInstance(serviceId + "-" + port, serviceId, "127.0.0.1", port, false);
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
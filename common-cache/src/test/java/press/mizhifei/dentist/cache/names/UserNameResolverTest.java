@@ -0,0 +1,62 @@
+package press.mizhifei.dentist.cache.names;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserNameResolver
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class UserNameResolverTest {
+
+    private final List<Collection<Long>> calls = new ArrayList<>();
+    private final UserDirectoryClient client = userIds -> {
+        calls.add(List.copyOf(userIds));
+        Map<Long, String> names = new HashMap<>();
+        userIds.stream().filter(id -> id != 404L).forEach(id -> names.put(id, "User " + id));
+        return names;
+    };
+    private final UserNameResolver resolver = new UserNameResolver(client,
+            new NameCaches(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10), Duration.ofMinutes(1)));
+
+    @Test
+    void testIdsOfAPageAreDeduplicatedAndFetchedOnce() {
+        // Given
+        List<long[]> rows = List.of(new long[]{1, 2}, new long[]{2, 404}, new long[]{1, 3});
+
+        // When
+        Map<Long, String> names = resolver.resolve(rows, row -> row[0], row -> row[1]);
+        Map<Long, String> again = resolver.resolve(rows, row -> row[0], row -> row[1]);
+
+        // Then
+        assertEquals(Map.of(1L, "User 1", 2L, "User 2", 3L, "User 3"), names);
+        assertEquals(names, again);
+        assertEquals(List.of(List.of(1L, 2L, 404L, 3L)), calls);
+    }
+
+    @Test
+    void testLargePagesAreSplitIntoCallsTheEndpointAccepts() {
+        // When
+        Map<Long, String> names = resolver.resolve(
+                LongStream.rangeClosed(1001, 1450).boxed().collect(Collectors.toSet()));
+
+        // Then
+        assertEquals(450, names.size());
+        assertEquals(3, calls.size());
+        assertTrue(calls.stream().allMatch(call -> call.size() <= UserDirectoryClient.MAX_IDS_PER_CALL));
+    }
+}
@@ -0,0 +1,72 @@
+package press.mizhifei.dentist.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outstanding requests and peak-EWMA latency of one service instance
+ * A slower response raises the average at once, faster ones pull it down gradually, and without new
+ * responses it decays towards zero so an instance that was avoided is eventually tried again.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class InstanceStats {
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final double decayNanos;
+
+    private double latencyNanos;
+    private long stampNanos;
+
+    public InstanceStats(long initialLatencyNanos, long decayNanos, long nowNanos) {
+        this.decayNanos = decayNanos;
+        this.latencyNanos = initialLatencyNanos;
+        this.stampNanos = nowNanos;
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Latency average as of the given time, decayed since the last response
+     */
+    public synchronized double latencyNanos(long nowNanos) {
+        return latencyNanos * weight(nowNanos);
+    }
+
+    /**
+     * Expected cost of sending one more request: the latency average scaled by the requests already waiting
+     */
+    public double score(long nowNanos) {
+        return (latencyNanos(nowNanos) + 1) * (outstanding.get() + 1);
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void cancelled() {
+        outstanding.decrementAndGet();
+    }
+
+    void completed(long rttNanos, long nowNanos) {
+        outstanding.decrementAndGet();
+        observe(rttNanos, nowNanos);
+    }
+
+    private synchronized void observe(long rttNanos, long nowNanos) {
+        if (rttNanos > latencyNanos) {
+            latencyNanos = rttNanos;
+        } else {
+            double weight = weight(nowNanos);
+            latencyNanos = latencyNanos * weight + rttNanos * (1 - weight);
+        }
+        stampNanos = Math.max(stampNanos, nowNanos);
+    }
+
+    private double weight(long nowNanos) {
+        return Math.exp(-Math.max(nowNanos - stampNanos, 0) / decayNanos);
+    }
+}
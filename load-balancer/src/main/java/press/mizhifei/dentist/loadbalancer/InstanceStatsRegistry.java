@@ -0,0 +1,162 @@
+package press.mizhifei.dentist.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Statistics and per-instance metrics of every instance the load balancers have seen, by service
+ * Instances that leave the discovery list are dropped with their meters the next time the service is balanced.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class InstanceStatsRegistry {
+
+    private final Map<String, Map<String, Entry>> services = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long initialLatencyNanos;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier clock;
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry, LatencyAwareLoadBalancerProperties properties) {
+        this(meterRegistry, properties, System::nanoTime);
+    }
+
+    InstanceStatsRegistry(MeterRegistry meterRegistry, LatencyAwareLoadBalancerProperties properties,
+                          LongSupplier clock) {
+        this.meterRegistry = meterRegistry;
+        this.initialLatencyNanos = properties.getInitialLatency().toNanos();
+        this.decayNanos = Math.max(properties.getDecay().toNanos(), 1);
+        this.failurePenaltyNanos = properties.getFailurePenalty().toNanos();
+        this.clock = clock;
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public InstanceStats stats(ServiceInstance instance) {
+        return entry(instance).stats;
+    }
+
+    /**
+     * Counts a request sent to the instance as outstanding until it completes or is cancelled
+     */
+    public InFlight start(ServiceInstance instance) {
+        Entry entry = entry(instance);
+        entry.stats.started();
+        return new InFlight(entry, now());
+    }
+
+    /**
+     * Drops instances of the service that are no longer in its discovery list
+     */
+    public void retain(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return;
+        }
+        Map<String, Entry> entries = services.get(serviceId(instances.get(0)));
+        if (entries == null || entries.size() <= instances.size()) {
+            return;
+        }
+        Set<String> current = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            current.add(instanceId(instance));
+        }
+        entries.entrySet().removeIf(entry -> {
+            if (current.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().meters.forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    private Entry entry(ServiceInstance instance) {
+        return services.computeIfAbsent(serviceId(instance), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(instanceId(instance), id -> newEntry(serviceId(instance), id));
+    }
+
+    private Entry newEntry(String serviceId, String instanceId) {
+        InstanceStats stats = new InstanceStats(initialLatencyNanos, decayNanos, now());
+        Tags tags = Tags.of("service", serviceId, "instance", instanceId);
+        Timer success = Timer.builder("loadbalancer.instance.requests")
+                .description("Requests sent to a service instance by the load balancer")
+                .tags(tags)
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        Timer failure = Timer.builder("loadbalancer.instance.requests")
+                .description("Requests sent to a service instance by the load balancer")
+                .tags(tags)
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        Gauge outstanding = Gauge.builder("loadbalancer.instance.outstanding", stats, InstanceStats::outstanding)
+                .description("Requests sent to a service instance that have not completed")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge latency = Gauge.builder("loadbalancer.instance.latency",
+                        stats, s -> s.latencyNanos(now()) / TimeUnit.MILLISECONDS.toNanos(1))
+                .description("Peak-EWMA latency of a service instance as seen by the load balancer")
+                .baseUnit("milliseconds")
+                .tags(tags)
+                .register(meterRegistry);
+        return new Entry(stats, success, failure, List.of(success, failure, outstanding, latency));
+    }
+
+    private static String serviceId(ServiceInstance instance) {
+        return instance.getServiceId() != null ? instance.getServiceId().toLowerCase(Locale.ROOT) : "unknown";
+    }
+
+    private static String instanceId(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private record Entry(InstanceStats stats, Timer success, Timer failure, List<Meter> meters) {
+    }
+
+    /**
+     * A request counted against an instance, completed or cancelled exactly once by its caller
+     */
+    public final class InFlight {
+
+        private final Entry entry;
+        private final long startNanos;
+
+        private InFlight(Entry entry, long startNanos) {
+            this.entry = entry;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Feeds the round-trip time into the instance latency, at least the failure penalty for a failed request
+         */
+        public void complete(boolean failed) {
+            long nowNanos = now();
+            long rttNanos = nowNanos - startNanos;
+            entry.stats.completed(failed ? Math.max(rttNanos, failurePenaltyNanos) : rttNanos, nowNanos);
+            (failed ? entry.failure : entry.success).record(rttNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Releases the request without a latency sample, for callers that went away before the response
+         */
+        public void cancel() {
+            entry.stats.cancelled();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package press.mizhifei.dentist.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Makes the latency-aware load balancer the default for every load-balanced client of the application,
+ * which covers the gateway's lb:// routes and all Feign clients
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "dentistdss.load-balancer", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LatencyAwareLoadBalancerProperties.class)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LatencyAwareLoadBalancerAutoConfiguration {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(ObjectProvider<MeterRegistry> meterRegistry,
+                                                       LatencyAwareLoadBalancerProperties properties) {
+        return new InstanceStatsRegistry(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), properties);
+    }
+
+    @Bean
+    public LatencyTrackingLifecycle latencyTrackingLifecycle(InstanceStatsRegistry registry) {
+        return new LatencyTrackingLifecycle(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package press.mizhifei.dentist.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Latency-aware instance selection for lb:// routes and Feign clients
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+@Data
+@ConfigurationProperties(prefix = "dentistdss.load-balancer")
+public class LatencyAwareLoadBalancerProperties {
+
+    /**
+     * Replaces round robin for every load-balanced client when enabled
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time constant of the latency average; an instance that stops receiving traffic looks faster
+     * over this period, so it is tried again
+     */
+    private Duration decay = Duration.ofSeconds(10);
+
+    /**
+     * Latency assumed for an instance before its first response, so a new instance is tried but not flooded
+     */
+    private Duration initialLatency = Duration.ofMillis(100);
+
+    /**
+     * Latency recorded for a failed request or a 5xx response when the failure itself was faster
+     */
+    private Duration failurePenalty = Duration.ofSeconds(1);
+}
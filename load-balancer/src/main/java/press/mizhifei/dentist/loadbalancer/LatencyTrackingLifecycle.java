@@ -0,0 +1,97 @@
+package press.mizhifei.dentist.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+import java.util.Map;
+
+/**
+ * Feeds outstanding requests and response times of load-balanced calls into the instance statistics
+ * The gateway's load balancer filter and the Feign load balancer client both report through this lifecycle.
+ * The in-flight request is kept in the request attributes, which for the gateway are the exchange attributes,
+ * so a request the client cancels can be released with {@link #cancel(Map)}.
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+public class LatencyTrackingLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    public static final String IN_FLIGHT_ATTR = LatencyTrackingLifecycle.class.getName() + ".inFlight";
+
+    private final InstanceStatsRegistry registry;
+
+    public LatencyTrackingLifecycle(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        Map<String, Object> attributes = attributes(request);
+        if (attributes == null || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStatsRegistry.InFlight inFlight = registry.start(lbResponse.getServer());
+        try {
+            attributes.put(IN_FLIGHT_ATTR, inFlight);
+        } catch (UnsupportedOperationException e) {
+            // Read-only attributes (WebClient requests): balanced on latency history only
+            inFlight.cancel();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        InstanceStatsRegistry.InFlight inFlight = take(attributes(completionContext.getLoadBalancerRequest()));
+        if (inFlight == null) {
+            return;
+        }
+        ResponseData response = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (response != null && response.getHttpStatus() != null
+                && response.getHttpStatus().is5xxServerError());
+        inFlight.complete(failed);
+    }
+
+    /**
+     * Releases the request that is still in flight for these attributes, if any
+     */
+    public static void cancel(Map<String, Object> attributes) {
+        InstanceStatsRegistry.InFlight inFlight = take(attributes);
+        if (inFlight != null) {
+            inFlight.cancel();
+        }
+    }
+
+    private static InstanceStatsRegistry.InFlight take(Map<String, Object> attributes) {
+        return attributes != null ? (InstanceStatsRegistry.InFlight) attributes.remove(IN_FLIGHT_ATTR) : null;
+    }
+
+    private static Map<String, Object> attributes(Request<RequestDataContext> request) {
+        if (request == null || request.getContext() == null) {
+            return null;
+        }
+        RequestData requestData = request.getContext().getClientRequest();
+        return requestData != null ? requestData.getAttributes() : null;
+    }
+}
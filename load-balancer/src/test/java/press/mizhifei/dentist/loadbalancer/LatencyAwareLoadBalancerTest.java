@@ -0,0 +1,150 @@
+package press.mizhifei.dentist.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClientAutoConfiguration;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.commons.util.UtilAutoConfiguration;
+import org.springframework.cloud.loadbalancer.config.LoadBalancerAutoConfiguration;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for LatencyAwareLoadBalancer
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private static final ServiceInstance FAST = instance("10.0.0.1");
+    private static final ServiceInstance SLOW = instance("10.0.0.2");
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private InstanceStatsRegistry registry;
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        LatencyAwareLoadBalancerProperties properties = new LatencyAwareLoadBalancerProperties();
+        properties.setInitialLatency(Duration.ofMillis(1));
+        registry = new InstanceStatsRegistry(new SimpleMeterRegistry(), properties, clock::get);
+        loadBalancer = new LatencyAwareLoadBalancer(mock(ObjectProvider.class), "clinic-service", registry);
+    }
+
+    @Test
+    void testSlowInstanceIsAvoided() {
+        // Given
+        respond(FAST, 10);
+        respond(SLOW, 200);
+
+        // When
+        List<ServiceInstance> chosen = choose(100, FAST, SLOW);
+
+        // Then
+        assertTrue(chosen.stream().allMatch(FAST::equals));
+    }
+
+    @Test
+    void testOutstandingRequestsShiftTraffic() {
+        // Given
+        respond(FAST, 10);
+        respond(SLOW, 30);
+        IntStream.range(0, 4).forEach(i -> registry.start(FAST));
+
+        // When
+        List<ServiceInstance> chosen = choose(100, FAST, SLOW);
+
+        // Then
+        assertTrue(chosen.stream().allMatch(SLOW::equals));
+    }
+
+    @Test
+    void testAvoidedInstanceIsRetriedOnceItsLatencyDecays() {
+        // Given
+        respond(SLOW, 200);
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        respond(FAST, 10);
+
+        // When
+        List<ServiceInstance> chosen = choose(100, FAST, SLOW);
+
+        // Then
+        assertTrue(chosen.stream().allMatch(SLOW::equals));
+    }
+
+    @Test
+    void testEveryInstanceIsSampled() {
+        // Given
+        List<ServiceInstance> instances = IntStream.range(1, 6).mapToObj(i -> instance("10.0.1." + i)).toList();
+
+        // When
+        List<ServiceInstance> chosen = IntStream.range(0, 500)
+                .mapToObj(i -> loadBalancer.choose(instances).getServer())
+                .toList();
+
+        // Then
+        assertTrue(chosen.containsAll(instances));
+    }
+
+    @Test
+    void testDefaultLoadBalancerOfEveryClient() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(UtilAutoConfiguration.class,
+                        SimpleDiscoveryClientAutoConfiguration.class, LoadBalancerAutoConfiguration.class,
+                        LatencyAwareLoadBalancerAutoConfiguration.class))
+                .withPropertyValues(
+                        "spring.cloud.discovery.client.simple.instances.clinic-service[0].uri=http://10.0.0.1:8083",
+                        "spring.cloud.discovery.client.simple.instances.clinic-service[1].uri=http://10.0.0.2:8083")
+                .run(context -> {
+                    // Given
+                    LoadBalancerClientFactory clientFactory = context.getBean(LoadBalancerClientFactory.class);
+
+                    // When
+                    Object loadBalancer = clientFactory.getInstance("clinic-service");
+                    Response<ServiceInstance> response = Mono.from(clientFactory.getInstance("clinic-service")
+                            .choose(new DefaultRequest<>())).block();
+
+                    // Then
+                    assertInstanceOf(LatencyAwareLoadBalancer.class, loadBalancer);
+                    assertEquals(8083, response.getServer().getPort());
+                    assertTrue(clientFactory.getInstances("clinic-service", LoadBalancerLifecycle.class).values()
+                            .stream().anyMatch(LatencyTrackingLifecycle.class::isInstance));
+                });
+    }
+
+    private List<ServiceInstance> choose(int times, ServiceInstance... instances) {
+        return IntStream.range(0, times)
+                .mapToObj(i -> loadBalancer.choose(List.of(instances)).getServer())
+                .toList();
+    }
+
+    private void respond(ServiceInstance instance, long millis) {
+        InstanceStatsRegistry.InFlight inFlight = registry.start(instance);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        inFlight.complete(false);
+    }
+
+    private static ServiceInstance instance(String host) {
+        return new DefaultServiceInstance(host + ":8083", "clinic-service", host, 8083, false);
+    }
+}
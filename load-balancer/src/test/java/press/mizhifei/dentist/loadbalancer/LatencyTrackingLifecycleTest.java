@@ -0,0 +1,121 @@
+package press.mizhifei.dentist.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyTrackingLifecycle
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class LatencyTrackingLifecycleTest {
+
+    private static final ServiceInstance INSTANCE =
+            new DefaultServiceInstance("10.0.0.1:8081", "auth-service", "10.0.0.1", 8081, false);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private final Map<String, Object> attributes = new HashMap<>();
+    private SimpleMeterRegistry meterRegistry;
+    private InstanceStatsRegistry registry;
+    private LatencyTrackingLifecycle lifecycle;
+
+    @BeforeEach
+    void setUp() {
+        LatencyAwareLoadBalancerProperties properties = new LatencyAwareLoadBalancerProperties();
+        properties.setInitialLatency(Duration.ofMillis(1));
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new InstanceStatsRegistry(meterRegistry, properties, clock::get);
+        lifecycle = new LatencyTrackingLifecycle(registry);
+    }
+
+    @Test
+    void testResponseRecordsLatencyAndReleasesRequest() {
+        // Given
+        Request<RequestDataContext> request = request();
+        lifecycle.onStartRequest(request, new DefaultResponse(INSTANCE));
+        int outstanding = registry.stats(INSTANCE).outstanding();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(30));
+
+        // When
+        lifecycle.onComplete(completion(CompletionContext.Status.SUCCESS, request, HttpStatus.OK));
+
+        // Then
+        assertEquals(1, outstanding);
+        assertEquals(0, registry.stats(INSTANCE).outstanding());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(30), registry.stats(INSTANCE).latencyNanos(clock.get()), 1e3);
+        assertEquals(1, meterRegistry.get("loadbalancer.instance.requests")
+                .tags("service", "auth-service", "instance", "10.0.0.1:8081", "outcome", "success").timer().count());
+        assertEquals(30.0, meterRegistry.get("loadbalancer.instance.latency").gauge().value(), 0.01);
+    }
+
+    @Test
+    void testServerErrorIsPenalised() {
+        // Given
+        Request<RequestDataContext> request = request();
+        lifecycle.onStartRequest(request, new DefaultResponse(INSTANCE));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+
+        // When
+        lifecycle.onComplete(completion(CompletionContext.Status.SUCCESS, request, HttpStatus.SERVICE_UNAVAILABLE));
+
+        // Then
+        assertEquals(TimeUnit.SECONDS.toNanos(1), registry.stats(INSTANCE).latencyNanos(clock.get()), 1e3);
+        assertEquals(1, meterRegistry.get("loadbalancer.instance.requests").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testCancelledRequestIsReleasedOnce() {
+        // Given
+        Request<RequestDataContext> request = request();
+        lifecycle.onStartRequest(request, new DefaultResponse(INSTANCE));
+
+        // When
+        LatencyTrackingLifecycle.cancel(attributes);
+        lifecycle.onComplete(completion(CompletionContext.Status.FAILED, request, null));
+
+        // Then
+        assertEquals(0, registry.stats(INSTANCE).outstanding());
+        assertFalse(attributes.containsKey(LatencyTrackingLifecycle.IN_FLIGHT_ATTR));
+        assertEquals(0, meterRegistry.get("loadbalancer.instance.requests").tag("outcome", "failure").timer().count());
+    }
+
+    private Request<RequestDataContext> request() {
+        return new DefaultRequest<>(new RequestDataContext(new RequestData(HttpMethod.GET,
+                URI.create("http://auth-service/auth/user/42"), new HttpHeaders(), new LinkedMultiValueMap<>(),
+                attributes)));
+    }
+
+    private static CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completion(
+            CompletionContext.Status status, Request<RequestDataContext> request, HttpStatus httpStatus) {
+        ResponseData response = httpStatus != null
+                ? new ResponseData(httpStatus, new HttpHeaders(), new LinkedMultiValueMap<>(),
+                request.getContext().getClientRequest())
+                : null;
+        return new CompletionContext<>(status, request, new DefaultResponse(INSTANCE), response);
+    }
+}
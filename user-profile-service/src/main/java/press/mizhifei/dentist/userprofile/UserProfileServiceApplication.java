@@ -4,6 +4,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
+import press.mizhifei.dentist.cache.names.NameChangePublisher;
 
 /**
  * User Profile Service Application
@@ -17,6 +19,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
+@Import(NameChangePublisher.class)
 public class UserProfileServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(UserProfileServiceApplication.class, args);
@@ -1,14 +1,19 @@
 package press.mizhifei.dentist.userprofile.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import press.mizhifei.dentist.userprofile.dto.ApiResponse;
+import press.mizhifei.dentist.userprofile.dto.CursorPage;
 import press.mizhifei.dentist.userprofile.dto.PatientRequest;
 import press.mizhifei.dentist.userprofile.dto.PatientResponse;
 import press.mizhifei.dentist.userprofile.service.PatientService;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  *
@@ -22,7 +27,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PatientController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final PatientService patientService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/add")
     public ResponseEntity<ApiResponse<PatientResponse>> createPatient(@RequestBody PatientRequest request) {
@@ -30,9 +39,35 @@ public class PatientController {
         return ResponseEntity.ok(ApiResponse.success(patient));
     }
 
+    /**
+     * Lists patients by keyset page; follow nextCursor until it is null
+     */
     @GetMapping("/list/all")
-    public ResponseEntity<ApiResponse<List<PatientResponse>>> listAllPatients() {
-        List<PatientResponse> patients = patientService.listAllPatients();
-        return ResponseEntity.ok(ApiResponse.success(patients));
+    public ResponseEntity<ApiResponse<CursorPage<PatientResponse>>> listAllPatients(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("size must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        return ResponseEntity.ok(ApiResponse.success(patientService.listPatients(cursor, size)));
+    }
+
+    /**
+     * Streams every patient as newline-delimited JSON, one object per line, for clients sending
+     * Accept: application/x-ndjson
+     */
+    @GetMapping(value = "/list/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPatients() {
+        StreamingResponseBody body = out -> patientService.streamAllPatients(patient -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(patient));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 } 
\ No newline at end of file
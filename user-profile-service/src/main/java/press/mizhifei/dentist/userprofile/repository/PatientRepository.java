@@ -1,9 +1,17 @@
 package press.mizhifei.dentist.userprofile.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import press.mizhifei.dentist.userprofile.model.Patient;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  *
  * @author zhifeimi
@@ -13,4 +21,20 @@ import press.mizhifei.dentist.userprofile.model.Patient;
  */
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
-} 
\ No newline at end of file
+
+    /**
+     * Keyset page: the patients after the given id, in id order, read through the primary key index
+     */
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Every patient in id order, fetched from the database fetch-size rows at a time; must be consumed, and
+     * closed, inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Patient p ORDER BY p.id")
+    Stream<Patient> streamAllOrderById();
+}
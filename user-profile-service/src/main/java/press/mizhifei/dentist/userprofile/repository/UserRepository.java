@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 import press.mizhifei.dentist.userprofile.model.Role;
 import press.mizhifei.dentist.userprofile.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,4 +40,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u JOIN u.roles r WHERE u.clinicId = :clinicId AND r = :role")
     List<User> findByClinicIdAndRoles(@Param("clinicId") Long clinicId, @Param("role") Role role);
+
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName FROM User u WHERE u.id IN :ids")
+    List<UserName> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Name columns of a user, read without loading the entity and its roles
+     */
+    interface UserName {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+    }
 }
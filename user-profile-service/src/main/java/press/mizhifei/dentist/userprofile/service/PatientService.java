@@ -1,15 +1,19 @@
 package press.mizhifei.dentist.userprofile.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import press.mizhifei.dentist.userprofile.dto.CursorPage;
 import press.mizhifei.dentist.userprofile.dto.PatientRequest;
 import press.mizhifei.dentist.userprofile.dto.PatientResponse;
 import press.mizhifei.dentist.userprofile.model.Patient;
 import press.mizhifei.dentist.userprofile.repository.PatientRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  *
@@ -23,6 +27,7 @@ import java.util.stream.Collectors;
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final EntityManager entityManager;
 
     @Transactional
     public PatientResponse createPatient(PatientRequest request) {
@@ -40,11 +45,39 @@ public class PatientService {
         return convertToDto(saved);
     }
 
+    /**
+     * Lists patients one keyset page at a time, in id order
+     * @param cursor the nextCursor of the previous page, null for the first page
+     * @param size the page size
+     * @return the page, with the cursor of the next one or null if this is the last
+     */
     @Transactional(readOnly = true)
-    public List<PatientResponse> listAllPatients() {
-        return patientRepository.findAll().stream()
+    public CursorPage<PatientResponse> listPatients(Long cursor, int size) {
+        // One extra row tells whether another page follows
+        List<Patient> patients = patientRepository.findByIdGreaterThanOrderByIdAsc(
+                cursor != null ? cursor : Long.MIN_VALUE, Limit.of(size + 1));
+        boolean hasNext = patients.size() > size;
+        List<PatientResponse> items = patients.stream()
+                .limit(size)
                 .map(this::convertToDto)
-                .collect(Collectors.toList());
+                .toList();
+        Long nextCursor = hasNext ? items.get(items.size() - 1).getId() : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Hands every patient to the consumer in id order, without holding more than one fetch of rows in memory
+     * @param consumer receives each patient as it is read
+     */
+    @Transactional(readOnly = true)
+    public void streamAllPatients(Consumer<PatientResponse> consumer) {
+        try (Stream<Patient> patients = patientRepository.streamAllOrderById()) {
+            patients.forEach(patient -> {
+                consumer.accept(convertToDto(patient));
+                // Keep the persistence context from growing with every row read
+                entityManager.detach(patient);
+            });
+        }
     }
 
     private PatientResponse convertToDto(Patient patient) {
@@ -3,6 +3,7 @@ package press.mizhifei.dentist.userprofile.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import press.mizhifei.dentist.cache.names.NameChangePublisher;
 import press.mizhifei.dentist.userprofile.dto.ApiResponse;
 import press.mizhifei.dentist.userprofile.dto.UserResponse;
 import press.mizhifei.dentist.userprofile.dto.UserUpdateRequest;
@@ -10,7 +11,10 @@ import press.mizhifei.dentist.userprofile.model.User;
 import press.mizhifei.dentist.userprofile.model.Role;
 import press.mizhifei.dentist.userprofile.repository.UserRepository;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +29,7 @@ import java.util.stream.Collectors;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final NameChangePublisher nameChangePublisher;
 
     public List<UserResponse> listAllUsers() {
         return userRepository.findAll().stream()
@@ -45,6 +50,23 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
         return user.getFirstName() + " " + user.getLastName();
     }
+
+    /**
+     * Resolves the full names of many users with a single query; unknown ids are left out
+     * @param userIds user ids
+     * @return full name by user id
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> getUserFullNames(Collection<Long> userIds) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return names;
+        }
+        for (UserRepository.UserName user : userRepository.findNamesByIdIn(userIds)) {
+            names.put(user.getId(), user.getFirstName() + " " + user.getLastName());
+        }
+        return names;
+    }
     
     @Transactional(readOnly = true)
     public ApiResponse<UserDetailsResponse> getUserDetails(Long userId) {
@@ -83,6 +105,7 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
 
         // Update only the allowed fields
+        String previousName = user.getFirstName() + " " + user.getLastName();
         if (updateRequest.getFirstName() != null) {
             user.setFirstName(updateRequest.getFirstName());
         }
@@ -103,6 +126,9 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        if (!previousName.equals(savedUser.getFirstName() + " " + savedUser.getLastName())) {
+            nameChangePublisher.userRenamed(userId);
+        }
         return ApiResponse.success(savedUser.toUserResponse());
     }
 
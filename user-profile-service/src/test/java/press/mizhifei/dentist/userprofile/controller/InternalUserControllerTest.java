@@ -0,0 +1,84 @@
+package press.mizhifei.dentist.userprofile.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import press.mizhifei.dentist.cache.names.NameChangePublisher;
+import press.mizhifei.dentist.userprofile.repository.UserRepository;
+import press.mizhifei.dentist.userprofile.repository.UserRepository.UserName;
+import press.mizhifei.dentist.userprofile.service.UserService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for InternalUserController
+ *
+ * @author zhifeimi
+ * @email zm377@uowmail.edu.au
+ * @github https://github.com/zm377
+ */
+class InternalUserControllerTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new InternalUserController(new UserService(userRepository, mock(NameChangePublisher.class))))
+            .build();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNamesOfDeduplicatedIdsAreResolvedWithOneQuery() throws Exception {
+        // Given
+        when(userRepository.findNamesByIdIn(anyCollection()))
+                .thenReturn(List.of(userName(1L, "Ada", "Lovelace"), userName(2L, "Alan", "Turing")));
+
+        // When / Then
+        mockMvc.perform(get("/internal/user/names").param("ids", "1,2,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.1").value("Ada Lovelace"))
+                .andExpect(jsonPath("$.2").value("Alan Turing"))
+                .andExpect(jsonPath("$.3").doesNotExist());
+        verify(userRepository, times(1)).findNamesByIdIn(argThat((Collection<Long> ids) -> ids.equals(Set.of(1L, 2L, 3L))));
+    }
+
+    @Test
+    void testMoreIdsThanOneCallMayAskForAreRejected() throws Exception {
+        // Given
+        String ids = LongStream.rangeClosed(1, InternalUserController.MAX_IDS + 1)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+
+        // When / Then
+        mockMvc.perform(get("/internal/user/names").param("ids", ids))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(userRepository);
+    }
+
+    private static UserName userName(Long id, String firstName, String lastName) {
+        return new UserName() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getFirstName() {
+                return firstName;
+            }
+
+            @Override
+            public String getLastName() {
+                return lastName;
+            }
+        };
+    }
+}